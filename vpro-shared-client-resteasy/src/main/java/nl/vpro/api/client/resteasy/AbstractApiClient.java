@@ -5,6 +5,7 @@
 package nl.vpro.api.client.resteasy;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,8 +17,8 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,6 +37,7 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.SocketConfig;
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.*;
@@ -73,15 +75,17 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
 
     protected String baseUrl;
 
-    private ClientHttpEngine clientHttpEngine;
-    private ClientHttpEngine clientHttpEngineNoTimeout;
+    /**
+     * The engines in use. This is replaced as a whole (on {@link #invalidate()}, or when an engine is created), so that reading it needs no locking.
+     */
+    private final AtomicReference<Engines> engines = new AtomicReference<>(new Engines(0, null, null, null));
 
     private boolean shutdown = false;
     protected boolean trustAll = false;
 
-    protected Duration connectionRequestTimeout;
-    protected Duration connectTimeout;
-    protected Duration socketTimeout;
+    protected volatile Duration connectionRequestTimeout;
+    protected volatile Duration connectTimeout;
+    protected volatile Duration socketTimeout;
 
     @Getter
     protected Integer maxConnections;
@@ -105,6 +109,14 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
     @Getter
     protected Level warnLevel = Level.WARN;
 
+    /**
+     * If set, is called for every counted call, e.g. a {@link nl.vpro.jmx.CountAspectTimers} to publish them as micrometer timers too. Only affects proxies created after setting it.
+     * @since 6.0
+     */
+    @Getter
+    @Setter
+    protected CountAspect.Listener countListener;
+
     @Getter
     protected List<Locale> acceptableLanguages = new ArrayList<>();
 
@@ -124,7 +136,7 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
      */
     protected boolean browserCache = true;
 
-    private Instant initializationInstant = Instant.now();
+    private volatile Instant initializationInstant = Instant.now();
 
     protected String mbeanName;
 
@@ -303,7 +315,7 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
 
 
     @Override
-    public synchronized void invalidate() {
+    public void invalidate() {
         counter.values().forEach(Counter::shutdown);
         counter.clear();
         this.initializationInstant = Instant.now();
@@ -316,12 +328,12 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
     }
 
     @Override
-    public synchronized String getConnectionRequestTimeout() {
+    public String getConnectionRequestTimeout() {
         return String.valueOf(connectionRequestTimeout);
     }
 
     @Override
-    public synchronized void setConnectionRequestTimeout(String connectionRequestTimeout) {
+    public void setConnectionRequestTimeout(String connectionRequestTimeout) {
         Duration toSet = TimeUtils.parseDuration(connectionRequestTimeout).orElse(null);
         if (! Objects.equals(this.connectionRequestTimeout, toSet)) {
             this.connectionRequestTimeout = toSet;
@@ -330,12 +342,12 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
     }
 
     @Override
-    public synchronized String getConnectTimeout() {
+    public String getConnectTimeout() {
         return String.valueOf(connectTimeout);
     }
 
     @Override
-    public synchronized void setConnectTimeout(String connectTimeout) {
+    public void setConnectTimeout(String connectTimeout) {
         Duration parsed = TimeUtils.parseDuration(connectTimeout).orElse(null);
         if (! Objects.equals(parsed, this.connectTimeout)) {
             this.connectTimeout = parsed;
@@ -344,12 +356,12 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
     }
 
     @Override
-    public synchronized String getSocketTimeout() {
+    public String getSocketTimeout() {
         return String.valueOf(socketTimeout);
     }
 
     @Override
-    public synchronized void setSocketTimeout(String socketTimeout) {
+    public void setSocketTimeout(String socketTimeout) {
         Duration toSet = TimeUtils.parseDuration(socketTimeout).orElse(null);
         if (! Objects.equals(this.socketTimeout, toSet)) {
             this.socketTimeout = toSet;
@@ -465,25 +477,30 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
 
     }
 
-    private CloseableHttpClient getHttpClient(
+    private RequestConfig getRequestConfig(
         Duration connectionRequestTimeout,
         Duration connectTimeout,
         Duration socketTimeout) {
-
-        RequestConfig defaultRequestConfig = RequestConfig.custom()
+        return RequestConfig.custom()
             .setExpectContinueEnabled(true)
             .setMaxRedirects(100)
             .setConnectionRequestTimeout(connectionRequestTimeout == null ? 0 : (int) connectionRequestTimeout.toMillis())
             .setConnectTimeout(connectTimeout == null ? 0 : (int) connectTimeout.toMillis())
             .setSocketTimeout(socketTimeout == null ? 0 : (int) socketTimeout.toMillis())
             .build();
+    }
 
-        final List<Header> defaultHeaders = new ArrayList<>();
-        defaultHeaders.add(new BasicHeader("Keep-Alive", "timeout=1000, max=500"));
+    private CloseableHttpClient getHttpClient(
+        Duration connectionRequestTimeout,
+        Duration connectTimeout,
+        Duration socketTimeout,
+        PoolingHttpClientConnectionManager connectionManager) {
+
+        RequestConfig defaultRequestConfig = getRequestConfig(connectionRequestTimeout, connectTimeout, socketTimeout);
 
         HttpClientBuilder client = HttpClients.custom()
             .setDefaultRequestConfig(defaultRequestConfig)
-            .setDefaultHeaders(defaultHeaders)
+            .setDefaultHeaders(getDefaultHeaders())
             .setUserAgent(userAgent)
             .setRetryHandler((exception, executionCount, context) -> {
                 if (exception instanceof NoHttpResponseException && executionCount < 3) {
@@ -495,8 +512,9 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
             })
             .setKeepAliveStrategy(new MyConnectionKeepAliveStrategy());
 
-        setConnectionManager(client);
-
+        if (connectionManager != null) {
+            client.setConnectionManager(connectionManager);
+        }
 
         if (trustAll){
             try {
@@ -509,7 +527,16 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         return client.build();
     }
 
-    private void setConnectionManager(HttpClientBuilder client) {
+    private static List<Header> getDefaultHeaders() {
+        final List<Header> defaultHeaders = new ArrayList<>();
+        defaultHeaders.add(new BasicHeader("Keep-Alive", "timeout=1000, max=500"));
+        return defaultHeaders;
+    }
+
+    /**
+     * @return A new connection manager, or {@code null} if no {@link #connectionInPoolTTL} is configured
+     */
+    private PoolingHttpClientConnectionManager newConnectionManager() {
         PoolingHttpClientConnectionManager connectionManager = null;
         Integer maxConnections = this.maxConnections;
         Integer maxConnectionsPerRoute = this.maxConnectionsPerRoute;
@@ -540,45 +567,122 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
                 .build();
 
             connectionManager.setDefaultSocketConfig(socketConfig);
-
-            if (maxConnections > 1) {
-                watchIdleConnections(connectionManager);
-            }
         } else {
             log.info("No TTL configured");
         }
-        if (connectionManager != null){
-            client.setConnectionManager(connectionManager);
-        }
-
+        return connectionManager;
+    }
+
+    public ClientHttpEngine getClientHttpEngine() {
+        return getEngine(Engines::timeout, Engines::withTimeout, () -> {
+            final PoolingHttpClientConnectionManager connectionManager = newConnectionManager();
+            return new Engine(
+                ApacheHttpClientEngine.create(
+                    getHttpClient(
+                        connectionRequestTimeout,
+                        connectTimeout,
+                        socketTimeout,
+                        connectionManager
+                    ),
+                    false
+                ),
+                connectionManager
+            );
+        });
     }
 
-    public synchronized ClientHttpEngine getClientHttpEngine() {
-        if (clientHttpEngine == null) {
-            clientHttpEngine = ApacheHttpClientEngine.create(
-                getHttpClient(
-                    connectionRequestTimeout,
-                    connectTimeout,
-                    socketTimeout
-                ),
-                false
+    public ClientHttpEngine getClientHttpEngineNoTimeout() {
+        return getEngine(Engines::noTimeout, Engines::withNoTimeout, () -> {
+            final PoolingHttpClientConnectionManager connectionManager = newConnectionManager();
+            return new Engine(
+                ApacheHttpClientEngine.create(
+                    getHttpClient(
+                        connectionRequestTimeout,
+                        connectTimeout,
+                        null,
+                        connectionManager
+                    ),
+                    false),
+                connectionManager
             );
+        });
+    }
+
+    /**
+     * An engine backed by the apache async http client. Services {@link #buildAsync(Class, Consumer) build} with this can return {@link CompletionStage}s, without blocking a thread during the request.
+     * <p>
+     * This requires {@code org.apache.httpcomponents:httpasyncclient} on the class path.
+     * <p>
+     * The timeouts, the maximum number of connections, {@link #connectionInPoolTTL}, the keep alive strategy and the default headers are the same as for {@link #getClientHttpEngine()}. The async client has no equivalent of {@link #validateAfterInactivity} though, and its connections are neither watched for being idle nor reported in {@link #getConnectionPoolStatistics()}.
+     * @since 6.0
+     */
+    public ClientHttpEngine getAsyncClientHttpEngine() {
+        return getEngine(Engines::async, Engines::withAsync, () -> new Engine(
+            AsyncEngines.create(
+                getRequestConfig(connectionRequestTimeout, connectTimeout, socketTimeout),
+                getDefaultHeaders(),
+                new MyConnectionKeepAliveStrategy(),
+                userAgent,
+                maxConnections,
+                maxConnectionsPerRoute,
+                connectionInPoolTTL,
+                trustAll
+            ),
+            null
+        ));
+    }
 
+    /**
+     * Returns the engine of the current {@link Engines}, or creates one. Normally this does not lock anything. If the engine is created concurrently, only one of them is kept. If the client is {@link #invalidate() invalidated} meanwhile, a new one is created with the new configuration.
+     * <p>
+     * The connection manager of a new engine is watched before the engine is published, so that {@link #closeClients()} always finds it watched, and unwatches it.
+     */
+    private ClientHttpEngine getEngine(
+        Function<Engines, Engine> getter,
+        BiFunction<Engines, Engine, Engines> with,
+        Supplier<Engine> factory) {
+        while (true) {
+            final Engines current = engines.get();
+            final Engine existing = getter.apply(current);
+            if (existing != null) {
+                return existing.engine();
+            }
+            final Engine created = factory.get();
+            if (created.connectionManager() != null && maxConnections != null && maxConnections > 1) {
+                watchIdleConnections(created.connectionManager());
+            }
+            Engines witness = current;
+            while (true) {
+                if (engines.compareAndSet(witness, with.apply(witness, created))) {
+                    return created.engine();
+                }
+                witness = engines.get();
+                if (witness.generation() != current.generation() || getter.apply(witness) != null) {
+                    close(created);
+                    break;
+                }
+            }
         }
-        return clientHttpEngine;
     }
 
-    public synchronized ClientHttpEngine getClientHttpEngineNoTimeout() {
-        if (clientHttpEngineNoTimeout == null) {
-            clientHttpEngineNoTimeout = ApacheHttpClientEngine.create(
-                getHttpClient(
-                    connectionRequestTimeout,
-                    connectTimeout,
-                    null
-                ),
-                false);
+    @Override
+    public Map<String, String> getConnectionPoolStatistics() {
+        final Engines current = engines.get();
+        final Map<String, String> result = new TreeMap<>();
+        putPoolStatistics(result, "", current.timeout());
+        putPoolStatistics(result, "no timeout ", current.noTimeout());
+        return result;
+    }
+
+    private static void putPoolStatistics(Map<String, String> result, String prefix, Engine engine) {
+        if (engine == null || engine.connectionManager() == null) {
+            return;
+        }
+        final PoolingHttpClientConnectionManager connectionManager = engine.connectionManager();
+        result.put(prefix + "total", connectionManager.getTotalStats().toString());
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            result.put(prefix + route.getTargetHost().toURI(), connectionManager.getStats(route).toString());
         }
-        return clientHttpEngineNoTimeout;
     }
 
 
@@ -625,7 +729,6 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
 
         if (!Objects.equals(this.connectionInPoolTTL, parsed)) {
             this.connectionInPoolTTL = parsed;
-            clientHttpEngine = null;
             invalidate();
         }
     }
@@ -640,7 +743,6 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         Duration parsed = TimeUtils.parseDuration(validateAfterInactivityAsString).orElse(null);
         if (!Objects.equals(this.validateAfterInactivity, parsed)) {
             this.validateAfterInactivity = parsed;
-            clientHttpEngine = null;
             invalidate();
         }
     }
@@ -755,7 +857,7 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
      */
     protected <T> T proxyCounter(Class<T> service, T proxy) {
         return CountAspect.proxyCounter(counter, countWindow, bucketCount,
-                registerMBean ? getObjectName() : null, service, proxy, Slf4jSimpleLogger.slf4j(log), warnThreshold, warnLevel);
+                registerMBean ? getObjectName() : null, service, proxy, Slf4jSimpleLogger.slf4j(log), warnThreshold, warnLevel, countListener);
     }
 
     protected <T> T build(ClientHttpEngine engine, Class<T> service, Consumer<ResteasyClientBuilder> buildFurther) {
@@ -804,6 +906,21 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         return build(service, null);
     }
 
+    /**
+     * Builds a service on the {@link #getAsyncClientHttpEngine() async engine}. The methods of the service interface can return {@link CompletionStage}s then. The counts of {@link CountAspect} only measure the time until the {@link CompletionStage} is returned for those.
+     * @since 6.0
+     */
+    protected <T> T buildAsync(Class<T> service, Consumer<ResteasyClientBuilder> buildFurther) {
+        return build(getAsyncClientHttpEngine(), service, buildFurther);
+    }
+
+    /**
+     * @since 6.0
+     */
+    protected <T> T buildAsync(Class<T> service) {
+        return buildAsync(service, null);
+    }
+
     private <T> T buildResteasy(ClientHttpEngine engine, Class<T> service, Consumer<ResteasyClientBuilder> buildFurther) {
 
         return getTarget(engine, buildFurther)
@@ -829,7 +946,10 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         builder.register(new JacksonContextResolver(objectMapper));
         builder.register(new AcceptRequestFilter(accept));
         builder.register(new AcceptLanguageRequestFilter(acceptableLanguages));
-        builder.register(new CountFilter(log));
+        if (!(engine instanceof AsyncClientHttpEngine)) {
+            // the response is handled in another thread, so it can't be matched with the CountAspect
+            builder.register(new CountFilter(log));
+        }
         builder.register(HeaderInterceptor.INSTANCE);
 
         if (this.browserCache) {
@@ -1022,22 +1142,33 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         }
     }
 
-    private synchronized void watchIdleConnections(PoolingHttpClientConnectionManager connectionManager) {
-        log.debug("Watching idle connections in {}", connectionManager);
-        GUARD.add(connectionManager);
-        if (connectionGuardThread == null) {
-            GUARD.start();
-            connectionGuardThread = THREAD_FACTORY.newThread(GUARD);
-            connectionGuardThread.start();
+    private void watchIdleConnections(PoolingHttpClientConnectionManager connectionManager) {
+        synchronized (GUARD) {
+            log.debug("Watching idle connections in {}", connectionManager);
+            GUARD.add(connectionManager);
+            if (connectionGuardThread == null) {
+                GUARD.start();
+                connectionGuardThread = THREAD_FACTORY.newThread(GUARD);
+                connectionGuardThread.start();
+            }
         }
     }
-    private synchronized void unwatchIdleConnections(PoolingHttpClientConnectionManager connectionManager) {
-        log.debug("Unwatching idle connections in {}", connectionManager);
-        GUARD.remove(connectionManager);
-        if (GUARD.connectionManagers.isEmpty()) {
-            connectionGuardThread.interrupt();
-            GUARD.shutdown();
-            connectionGuardThread = null;
+    /**
+     * The number of connection managers (of all clients) that are watched for idle connections.
+     */
+    static int getWatchedConnectionManagerCount() {
+        return GUARD.connectionManagers.size();
+    }
+
+    private void unwatchIdleConnections(PoolingHttpClientConnectionManager connectionManager) {
+        synchronized (GUARD) {
+            log.debug("Unwatching idle connections in {}", connectionManager);
+            GUARD.remove(connectionManager);
+            if (GUARD.connectionManagers.isEmpty() && connectionGuardThread != null) {
+                connectionGuardThread.interrupt();
+                GUARD.shutdown();
+                connectionGuardThread = null;
+            }
         }
     }
 
@@ -1056,14 +1187,47 @@ public abstract class AbstractApiClient implements AbstractApiClientMXBean, Auto
         invalidate();
     }
 
-    protected synchronized void closeClients() {
-        if (clientHttpEngine != null) {
-            clientHttpEngine.close();
-            clientHttpEngine = null;
+    protected void closeClients() {
+        final Engines previous = engines.getAndUpdate(Engines::next);
+        close(previous.timeout());
+        close(previous.noTimeout());
+        close(previous.async());
+    }
+
+    private void close(Engine engine) {
+        if (engine != null) {
+            if (engine.connectionManager() != null) {
+                unwatchIdleConnections(engine.connectionManager());
+            }
+            engine.engine().close();
         }
-        if (clientHttpEngineNoTimeout != null) {
-            clientHttpEngineNoTimeout.close();
-            clientHttpEngineNoTimeout = null;
+    }
+
+    /**
+     * An engine, with its connection manager if it has one (so that it can be watched, and its statistics can be reported).
+     */
+    private record Engine(ClientHttpEngine engine, PoolingHttpClientConnectionManager connectionManager) {
+    }
+
+    /**
+     * The engines that are currently in use. Every {@link AbstractApiClient#invalidate()} starts a new generation without engines.
+     */
+    private record Engines(long generation, Engine timeout, Engine noTimeout, Engine async) {
+
+        Engines next() {
+            return new Engines(generation + 1, null, null, null);
+        }
+
+        Engines withTimeout(Engine engine) {
+            return new Engines(generation, engine, noTimeout, async);
+        }
+
+        Engines withNoTimeout(Engine engine) {
+            return new Engines(generation, timeout, engine, async);
+        }
+
+        Engines withAsync(Engine engine) {
+            return new Engines(generation, timeout, noTimeout, engine);
         }
     }
 
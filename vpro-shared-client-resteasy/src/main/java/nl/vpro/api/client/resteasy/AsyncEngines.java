@@ -0,0 +1,69 @@
+package nl.vpro.api.client.resteasy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.Header;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpAsyncClient4Engine;
+
+/**
+ * Creates the {@link AbstractApiClient#getAsyncClientHttpEngine() async engine} of {@link AbstractApiClient}. This is a separate class, so that {@code httpasyncclient} is only needed if it is used.
+ *
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+class AsyncEngines {
+
+    private AsyncEngines() {
+    }
+
+    static ClientHttpEngine create(
+        RequestConfig requestConfig,
+        List<Header> defaultHeaders,
+        ConnectionKeepAliveStrategy keepAliveStrategy,
+        String userAgent,
+        Integer maxConnections,
+        Integer maxConnectionsPerRoute,
+        Duration connectionInPoolTTL,
+        boolean trustAll) {
+        final HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+            .setDefaultRequestConfig(requestConfig)
+            .setDefaultHeaders(defaultHeaders)
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .setUserAgent(userAgent);
+        if (connectionInPoolTTL != null) {
+            builder.setConnectionTimeToLive(connectionInPoolTTL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (maxConnections != null && maxConnections > 0) {
+            builder.setMaxConnTotal(maxConnections);
+        }
+        if (maxConnectionsPerRoute != null && maxConnectionsPerRoute > 0) {
+            builder.setMaxConnPerRoute(maxConnectionsPerRoute);
+        }
+        if (trustAll) {
+            try {
+                builder.setSSLContext(SSLContext.getDefault());
+                builder.setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE);
+            } catch (NoSuchAlgorithmException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+        final CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return new ApacheHttpAsyncClient4Engine(client, true);
+    }
+}
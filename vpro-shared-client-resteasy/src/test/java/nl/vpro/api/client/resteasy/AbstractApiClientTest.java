@@ -0,0 +1,131 @@
+package nl.vpro.api.client.resteasy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+
+import org.jboss.resteasy.client.jaxrs.AsyncClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.sun.net.httpserver.HttpServer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class AbstractApiClientTest {
+
+    /**
+     * Engines requested concurrently, while the client is invalidated. Only one engine per generation may be installed, and the connection managers of duplicates and of older generations must not stay watched.
+     */
+    @Test
+    @Timeout(30)
+    public void concurrentEnginesAndInvalidate() throws Exception {
+        try (TestClient client = new TestClient("http://localhost")) {
+            final int threads = 8;
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final Set<ClientHttpEngine> seen = ConcurrentHashMap.newKeySet();
+            try {
+                final CyclicBarrier barrier = new CyclicBarrier(threads);
+                final List<Future<ClientHttpEngine>> firsts = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    firsts.add(executor.submit(() -> {
+                        barrier.await();
+                        return client.getClientHttpEngine();
+                    }));
+                }
+                for (Future<ClientHttpEngine> first : firsts) {
+                    seen.add(first.get());
+                }
+                assertThat(seen).hasSize(1);
+                assertThat(AbstractApiClient.getWatchedConnectionManagerCount()).isEqualTo(1);
+
+                final AtomicBoolean running = new AtomicBoolean(true);
+                final List<Future<?>> getters = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    getters.add(executor.submit(() -> {
+                        while (running.get()) {
+                            seen.add(client.getClientHttpEngine());
+                        }
+                    }));
+                }
+                for (int i = 0; i < 50; i++) {
+                    client.invalidate();
+                    Thread.sleep(2);
+                }
+                running.set(false);
+                for (Future<?> getter : getters) {
+                    getter.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            log.info("Seen {} engines", seen.size());
+            final ClientHttpEngine current = client.getClientHttpEngine();
+            assertThat(client.getClientHttpEngine()).isSameAs(current);
+            assertThat(client.getConnectionPoolStatistics()).containsKey("total");
+            assertThat(AbstractApiClient.getWatchedConnectionManagerCount()).isEqualTo(1);
+
+            client.invalidate();
+            assertThat(AbstractApiClient.getWatchedConnectionManagerCount()).isEqualTo(0);
+            assertThat(seen).doesNotContain(client.getClientHttpEngine());
+        }
+        assertThat(AbstractApiClient.getWatchedConnectionManagerCount()).isEqualTo(0);
+    }
+
+    @Test
+    @Timeout(10)
+    public void buildAsync() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hello", exchange -> {
+            final byte[] body = "hello".getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", MediaType.TEXT_PLAIN);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try (TestClient client = new TestClient("http://localhost:" + server.getAddress().getPort())) {
+            assertThat(client.getAsyncClientHttpEngine()).isInstanceOf(AsyncClientHttpEngine.class);
+            final CompletionStage<String> hello = client.buildAsync(Hello.class).hello();
+            assertThat(hello.toCompletableFuture().get()).isEqualTo("hello");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    public interface Hello {
+        @GET
+        @Path("hello")
+        @Produces(MediaType.TEXT_PLAIN)
+        CompletionStage<String> hello();
+    }
+
+    static class TestClient extends AbstractApiClient {
+
+        TestClient(String baseUrl) {
+            super(baseUrl, null, null, null, 10, 10, null, null, null, null, null, null, null, null, null, MediaType.TEXT_PLAIN_TYPE, null, null, null, null, null, "test", false, false);
+        }
+
+        @Override
+        protected Stream<Supplier<?>> services() {
+            return Stream.empty();
+        }
+    }
+}
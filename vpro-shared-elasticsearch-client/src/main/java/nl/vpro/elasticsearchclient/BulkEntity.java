@@ -0,0 +1,232 @@
+package nl.vpro.elasticsearchclient;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The body of a {@code _bulk} request, which is not build in memory as a whole, but is streamed to the server.
+ * <p>
+ * The entries are serialized one by one with a {@link JsonGenerator}, which filters the control characters like {@link IndexHelper#saveToString(com.fasterxml.jackson.databind.JsonNode)} does. On asynchronous requests (which is what the {@link org.elasticsearch.client.RestClient} always does) only one entry at a time is kept in a (reused) buffer.
+ * <p>
+ * Optionally the body is gzip compressed.
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class BulkEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final CharacterEscapes ESCAPES = new ControlCharacterEscapes();
+    private static final byte NEWLINE = '\n';
+
+    @Getter
+    private final Collection<BulkRequestEntry> entries;
+    @Getter
+    private final boolean gzip;
+
+    // state for producing content asynchronously
+    private Iterator<BulkRequestEntry> iterator;
+    private Buffer buffer;
+    private OutputStream out;
+    private JsonGenerator generator;
+    private ByteBuffer pending;
+
+    /**
+     * @param entries The entries to send. They are all {@link BulkRequestEntry#use() used} right away.
+     * @param gzip Whether to gzip the body
+     */
+    public BulkEntity(Collection<BulkRequestEntry> entries, boolean gzip) {
+        this.entries = entries;
+        this.gzip = gzip;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+        if (gzip) {
+            setContentEncoding("gzip");
+        }
+        entries.forEach(BulkRequestEntry::use);
+    }
+
+    public BulkEntity(Collection<BulkRequestEntry> entries) {
+        this(entries, false);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final Buffer result = new Buffer();
+        writeTo(result);
+        return new ByteArrayInputStream(result.buffer(), 0, result.size());
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        final OutputStream target = gzip ? new GZIPOutputStream(outStream) : outStream;
+        try (JsonGenerator g = generator(target)) {
+            for (BulkRequestEntry entry : entries) {
+                write(g, entry);
+            }
+        }
+        if (target instanceof GZIPOutputStream gzipOutputStream) {
+            gzipOutputStream.finish();
+        }
+        target.flush();
+    }
+
+    @Override
+    public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+        if (iterator == null) {
+            iterator = entries.iterator();
+            buffer = new Buffer();
+            out = gzip ? new GZIPOutputStream(buffer) : buffer;
+            generator = generator(out);
+        }
+        while (true) {
+            if (pending != null && pending.hasRemaining()) {
+                encoder.write(pending);
+                if (pending.hasRemaining()) {
+                    // channel is full, we'll be called again
+                    return;
+                }
+            }
+            if (out == null) {
+                encoder.complete();
+                return;
+            }
+            buffer.reset();
+            if (iterator.hasNext()) {
+                write(generator, iterator.next());
+            } else {
+                generator.close();
+                if (out instanceof GZIPOutputStream gzipOutputStream) {
+                    gzipOutputStream.finish();
+                }
+                out = null;
+            }
+            pending = ByteBuffer.wrap(buffer.buffer(), 0, buffer.size());
+        }
+    }
+
+    /**
+     * Resets the state, so that the content can be produced again (e.g. when the request is retried on another node)
+     */
+    @Override
+    public void close() {
+        iterator = null;
+        buffer = null;
+        out = null;
+        generator = null;
+        pending = null;
+    }
+
+    protected static void write(JsonGenerator generator, BulkRequestEntry entry) throws IOException {
+        generator.writeTree(entry.getAction());
+        generator.writeRaw((char) NEWLINE);
+        if (entry.getSource() != null) {
+            generator.writeTree(entry.getSource());
+            generator.writeRaw((char) NEWLINE);
+        }
+        generator.flush();
+    }
+
+    /**
+     * The number of bytes the given entry takes in an (uncompressed) bulk request body. This serializes the entry, but does not keep the result in memory.
+     */
+    public static long size(BulkRequestEntry entry) {
+        final long[] size = {0};
+        final OutputStream counter = new OutputStream() {
+            @Override
+            public void write(int b) {
+                size[0]++;
+            }
+            @Override
+            public void write(byte[] b, int off, int len) {
+                size[0] += len;
+            }
+        };
+        try (JsonGenerator g = generator(counter)) {
+            write(g, entry);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        return size[0];
+    }
+
+    private static JsonGenerator generator(OutputStream out) throws IOException {
+        final JsonGenerator generator = MAPPER.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        generator.setCharacterEscapes(ESCAPES);
+        return generator;
+    }
+
+    @Override
+    public String toString() {
+        return "bulk of " + entries.size() + " entries" + (gzip ? " (gzip)" : "");
+    }
+
+    /**
+     * Jackson already escapes the C0 control characters. This makes it drop DEL and the C1 control characters, which it would otherwise write as is.
+     */
+    static class ControlCharacterEscapes extends CharacterEscapes {
+        private static final SerializableString DROP = new SerializedString("");
+        private final int[] asciiEscapes;
+
+        ControlCharacterEscapes() {
+            asciiEscapes = CharacterEscapes.standardAsciiEscapesForJSON();
+            asciiEscapes[0x7F] = CharacterEscapes.ESCAPE_CUSTOM;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return asciiEscapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            return ch >= 0x7F && ch <= 0x9F ? DROP : null;
+        }
+    }
+
+    /**
+     * {@link ByteArrayOutputStream} giving access to its buffer, so that it can be reused without copying.
+     */
+    static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(8192);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package nl.vpro.elasticsearchclient;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+
+import org.elasticsearch.client.ResponseException;
+import org.meeuw.math.windowed.WindowedEventRate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import nl.vpro.jmx.MBeans;
+import nl.vpro.util.ThreadPools;
+
+/**
+ * Collects {@link BulkRequestEntry}s and sends them in bulk requests via {@link IndexHelper#bulkAsync(Collection, Consumer[])}.
+ * <p>
+ * A bulk request is sent when the number of queued entries reaches {@link #getActions() actions}, when their size reaches {@link #getBytes() bytes}, or otherwise every {@link #getFlushInterval() flush interval}.
+ * <p>
+ * At most {@link #getConcurrentRequests() concurrentRequests} bulk requests are executing at the same time. If that number is reached, {@link #add(BulkRequestEntry)} blocks until one of them is ready. Items that are rejected by the server (status 429, normally an {@code es_rejected_execution_exception}) are retried with exponential backoff, at most {@link #getMaxRetries() maxRetries} times.
+ * <pre>{@code
+ *   try (BulkProcessor processor = BulkProcessor.builder().indexHelper(helper).build()) {
+ *       objects.forEach(o -> processor.add(helper.indexRequest(o.getId(), o)));
+ *   }
+ * }</pre>
+ * The statistics are available via JMX (if a {@code beanName} is given), and as micrometer meters via {@link BulkProcessorMetrics}.
+ *
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class BulkProcessor implements BulkProcessorMXBean, AutoCloseable {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final IndexHelper indexHelper;
+    @Getter
+    private final String name;
+    @Getter
+    private final int actions;
+    @Getter
+    private final long bytes;
+    @Getter
+    private final Duration flushInterval;
+    @Getter
+    private final int concurrentRequests;
+    @Getter
+    private final int maxRetries;
+    @Getter
+    private final Duration initialBackoff;
+    private final Consumer<ObjectNode> listener;
+
+    private final Semaphore permits;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledFuture<?> flusher;
+    private final ObjectName objectName;
+
+    private final Object batchLock = new Object();
+    private List<Queued> batch = new ArrayList<>();
+    private long batchBytes = 0;
+
+    private final AtomicInteger queueSize = new AtomicInteger(0);
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicLong bytesSent = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong retried = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong succeeded = new AtomicLong(0);
+    private final WindowedEventRate byteRate = WindowedEventRate.builder()
+        .bucketCount(5)
+        .bucketDuration(Duration.ofMinutes(1))
+        .build();
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param indexHelper The index helper to send the bulk requests with
+     * @param name A name for this processor, used in logging and for the meters
+     * @param actions The number of entries after which a bulk request is sent (defaults to 1000)
+     * @param bytes The size in bytes of the entries after which a bulk request is sent (defaults to 5 MB)
+     * @param flushInterval Queued entries are sent at least this often (defaults to 5 seconds)
+     * @param concurrentRequests The maximal number of bulk requests executing at the same time (defaults to 2)
+     * @param maxRetries How often items are retried when rejected (defaults to 5)
+     * @param initialBackoff The time to wait before the first retry. It is doubled for every next retry (defaults to 100ms)
+     * @param listener Is called with every bulk response. Rejected items that are retried are present in that too.
+     * @param beanName If not null, this processor is registered as an MXBean
+     */
+    @lombok.Builder(builderClassName = "Builder")
+    protected BulkProcessor(
+        @lombok.NonNull IndexHelper indexHelper,
+        String name,
+        Integer actions,
+        Long bytes,
+        Duration flushInterval,
+        Integer concurrentRequests,
+        Integer maxRetries,
+        Duration initialBackoff,
+        Consumer<ObjectNode> listener,
+        ScheduledExecutorService scheduler,
+        String beanName
+    ) {
+        this.indexHelper = indexHelper;
+        this.name = name == null ? indexHelper.getIndexName() : name;
+        this.actions = actions == null ? 1000 : actions;
+        this.bytes = bytes == null ? 5 * 1024 * 1024 : bytes;
+        this.flushInterval = flushInterval == null ? Duration.ofSeconds(5) : flushInterval;
+        this.concurrentRequests = concurrentRequests == null ? 2 : concurrentRequests;
+        this.maxRetries = maxRetries == null ? 5 : maxRetries;
+        this.initialBackoff = initialBackoff == null ? Duration.ofMillis(100) : initialBackoff;
+        this.listener = listener;
+        if (this.concurrentRequests < 1) {
+            throw new IllegalArgumentException("At least one concurrent request is required");
+        }
+        this.permits = new Semaphore(this.concurrentRequests);
+        this.scheduler = scheduler == null ? ThreadPools.backgroundExecutor : scheduler;
+        final long interval = this.flushInterval.toMillis();
+        this.flusher = this.scheduler.scheduleAtFixedRate(this::timedFlush, interval, interval, TimeUnit.MILLISECONDS);
+        this.objectName = beanName == null ? null : MBeans.registerBean(beanName, this).orElse(null);
+    }
+
+    /**
+     * Queues an entry. If that makes the queue full, a bulk request is sent, which may block if {@link #getConcurrentRequests()} bulk requests are executing already.
+     */
+    public void add(BulkRequestEntry entry) {
+        if (closed) {
+            throw new IllegalStateException(this + " is closed");
+        }
+        final long size = BulkEntity.size(entry);
+        final boolean full;
+        synchronized (batchLock) {
+            batch.add(new Queued(entry, size));
+            batchBytes += size;
+            queueSize.incrementAndGet();
+            full = batch.size() >= actions || batchBytes >= bytes;
+        }
+        if (full) {
+            flush(true);
+        }
+    }
+
+    @Override
+    public void flush() {
+        flush(true);
+    }
+
+    /**
+     * Sends the queued entries, if there are any.
+     * @param block Whether to wait if {@link #getConcurrentRequests()} requests are executing already. If not, the entries stay queued.
+     */
+    protected void flush(boolean block) {
+        if (block) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        } else if (!permits.tryAcquire()) {
+            log.debug("{}: {} requests executing already, not flushing now", name, concurrentRequests);
+            return;
+        }
+        final List<Queued> toSend;
+        synchronized (batchLock) {
+            toSend = batch;
+            batch = new ArrayList<>();
+            batchBytes = 0;
+            queueSize.addAndGet(-toSend.size());
+        }
+        if (toSend.isEmpty()) {
+            permits.release();
+            return;
+        }
+        inFlight.incrementAndGet();
+        execute(toSend, 0);
+    }
+
+    private void timedFlush() {
+        try {
+            flush(false);
+        } catch (Exception e) {
+            log.error("{}: {}", name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes one bulk request. The permit, acquired in {@link #flush(boolean)}, is released when it and all its retries are ready.
+     */
+    private void execute(List<Queued> queued, int attempt) {
+        final long size = queued.stream().mapToLong(Queued::size).sum();
+        bytesSent.addAndGet(size);
+        byteRate.newEvents((int) size);
+        try {
+            indexHelper.bulkAsync(queued.stream().map(Queued::entry).toList())
+                .whenComplete((result, throwable) -> handle(queued, attempt, result, throwable));
+        } catch (RuntimeException e) {
+            handle(queued, attempt, null, e);
+        }
+    }
+
+    private void handle(List<Queued> queued, int attempt, ObjectNode result, Throwable throwable) {
+        final List<Queued> rejectedEntries = new ArrayList<>();
+        try {
+            if (throwable != null) {
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                if (cause instanceof ResponseException re && re.getResponse().getStatusLine().getStatusCode() == TOO_MANY_REQUESTS) {
+                    rejectedEntries.addAll(queued);
+                } else {
+                    log.error("{}: bulk request of {} entries failed: {}", name, queued.size(), cause.getMessage());
+                    failed.addAndGet(queued.size());
+                }
+            } else if (result == null) {
+                log.error("{}: no response for bulk request of {} entries", name, queued.size());
+                failed.addAndGet(queued.size());
+            } else {
+                Map<String, Deque<Queued>> byId = null;
+                for (JsonNode item : result.withArray("items")) {
+                    final JsonNode itemResult = item.elements().hasNext() ? item.elements().next() : null;
+                    final int status = itemResult == null || !itemResult.has("status") ? -1 : itemResult.get("status").intValue();
+                    if (status == TOO_MANY_REQUESTS) {
+                        if (byId == null) {
+                            // the same id may occur more than once, the items are in the order of the request
+                            byId = queued.stream().collect(Collectors.groupingBy(q -> q.entry().getId(), Collectors.toCollection(ArrayDeque::new)));
+                        }
+                        final Deque<Queued> candidates = byId.get(BulkRequestEntry.idFromActionNode((ObjectNode) item));
+                        final Queued entry = candidates == null ? null : candidates.poll();
+                        if (entry == null) {
+                            log.warn("{}: could not find entry for {}", name, item);
+                            failed.incrementAndGet();
+                        } else {
+                            rejectedEntries.add(entry);
+                        }
+                    } else if (status >= 200 && status < 300) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+                if (listener != null) {
+                    listener.accept(result);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("{}: {}", name, e.getMessage(), e);
+        } finally {
+            retryOrRelease(rejectedEntries, attempt);
+        }
+    }
+
+    /**
+     * Schedules a retry of the rejected entries, or, if there are none or they can't be retried anymore, releases the permit of the bulk request.
+     */
+    private void retryOrRelease(List<Queued> rejectedEntries, int attempt) {
+        if (!rejectedEntries.isEmpty()) {
+            rejected.addAndGet(rejectedEntries.size());
+            if (attempt < maxRetries) {
+                final Duration backoff = initialBackoff.multipliedBy(1L << attempt);
+                log.info("{}: {} entries rejected, retrying in {}", name, rejectedEntries.size(), backoff);
+                try {
+                    scheduler.schedule(() -> execute(rejectedEntries, attempt + 1), backoff.toMillis(), TimeUnit.MILLISECONDS);
+                    retried.addAndGet(rejectedEntries.size());
+                    return;
+                } catch (RejectedExecutionException e) {
+                    log.error("{}: could not schedule retry: {}", name, e.getMessage());
+                }
+            } else {
+                log.warn("{}: {} entries still rejected after {} retries, giving up", name, rejectedEntries.size(), maxRetries);
+            }
+            failed.addAndGet(rejectedEntries.size());
+        }
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return byteRate.getRate(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public long getRetried() {
+        return retried.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    /**
+     * Sends the remaining entries, and waits until all bulk requests (including retries) are ready.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.cancel(false);
+        flush(true);
+        try {
+            permits.acquire(concurrentRequests);
+            permits.release(concurrentRequests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("{}: interrupted while waiting for {} bulk requests", name, inFlight.get());
+        }
+        if (objectName != null) {
+            MBeans.unregister(objectName);
+        }
+        byteRate.close();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkProcessor " + name + " (queued: " + queueSize + ", in flight: " + inFlight + ")";
+    }
+
+    /**
+     * An entry with its size in the request body, which is determined once, when it is added.
+     */
+    private record Queued(BulkRequestEntry entry, long size) {
+    }
+}
@@ -0,0 +1,37 @@
+package nl.vpro.elasticsearchclient;
+
+import nl.vpro.jmx.Description;
+
+/**
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+public interface BulkProcessorMXBean {
+
+    @Description("The number of entries that are not yet sent")
+    int getQueueSize();
+
+    @Description("The number of bulk requests currently executing, including the ones waiting for a retry")
+    int getInFlight();
+
+    @Description("The total number of bytes sent in bulk requests")
+    long getBytesSent();
+
+    @Description("The number of bytes per second sent in bulk requests")
+    double getBytesPerSecond();
+
+    @Description("The number of items that were rejected by the server (status 429)")
+    long getRejected();
+
+    @Description("The number of items that were retried")
+    long getRetried();
+
+    @Description("The number of items that failed, including the ones that were rejected too often")
+    long getFailed();
+
+    @Description("The number of items that were successfully executed")
+    long getSucceeded();
+
+    @Description("Sends all queued entries now")
+    void flush();
+}
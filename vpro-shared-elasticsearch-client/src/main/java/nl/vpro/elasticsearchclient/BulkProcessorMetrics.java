@@ -0,0 +1,64 @@
+package nl.vpro.elasticsearchclient;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Exposes the statistics of a {@link BulkProcessor} as micrometer meters. This is separate from {@link BulkProcessor} itself, so that micrometer is only needed if this is used.
+ * <pre>{@code
+ *   new BulkProcessorMetrics(processor).bindTo(meterRegistry);
+ * }</pre>
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+public class BulkProcessorMetrics implements MeterBinder {
+
+    private final BulkProcessor processor;
+    private final Iterable<Tag> tags;
+
+    public BulkProcessorMetrics(BulkProcessor processor) {
+        this(processor, emptyList());
+    }
+
+    public BulkProcessorMetrics(BulkProcessor processor, Iterable<Tag> tags) {
+        this.processor = processor;
+        this.tags = Tags.concat(tags, "processor", processor.getName());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("elasticsearch.bulk.queued", processor, BulkProcessor::getQueueSize)
+            .tags(tags)
+            .description("The number of entries that are not yet sent")
+            .register(registry);
+        Gauge.builder("elasticsearch.bulk.inflight", processor, BulkProcessor::getInFlight)
+            .tags(tags)
+            .description("The number of bulk requests currently executing")
+            .register(registry);
+        Gauge.builder("elasticsearch.bulk.bytes.rate", processor, BulkProcessor::getBytesPerSecond)
+            .tags(tags)
+            .description("The number of bytes per second sent in bulk requests")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry);
+        counter(registry, "elasticsearch.bulk.bytes", BulkProcessor::getBytesSent, "The number of bytes sent in bulk requests", BaseUnits.BYTES);
+        counter(registry, "elasticsearch.bulk.rejected", BulkProcessor::getRejected, "The number of items rejected by the server", null);
+        counter(registry, "elasticsearch.bulk.retried", BulkProcessor::getRetried, "The number of items retried", null);
+        counter(registry, "elasticsearch.bulk.failed", BulkProcessor::getFailed, "The number of items that failed", null);
+        counter(registry, "elasticsearch.bulk.succeeded", BulkProcessor::getSucceeded, "The number of items successfully executed", null);
+    }
+
+    private void counter(MeterRegistry registry, String name, ToDoubleFunction<BulkProcessor> function, String description, String baseUnit) {
+        FunctionCounter.builder(name, processor, function)
+            .tags(tags)
+            .description(description)
+            .baseUnit(baseUnit)
+            .register(registry);
+    }
+}
@@ -8,7 +8,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import nl.vpro.elasticsearch.Distribution;
 import nl.vpro.elasticsearch.ElasticSearchIndex;
 import nl.vpro.elasticsearch.ElasticSearchIteratorInterface;
 import nl.vpro.jackson2.Jackson2Mapper;
@@ -74,7 +75,7 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
     @Getter
     private Long count = -1L;
     private JsonNode hits;
-    private String scrollId;
+    private volatile String scrollId;
     private Long checkedOrder = 500L;
 
     private boolean hasNext;
@@ -122,8 +123,70 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
     @Setter
     private boolean warnSortNotOnDoc;
 
+    /**
+     * The number of pages to fetch in the background, while the current one is being consumed. {@code 0} means no prefetching.
+     */
+    @Getter
+    private final int prefetch;
+
+    /**
+     * The pages requested in the background, in scroll order. Each one is requested only when the previous one was received (they all need the scroll id)
+     */
+    private final Deque<CompletableFuture<JsonNode>> prefetched = new ArrayDeque<>();
+
+    /**
+     * The last page that was requested in the background. The next one can only be requested after this one arrived.
+     */
+    private CompletableFuture<JsonNode> lastPrefetched;
+
+    /**
+     * How long the consumer had to wait for prefetched pages
+     */
+    @Getter
+    private volatile Duration prefetchWait = Duration.ZERO;
+
+    /**
+     * Set at {@link #close()}. Pages that were still in flight then must not resurrect the scroll.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Whether to use a 'point in time' and 'search_after' in stead of the scroll API.
+     * @since 6.0
+     */
+    @Getter
+    private final boolean pointInTime;
+
+    private final Distribution distribution;
+
+    /**
+     * How many times to retry a page in {@link #pointInTime} mode after a transient failure. If the point in time was lost, a new one is opened, and iteration continues from {@link #searchAfter}.
+     */
+    private final int retries;
+
+    private volatile String pitId;
+
+    /**
+     * Whether the sort values can be used in another point in time than the one they were received in. This is not the case if sorting on {@value nl.vpro.elasticsearch.Constants#SHARD_DOC} (which is the default).
+     */
+    private boolean resumable;
+
+    /**
+     * The sort values of the last hit of the current page (in {@link #pointInTime} mode). The next page starts after this.
+     */
+    private ArrayNode searchAfter;
+
+    private JsonNode nextSortValues;
+
+    /**
+     * The sort values of the last element returned by {@link #next()}, in {@link #pointInTime} mode. These can be used to resume iteration in a new iterator (see {@link Builder#searchAfter(ArrayNode)}).
+     * @since 6.0
+     */
+    @Getter
+    private JsonNode lastSortValues;
+
     public ElasticSearchIterator(RestClient client, Function<JsonNode, T> adapt) {
-        this(client, adapt, null, Duration.ofMinutes(1), new Version<>(7), false, true, true, null, null, null, true);
+        this(client, adapt, null, Duration.ofMinutes(1), new Version<>(7), false, true, true, null, null, null, true, 0, false, null, null, null);
     }
 
 
@@ -141,7 +204,12 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
         String beanName,
         WindowedEventRate rateMeasurerer,
         List<String> routingIds,
-        Boolean warnSortNotOnDoc
+        Boolean warnSortNotOnDoc,
+        int prefetch,
+        boolean pointInTime,
+        Distribution distribution,
+        ArrayNode searchAfter,
+        Integer retries
     ) {
         this.adapt = adapterTo(adapt, adaptTo);
         this.client = client;
@@ -184,6 +252,17 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
 
         this.routing = routingIds;
         this.warnSortNotOnDoc = warnSortNotOnDoc == null || warnSortNotOnDoc;
+        if (prefetch < 0) {
+            throw new IllegalArgumentException("prefetch cannot be negative");
+        }
+        this.prefetch = prefetch;
+        if (pointInTime && prefetch > 0) {
+            throw new IllegalArgumentException("prefetching is only supported when scrolling, not with point in time");
+        }
+        this.pointInTime = pointInTime;
+        this.distribution = distribution == null ? Distribution.ELASTICSEARCH : distribution;
+        this.searchAfter = searchAfter;
+        this.retries = retries == null ? 3 : retries;
     }
 
 
@@ -313,7 +392,9 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
                         hasNext = true;
                     }
                     if (hasNext) {
-                        next = adapt.apply(hits.get(HITS).get(i));
+                        JsonNode hit = hits.get(HITS).get(i);
+                        nextSortValues = hit.get(SORT);
+                        next = adapt.apply(hit);
                     } else {
                         close();
                     }
@@ -332,6 +413,13 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
         return (float) es / total;
     }
 
+    @Override
+    public float getPrefetchWaitFraction() {
+        long total = Duration.between(start, Instant.now()).toMillis();
+        long waiting = prefetchWait.toMillis();
+        return (float) waiting / total;
+    }
+
     protected boolean firstBatch() {
         // first call only.
         if (request == null) {
@@ -340,6 +428,9 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
         if (client == null) {
             throw new IllegalStateException("No client");
         }
+        if (pointInTime) {
+            return firstPointInTimeBatch();
+        }
         try {
             ArrayNode sort = request.withArray(SORT);
             if (sort.isEmpty(null)) {
@@ -394,6 +485,9 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
             scrollId = newScrollId;
             SCROLL_IDS.add(scrollId);
         }
+        if (prefetch > 0) {
+            prefetch();
+        }
 
         JsonNode total = hits.get("total");
         if (total instanceof ObjectNode) {
@@ -411,7 +505,186 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
 
     }
 
+    /**
+     * Like {@link #firstBatch()}, but opens a point in time in stead of a scroll context
+     * <p>
+     * If no explicit sort is given, this sorts on {@value nl.vpro.elasticsearch.Constants#SHARD_DOC}, which is efficient, but its values are only meaningful in the same point in time. So then iteration can't be resumed
+     * via {@link Builder#searchAfter(ArrayNode)}, nor continued in a new point in time if the current one was lost. The explicit sort should end in a field that is unique.
+     */
+    private boolean firstPointInTimeBatch() {
+        ArrayNode sort = request.withArray(SORT);
+        if (sort.isEmpty(null)) {
+            log.debug("No explicit sort given, sorting on {}!", SHARD_DOC);
+            sort.add(SHARD_DOC);
+        }
+        resumable = !sortsOnShardDoc(sort);
+        if (searchAfter != null && !resumable) {
+            throw new IllegalStateException("Cannot search after " + searchAfter + " when sorting on " + SHARD_DOC + ", since it is only valid in the same point in time. Sort explicitly on a unique field.");
+        }
+        start = Instant.now();
+        try {
+            openPointInTime();
+            searchPointInTime();
+        } catch (IOException ioe) {
+            throw new RuntimeException("For request " + request.toString() + ":" + ioe.getMessage(), ioe);
+        }
+        if (totalSize == 0) {
+            hasNext = false;
+            needsNext = false;
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean sortsOnShardDoc(ArrayNode sort) {
+        for (JsonNode s : sort) {
+            if (s.isTextual() ? SHARD_DOC.equals(s.textValue()) : s.has(SHARD_DOC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void nextPointInTimeBatch() {
+        int attempt = 0;
+        while (true) {
+            try {
+                searchPointInTime();
+                i = 0;
+                hasNext = !hits.get(HITS).isEmpty();
+                return;
+            } catch (ResponseException re) {
+                final int status = re.getResponse().getStatusLine().getStatusCode();
+                final boolean retryable = status == 404 || status == 429 || status >= 500;
+                if (attempt >= retries || !retryable) {
+                    throw new RuntimeException("For request " + request.toString() + " after " + searchAfter + ":" + re.getMessage(), re);
+                }
+                if (status == 404 && !resumable) {
+                    throw new IllegalStateException("Point in time " + pitId + " was lost, and sorting on " + SHARD_DOC + " can't be continued in a new one: " + re.getMessage(), re);
+                }
+                log.warn("nextBatch: {}, retrying ({}) after {}", re.getMessage(), attempt + 1, searchAfter);
+                try {
+                    if (status == 404) {
+                        // the point in time expired or was lost. Open a new one, and continue after the last sort values
+                        PIT_IDS.remove(pitId);
+                        pitId = null;
+                        openPointInTime();
+                    }
+                } catch (IOException ioe) {
+                    log.warn("Could not reopen point in time: {}", ioe.getMessage());
+                }
+            } catch (IOException ioe) {
+                if (attempt >= retries) {
+                    log.error(ioe.getMessage());
+                    throw new RuntimeException("For request " + request.toString() + ":" + ioe.getMessage(), ioe);
+                }
+                log.warn("nextBatch: {}: {}, retrying ({}) after {}", ioe.getClass().getName(), ioe.getMessage(), attempt + 1, searchAfter);
+            }
+            attempt++;
+            try {
+                Thread.sleep(Math.min(Duration.ofMinutes(1).toMillis(), 1000L << attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private String keepAlive() {
+        return scrollContext.toMinutes() + "m";
+    }
+
+    private void openPointInTime() throws IOException {
+        Request post = new Request(POST, "/" + String.join(",", indices) + (distribution == Distribution.OPENSEARCH ? Paths.OPENSEARCH_PIT : Paths.PIT));
+        post.addParameter(KEEP_ALIVE, keepAlive());
+        if (routing != null && !routing.isEmpty()) {
+            post.addParameter(ROUTING, String.join(",", routing));
+        }
+        JsonNode result = perform(post);
+        pitId = result.get(distribution == Distribution.OPENSEARCH ? PIT_ID : ID).asText();
+        log.debug("Opened point in time {}", pitId);
+        PIT_IDS.add(pitId);
+    }
+
+    /**
+     * Retrieves the page after {@link #searchAfter} in the current point in time.
+     */
+    private void searchPointInTime() throws IOException {
+        ObjectNode body = request.deepCopy();
+        ObjectNode pit = body.putObject(PIT);
+        pit.put(ID, pitId);
+        pit.put(KEEP_ALIVE, keepAlive());
+        if (searchAfter != null) {
+            body.set(SEARCH_AFTER, searchAfter);
+        }
+        Request post = new Request(POST, Paths.SEARCH);
+        post.setJsonEntity(body.toString());
+        post.addParameter(VERSION, String.valueOf(this.requestVersion));
+        response = perform(post);
+        if (response.has(PIT_ID)) {
+            String newPitId = response.get(PIT_ID).asText();
+            if (!newPitId.equals(pitId)) {
+                log.debug("Point in time {} -> {}", pitId, newPitId);
+                PIT_IDS.remove(pitId);
+                pitId = newPitId;
+                PIT_IDS.add(pitId);
+            }
+        }
+        readResponse();
+        JsonNode pageHits = hits.get(HITS);
+        if (!pageHits.isEmpty()) {
+            searchAfter = (ArrayNode) pageHits.get(pageHits.size() - 1).get(SORT);
+        }
+    }
+
+    private JsonNode perform(Request request) throws IOException {
+        HttpEntity responseEntity = null;
+        try {
+            Response res = client.performRequest(request);
+            responseEntity = res.getEntity();
+            return Jackson2Mapper.getLenientInstance().readerFor(JsonNode.class).readTree(responseEntity.getContent());
+        } finally {
+            EntityUtils.consumeQuietly(responseEntity);
+        }
+    }
+
+    private void closePointInTime() {
+        HttpEntity responseEntity = null;
+        try {
+            Request delete;
+            ObjectNode body = Jackson2Mapper.getInstance().createObjectNode();
+            if (distribution == Distribution.OPENSEARCH) {
+                delete = new Request(METHOD_DELETE, Paths.OPENSEARCH_PIT);
+                body.withArray(PIT_ID).add(pitId);
+            } else {
+                delete = new Request(METHOD_DELETE, Paths.PIT);
+                body.put(ID, pitId);
+            }
+            delete.setJsonEntity(body.toString());
+            Response res = client.performRequest(delete);
+            responseEntity = res.getEntity();
+            log.debug("Deleted point in time {} {}", pitId, res);
+        } catch (ResponseException re) {
+            if (re.getResponse().getStatusLine().getStatusCode() == 404) {
+                log.debug("Not found to delete");
+            } else {
+                log.warn("close:{}:{}", re.getClass().getName(), re.getMessage());
+            }
+        } catch (Exception e) {
+            log.warn("close: {}: {}", e.getClass().getName(), e.getMessage());
+        } finally {
+            EntityUtils.consumeQuietly(responseEntity);
+        }
+        PIT_IDS.remove(pitId);
+        pitId = null;
+    }
+
     private void nextBatch() {
+        if (pointInTime) {
+            nextPointInTimeBatch();
+            return;
+        }
         if (scrollId != null) {
             try {
                 if( count > checkedOrder) {
@@ -421,43 +694,23 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
                         log.atLevel(warnSortNotOnDoc ? WARN : DEBUG).log("Not sorting on {} (but on {}). This has bad influence on performance", DOC, sort);
                     }
                 }
-
-                Request post;
-                if (jsonRequests) {
-                    ObjectNode scrollRequest = Jackson2Mapper.getInstance().createObjectNode();
-                    scrollRequest.put(SCROLL, scrollContext.toMinutes() + "m");
-                    scrollRequest.put(SCROLL_ID, scrollId);
-
-                    post = new Request(POST, Paths.SCROLL);
-                    post.setJsonEntity(scrollRequest.toString());
-
+                if (prefetch > 0) {
+                    response = nextPrefetched();
                 } else {
-                    post = new Request(POST, Paths.SCROLL);
-                    post.addParameter(SCROLL, scrollContext.toMinutes() + "m");
-                    post.setEntity(new NStringEntity(scrollId, ContentType.TEXT_PLAIN));
-                }
-
-                HttpEntity responseEntity = null;
-                try {
-                    Response res = client.performRequest(post);
-                    responseEntity = res.getEntity();
-                    response = Jackson2Mapper.getLenientInstance()
+                    HttpEntity responseEntity = null;
+                    try {
+                        Response res = client.performRequest(scrollRequest());
+                        responseEntity = res.getEntity();
+                        response = Jackson2Mapper.getLenientInstance()
                             .readerFor(JsonNode.class)
                             .readTree(responseEntity.getContent()
                             );
-                } finally {
-                    EntityUtils.consumeQuietly(responseEntity);
-                }
-                log.debug("New scroll");
-                if (response.has(_SCROLL_ID)) {
-                    String newScrollId = response.get(_SCROLL_ID).asText();
-                    if (!scrollId.equals(newScrollId)) {
-                        log.info("new scroll id {}", newScrollId);
-                        SCROLL_IDS.remove(scrollId);
-                        scrollId = newScrollId;
-                        SCROLL_IDS.add(scrollId);
+                    } finally {
+                        EntityUtils.consumeQuietly(responseEntity);
                     }
+                    handleScrollId(response);
                 }
+                log.debug("New scroll");
                 readResponse();
                 i = 0;
                 hasNext = !hits.get(HITS).isEmpty();
@@ -475,6 +728,133 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
         }
     }
 
+    private Request scrollRequest() {
+        Request post;
+        if (jsonRequests) {
+            ObjectNode scrollRequest = Jackson2Mapper.getInstance().createObjectNode();
+            scrollRequest.put(SCROLL, scrollContext.toMinutes() + "m");
+            scrollRequest.put(SCROLL_ID, scrollId);
+
+            post = new Request(POST, Paths.SCROLL);
+            post.setJsonEntity(scrollRequest.toString());
+
+        } else {
+            post = new Request(POST, Paths.SCROLL);
+            post.addParameter(SCROLL, scrollContext.toMinutes() + "m");
+            post.setEntity(new NStringEntity(scrollId, ContentType.TEXT_PLAIN));
+        }
+        return post;
+    }
+
+    private void handleScrollId(JsonNode response) {
+        if (response.has(_SCROLL_ID)) {
+            String newScrollId = response.get(_SCROLL_ID).asText();
+            String currentScrollId = scrollId;
+            if (currentScrollId != null && !currentScrollId.equals(newScrollId)) {
+                log.info("new scroll id {}", newScrollId);
+                SCROLL_IDS.remove(currentScrollId);
+                scrollId = newScrollId;
+                SCROLL_IDS.add(newScrollId);
+            }
+            if (closed && !newScrollId.equals(currentScrollId)) {
+                // a (prefetched) page that arrived after close, close() may have missed its scroll id
+                SCROLL_IDS.remove(newScrollId);
+                clearScrollAsync(newScrollId);
+            }
+        }
+    }
+
+    private void clearScrollAsync(String id) {
+        log.debug("Clearing scroll id {} received after close", id);
+        client.performRequestAsync(new Request(METHOD_DELETE, "/_search/scroll/" + id), new ResponseListener() {
+            @Override
+            public void onSuccess(Response res) {
+                EntityUtils.consumeQuietly(res.getEntity());
+                log.debug("Deleted {} {}", id, res);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                log.warn("close: {}: {}", e.getClass().getName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Takes the next page from {@link #prefetched}, and makes sure the next ones are requested already.
+     */
+    private JsonNode nextPrefetched() throws IOException {
+        prefetch();
+        final CompletableFuture<JsonNode> page = prefetched.poll();
+        prefetch();
+        final long waitStart = System.nanoTime();
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            prefetchWait = prefetchWait.plusNanos(System.nanoTime() - waitStart);
+        }
+    }
+
+    /**
+     * Fills {@link #prefetched} up to {@link #prefetch} pages. Every page is requested (asynchronously) as soon as the previous one arrived, unless that was empty (then the scroll is exhausted).
+     */
+    private void prefetch() {
+        while (prefetched.size() < prefetch) {
+            final CompletableFuture<JsonNode> page = lastPrefetched == null ?
+                fetchAsync() :
+                lastPrefetched.thenCompose(previous -> isEmptyPage(previous) ? CompletableFuture.completedFuture(previous) : fetchAsync());
+            prefetched.add(page);
+            lastPrefetched = page;
+        }
+    }
+
+    private static boolean isEmptyPage(JsonNode page) {
+        final JsonNode h = page.get(HITS);
+        return h == null || h.get(HITS) == null || h.get(HITS).isEmpty();
+    }
+
+    private CompletableFuture<JsonNode> fetchAsync() {
+        final CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        if (scrollId == null) {
+            future.completeExceptionally(new IllegalStateException("No scroll id"));
+            return future;
+        }
+        client.performRequestAsync(scrollRequest(), new ResponseListener() {
+            @Override
+            public void onSuccess(Response res) {
+                final HttpEntity responseEntity = res.getEntity();
+                try {
+                    JsonNode page = Jackson2Mapper.getLenientInstance()
+                        .readerFor(JsonNode.class)
+                        .readTree(responseEntity.getContent());
+                    handleScrollId(page);
+                    future.complete(page);
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    EntityUtils.consumeQuietly(responseEntity);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+        return future;
+    }
+
     protected void readResponse() {
         hits = response.get(HITS);
         if (hits != null) {
@@ -495,6 +875,7 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
         }
         count++;
         needsNext = true;
+        lastSortValues = nextSortValues;
         rate.newEvent();
         return next;
     }
@@ -538,12 +919,21 @@ public class ElasticSearchIterator<T>  implements ElasticSearchIteratorInterface
 
     @Override
     public synchronized void close()  {
+        closed = true;
+        prefetched.forEach(f -> f.cancel(true));
+        prefetched.clear();
+        if (lastPrefetched != null) {
+            lastPrefetched.cancel(true);
+        }
         if (objectName != null) {
             ThreadPools.backgroundExecutor.schedule(() -> MBeans.unregister(objectName), 2, TimeUnit.MINUTES);
         }
         if (closeRate) {
             rate.close();
         }
+        if (pitId != null) {
+            closePointInTime();
+        }
         if (scrollId != null) {
             HttpEntity responseEntity = null;
             try {
@@ -1,7 +1,17 @@
 package nl.vpro.elasticsearchclient;
 
+import nl.vpro.jmx.Description;
+
 /**
  * @author Michiel Meeuwissen
  */
 public interface ElasticSearchIteratorMXBean extends nl.vpro.elasticsearch.ElasticSearchIteratorMXBean {
+
+    @Description("The number of pages fetched in the background while the current one is consumed")
+    int getPrefetch();
+
+    @Description("The fraction of the time that this iterator was waiting for pages fetched in the background")
+    default float getPrefetchWaitFraction() {
+        throw new UnsupportedOperationException();
+    }
 }
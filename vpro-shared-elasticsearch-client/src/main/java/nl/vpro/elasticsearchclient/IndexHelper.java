@@ -75,6 +75,11 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
     private boolean countAfterCreate;
     private final Supplier<Map<String, String>> mdcSupplier;
     private final Distribution distribution;
+    /**
+     * Whether the bodies of {@link #bulk(Collection) bulk requests} must be gzip compressed
+     * @since 6.0
+     */
+    private boolean gzipBulk;
 
     CompletableFuture<Info> info = null;
 
@@ -118,7 +123,8 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
         List<String> aliases,
         boolean countAfterCreate,
         Supplier<Map<String, String>> mdcSupplier,
-        @Nullable Distribution distribution
+        @Nullable Distribution distribution,
+        boolean gzipBulk
         ) {
         if (elasticSearchIndex != null) {
             if (indexNameSupplier == null) {
@@ -151,6 +157,7 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
         this.mdcSupplier = mdcSupplier == null ? MDC::getCopyOfContextMap : mdcSupplier;
         this.distribution = distribution;
         this.mapping = mapping;
+        this.gzipBulk = gzipBulk;
     }
 
     public static IndexHelper.Builder of(Logger log, ESClientFactory client, ElasticSearchIndex index) {
@@ -1050,7 +1057,7 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
         } else {
             try {
                 Request req = new Request(POST, Paths.BULK);
-                req.setEntity(bulkEntity(request));
+                req.setEntity(bulkEntity(request, gzipBulk));
 
                 writeJson(log, writeJsonDir, request);
                 return  read(
@@ -1067,7 +1074,7 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
     @SafeVarargs
     public final CompletableFuture<ObjectNode> bulkAsync(
         Collection<BulkRequestEntry> request, Consumer<ObjectNode>... listeners) {
-        return bulkAsync(log, writeJsonDir, client(), request, listeners);
+        return bulkAsync(log, writeJsonDir, client(), gzipBulk, request, listeners);
     }
 
 
@@ -1083,13 +1090,29 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
         RestClient client,
         Collection<BulkRequestEntry> request,
         Consumer<ObjectNode>... listeners) {
+        return bulkAsync(log, jsonDir, client, false, request, listeners);
+    }
+
+    /**
+     * @param gzip Whether to gzip the request body
+     * @since 6.0
+     * @see #bulkAsync(SimpleLogger, File, RestClient, Collection, Consumer[])
+     */
+    @SafeVarargs
+    public static CompletableFuture<ObjectNode> bulkAsync(
+        SimpleLogger log,
+        File jsonDir,
+        RestClient client,
+        boolean gzip,
+        Collection<BulkRequestEntry> request,
+        Consumer<ObjectNode>... listeners) {
         final CompletableFuture<ObjectNode> future = new CompletableFuture<>();
         if (request.isEmpty()) {
             return CompletableFuture.completedFuture(null);
         }
 
         Request req = new Request(POST, Paths.BULK);
-        req.setEntity(bulkEntity(request));
+        req.setEntity(bulkEntity(request, gzip));
         writeJson(log, jsonDir, request);
 
         client.performRequestAsync(req,
@@ -1098,18 +1121,15 @@ public class IndexHelper implements IndexHelperInterface<RestClient>, AutoClosea
         return future;
     }
 
+    /**
+     * The body for a bulk request. This is a {@link BulkEntity}, which streams the entries, rather than building the complete body in memory.
+     */
+    protected static HttpEntity bulkEntity(Collection<BulkRequestEntry> request, boolean gzip) {
+        return new BulkEntity(request, gzip);
+    }
+
     protected static HttpEntity bulkEntity(Collection<BulkRequestEntry> request) {
-        StringBuilder builder = new StringBuilder();
-        for (BulkRequestEntry n : request) {
-            builder.append(n.getAction());
-            builder.append("\n");
-            n.use();
-            if (n.getSource() != null) {
-                builder.append(saveToString(n.getSource()));
-                builder.append("\n");
-            }
-        }
-        return new NStringEntity(builder.toString(), ContentType.APPLICATION_JSON);
+        return bulkEntity(request, false);
     }
 
     static protected String saveToString(JsonNode jsonNode) {
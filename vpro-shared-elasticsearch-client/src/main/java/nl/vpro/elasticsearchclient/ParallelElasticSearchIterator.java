@@ -0,0 +1,447 @@
+package nl.vpro.elasticsearchclient;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.*;
+
+import javax.management.ObjectName;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.elasticsearch.client.RestClient;
+import org.meeuw.math.windowed.WindowedEventRate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import nl.vpro.elasticsearch.ElasticSearchIndex;
+import nl.vpro.elasticsearch.ElasticSearchIteratorInterface;
+import nl.vpro.jackson2.Jackson2Mapper;
+import nl.vpro.jmx.MBeans;
+import nl.vpro.util.ThreadPools;
+import nl.vpro.util.Version;
+
+import static nl.vpro.elasticsearch.Constants.*;
+
+/**
+ * Iterates using <em>sliced scroll</em>: a number of {@link ElasticSearchIterator}s, which all scroll through a disjoint part (a 'slice') of the same search.
+ * <p>
+ * This can be consumed in two ways
+ * <ul>
+ *     <li>As an {@link Iterator}. The slices are then all read concurrently on {@link #executor}, and their results are merged via a bounded queue.</li>
+ *     <li>As a {@link #stream()}. Its {@link Spliterator} splits per slice, so that a {@link Stream#parallel() parallel} stream reads the slices in parallel.</li>
+ * </ul>
+ * Don't mix these two.
+ * <pre>{@code
+ *   try (ParallelElasticSearchIterator<JsonNode> i = ParallelElasticSearchIterator.sources(client, 4)) {
+ *       i.prepareSearch("pageupdates-publish");
+ *       i.stream().parallel().forEach(node -> ...);
+ *   }
+ * }</pre>
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class ParallelElasticSearchIterator<T> implements ElasticSearchIteratorInterface<T>, ParallelElasticSearchIteratorMXBean {
+
+    private static final Object END = new Object();
+    private static final Object NULL = new Object();
+
+    private static final AtomicLong instances = new AtomicLong(0);
+
+    @Getter
+    private final long instance = instances.getAndIncrement();
+
+    private final RestClient client;
+    private final Function<JsonNode, T> adapt;
+    @Getter
+    private final int slices;
+    private final Duration scrollContext;
+    private final Version<Integer> esVersion;
+    private final int prefetch;
+    private final List<String> routingIds;
+    private final ExecutorService executor;
+    private final int queueSize;
+
+    @Getter
+    private final WindowedEventRate rate;
+    private final boolean closeRate;
+    private final ObjectName objectName;
+
+    protected ObjectNode request;
+    private Collection<String> indices;
+
+    private volatile List<ElasticSearchIterator<T>> sliceIterators;
+
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicInteger finishedSlices = new AtomicInteger(0);
+
+    /**
+     * When the slices were created, {@code null} before that.
+     */
+    @Getter
+    private volatile Instant start;
+
+    // iterator mode
+    private BlockingQueue<Object> queue;
+    private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+    private volatile Throwable failure;
+    /**
+     * {@link #close()} is not synchronized, since {@link #findNext()} may be waiting for the queue. The consumer notices this flag instead.
+     */
+    private volatile boolean closed = false;
+    private int endsSeen = 0;
+    private boolean needsNext = true;
+    private Object next;
+
+    @lombok.Builder(builderClassName = "Builder")
+    protected ParallelElasticSearchIterator(
+        @lombok.NonNull RestClient client,
+        Function<JsonNode, T> adapt,
+        int slices,
+        Duration scrollContext,
+        Version<Integer> esVersion,
+        int prefetch,
+        List<String> routingIds,
+        ExecutorService executor,
+        Integer queueSize,
+        String beanName,
+        WindowedEventRate rateMeasurerer
+    ) {
+        if (slices < 1) {
+            throw new IllegalArgumentException("At least one slice is required");
+        }
+        this.client = client;
+        //noinspection unchecked
+        this.adapt = adapt == null ? jn -> (T) jn : adapt;
+        this.slices = slices;
+        this.scrollContext = scrollContext;
+        this.esVersion = esVersion;
+        this.prefetch = prefetch;
+        this.routingIds = routingIds;
+        this.executor = executor == null ? ThreadPools.longBackgroundExecutor : executor;
+        this.queueSize = queueSize == null ? 1000 : queueSize;
+        this.rate = rateMeasurerer == null ? WindowedEventRate.builder()
+            .bucketCount(5)
+            .bucketDuration(Duration.ofMinutes(1))
+            .build() : rateMeasurerer;
+        this.closeRate = rateMeasurerer == null;
+        if (beanName != null) {
+            objectName = MBeans.registerBean(this, instance + "-" + beanName);
+        } else {
+            objectName = null;
+        }
+    }
+
+    public static ParallelElasticSearchIterator<JsonNode> sources(RestClient client, int slices) {
+        return ParallelElasticSearchIterator.<JsonNode>builder()
+            .client(client)
+            .slices(slices)
+            .adapt(jn -> jn.get(Fields.SOURCE))
+            .build();
+    }
+
+    public ObjectNode prepareSearch(String index) {
+        return _prepareSearch(Collections.singletonList(index));
+    }
+
+    public ObjectNode prepareSearchOnIndices(String... indices) {
+        return _prepareSearch(Arrays.asList(indices));
+    }
+
+    public ObjectNode prepareSearch(ElasticSearchIndex... indices) {
+        return _prepareSearch(Arrays.stream(indices).map(ElasticSearchIndex::getIndexName).collect(Collectors.toList()));
+    }
+
+    protected ObjectNode _prepareSearch(Collection<String> indices) {
+        request = Jackson2Mapper.getInstance().createObjectNode();
+        this.indices = indices;
+        return request;
+    }
+
+    /**
+     * Creates the iterators for every slice. They all get a copy of {@link #request}, with the 'slice' object added.
+     */
+    protected synchronized List<ElasticSearchIterator<T>> sliceIterators() {
+        if (sliceIterators == null) {
+            if (request == null) {
+                throw new IllegalStateException("prepareSearch not called");
+            }
+            start = Instant.now();
+            final List<ElasticSearchIterator<T>> result = new ArrayList<>(slices);
+            for (int id = 0; id < slices; id++) {
+                final ElasticSearchIterator<T> slice = ElasticSearchIterator.<T>builder()
+                    .client(client)
+                    .adapt(adapt)
+                    .scrollContext(scrollContext)
+                    .esVersion(esVersion)
+                    .prefetch(prefetch)
+                    .routingIds(routingIds)
+                    .rateMeasurerer(rate)
+                    .build();
+                final ObjectNode sliceRequest = slice._prepareSearch(indices, null);
+                sliceRequest.setAll(request.deepCopy());
+                if (slices > 1) {
+                    final ObjectNode sliceObject = sliceRequest.putObject(SLICE);
+                    sliceObject.put(ID, id);
+                    sliceObject.put(MAX, slices);
+                }
+                result.add(slice);
+            }
+            sliceIterators = Collections.unmodifiableList(result);
+        }
+        return sliceIterators;
+    }
+
+    @Override
+    public boolean hasNext() {
+        findNext();
+        return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        findNext();
+        if (next == END) {
+            throw new NoSuchElementException();
+        }
+        needsNext = true;
+        count.incrementAndGet();
+        return next == NULL ? null : (T) next;
+    }
+
+    protected synchronized void findNext() {
+        if (needsNext) {
+            if (closed) {
+                next = END;
+                needsNext = false;
+                return;
+            }
+            startReading();
+            try {
+                while (true) {
+                    if (endsSeen == slices) {
+                        next = END;
+                        break;
+                    }
+                    final Object taken = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (closed) {
+                        // failures of the slices are probably caused by the close itself
+                        next = END;
+                        break;
+                    }
+                    if (taken == null) {
+                        continue;
+                    }
+                    if (taken == END) {
+                        endsSeen++;
+                        if (failure != null) {
+                            throw new RuntimeException(failure.getMessage(), failure);
+                        }
+                        continue;
+                    }
+                    next = taken;
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            needsNext = false;
+        }
+    }
+
+    private void startReading() {
+        if (queue == null) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            for (ElasticSearchIterator<T> slice : sliceIterators()) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        while (slice.hasNext()) {
+                            T n = slice.next();
+                            queue.put(n == null ? NULL : n);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable t) {
+                        log.warn("{}: {}", slice, t.getMessage());
+                        failure = t;
+                    } finally {
+                        finishedSlices.incrementAndGet();
+                        try {
+                            queue.put(END);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }));
+            }
+            if (closed) {
+                // closed while starting
+                futures.forEach(f -> f.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * A {@link Spliterator} that splits per slice. Every slice is read in the thread that consumes it.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new SliceSpliterator(sliceIterators());
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false)
+            .onClose(this::close);
+    }
+
+    protected class SliceSpliterator implements Spliterator<T> {
+        private final List<ElasticSearchIterator<T>> slices;
+        private int current;
+        private final int end;
+
+        SliceSpliterator(List<ElasticSearchIterator<T>> slices) {
+            this(slices, 0, slices.size());
+        }
+
+        private SliceSpliterator(List<ElasticSearchIterator<T>> slices, int current, int end) {
+            this.slices = slices;
+            this.current = current;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (current < end) {
+                ElasticSearchIterator<T> slice = slices.get(current);
+                if (slice.hasNext()) {
+                    action.accept(slice.next());
+                    count.incrementAndGet();
+                    return true;
+                }
+                finishedSlices.incrementAndGet();
+                current++;
+            }
+            return false;
+        }
+
+        /**
+         * Splits off the first half of the remaining slices
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            final int remaining = end - current;
+            if (remaining < 2) {
+                return null;
+            }
+            final int half = current + remaining / 2;
+            final Spliterator<T> prefix = new SliceSpliterator(slices, current, half);
+            current = half;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+    }
+
+    @Override
+    public @NonNull Optional<Long> getSize() {
+        long total = 0;
+        for (ElasticSearchIterator<T> slice : sliceIterators()) {
+            Optional<Long> size = slice.getSize();
+            if (size.isEmpty()) {
+                return Optional.empty();
+            }
+            total += size.get();
+        }
+        return Optional.of(total);
+    }
+
+    @Override
+    public Optional<TotalRelation> getSizeQualifier() {
+        TotalRelation result = TotalRelation.EQUAL_TO;
+        for (ElasticSearchIterator<T> slice : sliceIterators()) {
+            Optional<TotalRelation> relation = slice.getSizeQualifier();
+            if (relation.isEmpty()) {
+                return Optional.empty();
+            }
+            if (relation.get() != TotalRelation.EQUAL_TO) {
+                result = relation.get();
+            }
+        }
+        return Optional.of(result);
+    }
+
+    @Override
+    public Long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public int getFinishedSlices() {
+        return finishedSlices.get();
+    }
+
+    /**
+     * The average of {@link ElasticSearchIterator#getFraction()} of the slices that started already. The slices are read concurrently, so this is the fraction of the time that they are busy with elasticsearch.
+     */
+    @Override
+    public float getFraction() {
+        final List<ElasticSearchIterator<T>> current = sliceIterators;
+        if (current == null) {
+            return 0f;
+        }
+        float total = 0f;
+        int started = 0;
+        for (ElasticSearchIterator<T> slice : current) {
+            if (slice.getStart() != null) {
+                total += slice.getFraction();
+                started++;
+            }
+        }
+        return started == 0 ? 0f : total / started;
+    }
+
+    @Override
+    public double getSpeed() {
+        return rate.getRate();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        futures.forEach(f -> f.cancel(true));
+        if (sliceIterators != null) {
+            sliceIterators.forEach(ElasticSearchIterator::close);
+        }
+        if (objectName != null) {
+            ThreadPools.backgroundExecutor.schedule(() -> MBeans.unregister(objectName), 2, TimeUnit.MINUTES);
+        }
+        if (closeRate) {
+            rate.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return client + " " + request + " " + slices + " slices " + count;
+    }
+}
@@ -0,0 +1,16 @@
+package nl.vpro.elasticsearchclient;
+
+import nl.vpro.jmx.Description;
+
+/**
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+public interface ParallelElasticSearchIteratorMXBean extends nl.vpro.elasticsearch.ElasticSearchIteratorMXBean {
+
+    @Description("The number of slices that are scrolled concurrently")
+    int getSlices();
+
+    @Description("The number of slices that are completely read")
+    int getFinishedSlices();
+}
@@ -0,0 +1,107 @@
+package nl.vpro.elasticsearchclient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.elasticsearch.client.*;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import nl.vpro.jackson2.Jackson2Mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class BulkProcessorTest {
+
+    /**
+     * Items rejected with 429 are retried with exponential backoff, until {@code maxRetries}. A failing listener must not prevent that.
+     */
+    @Test
+    public void retryRejected() {
+        final RestClient client = mock(RestClient.class);
+        final List<Long> requestTimes = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            final ResponseListener listener = invocation.getArgument(1);
+            final boolean first = requestTimes.isEmpty();
+            requestTimes.add(System.nanoTime());
+            // the first time 'a' succeeds, 'b' and 'c' are always rejected
+            listener.onSuccess(response("""
+                {"took": 1, "errors": true, "items": [
+                """ + (first ? item("a", 201) + "," : "") + item("b", 429) + "," + item("c", 429) + "]}"));
+            return null;
+        }).when(client).performRequestAsync(any(Request.class), any(ResponseListener.class));
+
+        final IndexHelper helper = IndexHelper.builder()
+            .log(log)
+            .client((logName, callback) -> client)
+            .indexName("test")
+            .build();
+        final AtomicInteger listened = new AtomicInteger(0);
+        final BulkProcessor processor = BulkProcessor.builder()
+            .indexHelper(helper)
+            .actions(3)
+            .concurrentRequests(1)
+            .maxRetries(2)
+            .initialBackoff(Duration.ofMillis(50))
+            .listener(result -> {
+                listened.incrementAndGet();
+                throw new IllegalStateException("listener failure");
+            })
+            .build();
+        try (processor) {
+            for (String id : List.of("a", "b", "c")) {
+                processor.add(entry(id));
+            }
+        }
+        assertThat(requestTimes).hasSize(3);
+        assertThat(listened.get()).isEqualTo(3);
+        assertThat(Duration.ofNanos(requestTimes.get(1) - requestTimes.get(0))).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(Duration.ofNanos(requestTimes.get(2) - requestTimes.get(1))).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(processor.getSucceeded()).isEqualTo(1);
+        assertThat(processor.getRejected()).isEqualTo(6);
+        assertThat(processor.getRetried()).isEqualTo(4);
+        assertThat(processor.getFailed()).isEqualTo(2);
+        assertThat(processor.getInFlight()).isEqualTo(0);
+        assertThat(processor.getBytesSent()).isEqualTo(3 * BulkEntity.size(entry("a")) + 2 * 2 * BulkEntity.size(entry("b")));
+    }
+
+    private static BulkRequestEntry entry(String id) {
+        final ObjectNode action = Jackson2Mapper.getInstance().createObjectNode();
+        action.withObject("/index")
+            .put("_index", "test")
+            .put("_id", id);
+        final ObjectNode source = Jackson2Mapper.getInstance().createObjectNode();
+        source.put("title", "title " + id);
+        return BulkRequestEntry.builder()
+            .action(action)
+            .source(source)
+            .unalias(s -> s)
+            .build();
+    }
+
+    private static String item(String id, int status) {
+        return """
+            {"index": {"_index": "test", "_id": "%s", "status": %d}}""".formatted(id, status);
+    }
+
+    private static Response response(String json) {
+        final Response response = mock(Response.class);
+        when(response.getHeader("content-type")).thenReturn(ContentType.APPLICATION_JSON.getMimeType());
+        when(response.getEntity()).thenReturn(new StringEntity(json, ContentType.APPLICATION_JSON));
+        return response;
+    }
+}
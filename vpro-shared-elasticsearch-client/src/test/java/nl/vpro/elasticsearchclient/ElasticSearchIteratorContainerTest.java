@@ -2,23 +2,31 @@ package nl.vpro.elasticsearchclient;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RestClient;
 import org.junit.jupiter.api.*;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import nl.vpro.elasticsearch.Constants;
 import nl.vpro.elasticsearch.CreateIndex;
+import nl.vpro.elasticsearch.Distribution;
+import nl.vpro.elasticsearch.ElasticSearchIteratorInterface;
 import nl.vpro.test.opensearch.ElasticsearchContainer;
 import nl.vpro.util.MaxOffsetIterator;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Michiel Meeuwissen
@@ -145,6 +153,186 @@ public class ElasticSearchIteratorContainerTest {
         }
     }
 
+    @Test
+    public void testAllPrefetched() {
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .prefetch(2)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+
+            AtomicLong count = new AtomicLong(0);
+            i.forEachRemaining((node) -> count.incrementAndGet());
+            assertThat(count.get()).isEqualTo(numberOfObjects);
+            log.info("Waited {} for prefetched pages ({})", i.getPrefetchWait(), i.getPrefetchWaitFraction());
+        }
+    }
+
+    /**
+     * Pages still in flight at close must not leave their scroll ids behind
+     */
+    @Test
+    public void closeWhilePrefetching() throws InterruptedException {
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .prefetch(3)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 10);
+            assertThat(i.next()).isNotNull();
+        }
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!ElasticSearchIteratorInterface.SCROLL_IDS.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(ElasticSearchIteratorInterface.SCROLL_IDS).isEmpty();
+    }
+
+    @Test
+    public void testAllPointInTime() {
+        JsonNode lastSortValues;
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            QueryBuilder.asc(search, "value");
+            AtomicLong count = new AtomicLong(0);
+            try (MaxOffsetIterator<JsonNode> j = MaxOffsetIterator.<JsonNode>builder()
+                .wrapped(i)
+                .max(250)
+                .build()) {
+                j.forEachRemaining((node) -> count.incrementAndGet());
+            }
+            assertThat(count.get()).isEqualTo(250);
+            lastSortValues = i.getLastSortValues();
+        }
+        assertThat(ElasticSearchIteratorInterface.getPitIds()).isEmpty();
+
+        // resume
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .searchAfter((ArrayNode) lastSortValues)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            QueryBuilder.asc(search, "value");
+            assertThat(i.next().get("value").intValue()).isEqualTo(250);
+            AtomicLong count = new AtomicLong(1);
+            i.forEachRemaining((node) -> count.incrementAndGet());
+            assertThat(count.get()).isEqualTo(numberOfObjects - 250);
+        }
+    }
+
+    /**
+     * Without explicit sort, sorting is on _shard_doc, which can't be resumed in another point in time
+     */
+    @Test
+    public void testAllPointInTimeDefaultSort() throws IOException {
+        JsonNode lastSortValues;
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            AtomicLong count = new AtomicLong(0);
+            i.forEachRemaining((node) -> count.incrementAndGet());
+            assertThat(count.get()).isEqualTo(numberOfObjects);
+            lastSortValues = i.getLastSortValues();
+        }
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .searchAfter((ArrayNode) lastSortValues)
+            .build()
+        ) {
+            i.prepareSearch(index);
+            assertThatThrownBy(i::hasNext).isInstanceOf(IllegalStateException.class);
+        }
+
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .retries(1)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            assertThat(i.next()).isNotNull();
+            deletePointsInTime();
+            assertThatThrownBy(() -> i.forEachRemaining((node) -> {})).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(ElasticSearchIteratorInterface.getPitIds()).isEmpty();
+    }
+
+    /**
+     * With an explicit sort on a unique field, iteration continues in a new point in time if it was lost
+     */
+    @Test
+    public void testAllPointInTimeLost() throws IOException {
+        try (ElasticSearchIterator<JsonNode> i = ElasticSearchIterator
+            .sourcesBuilder(client)
+            .pointInTime(true)
+            .distribution(Distribution.OPENSEARCH)
+            .retries(1)
+            .build()
+        ) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            QueryBuilder.asc(search, "value");
+            assertThat(i.next()).isNotNull();
+            deletePointsInTime();
+            AtomicLong count = new AtomicLong(1);
+            i.forEachRemaining((node) -> count.incrementAndGet());
+            assertThat(count.get()).isEqualTo(numberOfObjects);
+        }
+    }
+
+    private void deletePointsInTime() throws IOException {
+        for (String pitId : List.copyOf(ElasticSearchIteratorInterface.getPitIds())) {
+            Request delete = new Request("DELETE", Constants.Paths.OPENSEARCH_PIT);
+            delete.setJsonEntity("{\"pit_id\": [\"" + pitId + "\"]}");
+            EntityUtils.consumeQuietly(client.performRequest(delete).getEntity());
+        }
+    }
+
+    @Test
+    public void testAllSliced() {
+        try (ParallelElasticSearchIterator<JsonNode> i = ParallelElasticSearchIterator.sources(client, 3)) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            AtomicLong count = new AtomicLong(0);
+            i.forEachRemaining((node) -> count.incrementAndGet());
+            assertThat(count.get()).isEqualTo(numberOfObjects);
+            assertThat(i.getSize()).contains((long) numberOfObjects);
+            assertThat(i.getFinishedSlices()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testAllSlicedParallelStream() {
+        try (ParallelElasticSearchIterator<JsonNode> i = ParallelElasticSearchIterator.sources(client, 4)) {
+            ObjectNode search = i.prepareSearch(index);
+            search.put("size", 100);
+            assertThat(i.stream().parallel().count()).isEqualTo(numberOfObjects);
+            assertThat(i.getCount()).isEqualTo(numberOfObjects);
+        }
+    }
+
     @Test
     public void maxed() throws Exception {
         AtomicLong count = new AtomicLong(0);
@@ -1,5 +1,6 @@
 package nl.vpro.elasticsearchclient;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
@@ -154,6 +155,58 @@ public class IndexHelperContainerTest {
         log.info("{}", warnings);
     }
 
+    /**
+     * Gzipped bulk bodies, via the blocking and via the asynchronous (streaming) path.
+     */
+    @Test
+    public void bulkGzip() throws ExecutionException, InterruptedException {
+        helper.setGzipBulk(true);
+        List<BulkRequestEntry> jobs = new ArrayList<>();
+        List<BulkRequestEntry> asyncJobs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TestObject test = new TestObject();
+            test.setId("gzip" + i);
+            test.setTitle("gzipped \u0085" + i);
+            jobs.add(helper.indexRequest(test.getId(), test));
+            test.setId("gzipasync" + i);
+            asyncJobs.add(helper.indexRequest(test.getId(), test));
+        }
+        ObjectNode result = helper.bulk(jobs);
+        assertThat(result.get("errors").booleanValue()).isFalse();
+        ObjectNode asyncResult = helper.bulkAsync(asyncJobs).get();
+        assertThat(asyncResult.get("errors").booleanValue()).isFalse();
+        helper.refresh();
+        assertThat(helper.count()).isEqualTo(200);
+    }
+
+    @Test
+    public void bulkProcessor() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (BulkProcessor processor = BulkProcessor.builder()
+            .indexHelper(helper)
+            .actions(100)
+            .concurrentRequests(3)
+            .beanName("test")
+            .build()) {
+            new BulkProcessorMetrics(processor).bindTo(registry);
+            for (int i = 0; i < 1050; i++) {
+                TestObject test = new TestObject();
+                test.setId("processor" + i);
+                test.setTitle("title " + i);
+                processor.add(helper.indexRequest(test.getId(), test));
+                assertThat(processor.getInFlight()).isLessThanOrEqualTo(3);
+            }
+            processor.close();
+            assertThat(processor.getQueueSize()).isEqualTo(0);
+            assertThat(processor.getInFlight()).isEqualTo(0);
+            assertThat(processor.getSucceeded()).isEqualTo(1050);
+            assertThat(processor.getFailed()).isEqualTo(0);
+            assertThat(registry.get("elasticsearch.bulk.bytes").functionCounter().count()).isEqualTo(processor.getBytesSent());
+        }
+        helper.refresh();
+        assertThat(helper.count()).isEqualTo(1050);
+    }
+
     @Test
     public void indexAndGetAndUpdateAndDelete() {
         helper.refresh();
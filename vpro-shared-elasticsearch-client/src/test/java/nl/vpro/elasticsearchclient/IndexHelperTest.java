@@ -1,13 +1,27 @@
 package nl.vpro.elasticsearchclient;
 
-import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import nl.vpro.elasticsearch.Constants;
 import nl.vpro.jackson2.Jackson2Mapper;
 import nl.vpro.util.TimeUtils;
 
@@ -17,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * @author Michiel Meeuwissen
  * @since ...
  */
+@Slf4j
 public class IndexHelperTest {
 
     @Test
@@ -42,8 +57,135 @@ public class IndexHelperTest {
         Duration duration = IndexHelper.getRefreshInterval(Jackson2Mapper.getInstance().readTree(settings));
         assertThat(duration).isEqualTo(Duration.ofSeconds(31));
     }
-}
 
+    @Test
+    public void bulkEntity() throws IOException {
+        List<BulkRequestEntry> entries = entries(3);
+        HttpEntity entity = IndexHelper.bulkEntity(entries);
+        assertThat(entity.isRepeatable()).isTrue();
+        assertThat(EntityUtils.toString(entity)).isEqualTo(EntityUtils.toString(oldBulkEntity(entries)));
+        assertThat(EntityUtils.toString(entity)).contains("ab\\u0001cd\\nef");
+        assertThat(EntityUtils.toString(entity)).doesNotContain("\u0085");
+    }
+
+    @Test
+    public void bulkEntityAsync() throws IOException {
+        List<BulkRequestEntry> entries = entries(100);
+        String expected = EntityUtils.toString(oldBulkEntity(entries));
+        BulkEntity entity = new BulkEntity(entries);
+        assertThat(produce(entity)).isEqualTo(expected);
+        entity.close();
+        assertThat(produce(entity)).isEqualTo(expected);
+    }
+
+    @Test
+    public void bulkEntityGzip() throws IOException {
+        List<BulkRequestEntry> entries = entries(100);
+        String expected = EntityUtils.toString(oldBulkEntity(entries));
+        BulkEntity entity = new BulkEntity(entries, true);
+        assertThat(entity.getContentEncoding().getValue()).isEqualTo("gzip");
+        assertThat(new String(new GZIPInputStream(entity.getContent()).readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(expected);
+        ByteArrayOutputStream produced = new ByteArrayOutputStream();
+        produce(entity, produced);
+        assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(produced.toByteArray())).readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    /**
+     * Compares the allocations and duration of producing a large bulk request body, with the old implementation.
+     */
+    @Tag("performance")
+    @Test
+    public void bulkEntityBenchmark() throws IOException {
+        List<BulkRequestEntry> entries = entries(5000);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int run = 0; run < 5; run++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            produce(oldBulkEntity(entries), new ByteArrayOutputStream());
+            long oldAllocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            Duration oldDuration = Duration.ofNanos(System.nanoTime() - start);
+
+            allocated = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            produce(new BulkEntity(entries), new ByteArrayOutputStream());
+            long newAllocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            Duration newDuration = Duration.ofNanos(System.nanoTime() - start);
+            log.info("old: {} ({} bytes allocated), streaming: {} ({} bytes allocated)", oldDuration, oldAllocated, newDuration, newAllocated);
+        }
+    }
+
+    private static List<BulkRequestEntry> entries(int size) {
+        List<BulkRequestEntry> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ObjectNode action = Jackson2Mapper.getInstance().createObjectNode();
+            action.putObject(Constants.INDEX)
+                .put("_index", "test")
+                .put("_id", "id" + i);
+            ObjectNode source = Jackson2Mapper.getInstance().createObjectNode();
+            source.put("title", "ab\u0001cd\nef\u0085gh\u007F \u00e9\u20ac");
+            source.put("description", "x".repeat(2000));
+            source.putArray("list").add(i).add("foo" + i);
+            result.add(new BulkRequestEntry(action, source, s -> s, null));
+        }
+        return result;
+    }
 
+    /**
+     * The way the bulk body was created before {@link BulkEntity}
+     */
+    private static HttpEntity oldBulkEntity(Collection<BulkRequestEntry> request) {
+        StringBuilder builder = new StringBuilder();
+        for (BulkRequestEntry n : request) {
+            builder.append(n.getAction());
+            builder.append("\n");
+            builder.append(IndexHelper.saveToString(n.getSource()));
+            builder.append("\n");
+        }
+        return new NStringEntity(builder.toString(), ContentType.APPLICATION_JSON);
+    }
 
+    private static String produce(BulkEntity entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        produce(entity, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Produces the entity like the async http client would, with a channel that accepts only small chunks at a time
+     */
+    private static void produce(HttpEntity entity, ByteArrayOutputStream out) throws IOException {
+        ChunkedEncoder encoder = new ChunkedEncoder(out);
+        org.apache.http.nio.entity.HttpAsyncContentProducer producer = (org.apache.http.nio.entity.HttpAsyncContentProducer) entity;
+        while (!encoder.isCompleted()) {
+            producer.produceContent(encoder, null);
+        }
+    }
 
+    private static class ChunkedEncoder implements ContentEncoder {
+        private final ByteArrayOutputStream out;
+        private boolean completed = false;
+
+        private ChunkedEncoder(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = Math.min(src.remaining(), 1000);
+            byte[] bytes = new byte[length];
+            src.get(bytes);
+            out.write(bytes, 0, length);
+            return length;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.vpro.elasticsearchclient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+@Slf4j
+public class ParallelElasticSearchIteratorTest {
+
+    /**
+     * Closing from another thread must not wait for the consumer, which may be waiting for slices that never answer.
+     */
+    @Test
+    @Timeout(10)
+    public void closeWhileWaiting() throws Exception {
+        // accepts connections, but never answers
+        try (ServerSocket server = new ServerSocket(0);
+             RestClient client = RestClient.builder(new HttpHost("localhost", server.getLocalPort())).build()) {
+            final ParallelElasticSearchIterator<JsonNode> i = ParallelElasticSearchIterator.sources(client, 2);
+            i.prepareSearch("test");
+            assertThat(i.getStartDate()).isNull();
+            assertThat(i.getFraction()).isEqualTo(0f);
+
+            final CompletableFuture<Boolean> hasNext = CompletableFuture.supplyAsync(i::hasNext);
+            Thread.sleep(200);
+            assertThat(hasNext).isNotDone();
+            assertThat(i.getStartDate()).isNotNull();
+            assertThat(i.getFraction()).isBetween(0f, 1f);
+
+            i.close();
+            assertThat(hasNext.get()).isFalse();
+        }
+    }
+}
@@ -16,14 +16,18 @@ import javax.management.ObjectName;
 import org.apache.http.util.EntityUtils;
 import org.apache.lucene.search.TotalHits;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.search.*;
 import org.elasticsearch.client.*;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.*;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.meeuw.math.windowed.WindowedEventRate;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import nl.vpro.elasticsearch.ElasticSearchIteratorInterface;
 import nl.vpro.elasticsearchclient.ElasticSearchIterator;
@@ -31,6 +35,10 @@ import nl.vpro.jackson2.Jackson2Mapper;
 import nl.vpro.jmx.MBeans;
 import nl.vpro.util.ThreadPools;
 
+import static nl.vpro.elasticsearch.Constants.*;
+import static nl.vpro.elasticsearch.Constants.Methods.METHOD_DELETE;
+import static nl.vpro.elasticsearch.Constants.Methods.POST;
+
 /**
   * A wrapper around the Elastic Search scroll interface, to expose it as a simple {@link Iterator}
  * <pre>{@code
@@ -108,6 +116,36 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
     @Setter
     private RequestOptions requestOptions;
 
+    /**
+     * Whether to use a 'point in time' and 'search_after' in stead of the scroll API.
+     * @since 6.0
+     */
+    @Getter
+    private final boolean pointInTime;
+
+    private final int retries;
+
+    private String pitId;
+
+    /**
+     * Whether the sort values can be used in another point in time than the one they were received in. This is not the case if sorting on {@value nl.vpro.elasticsearch.Constants#SHARD_DOC} (which is the default).
+     */
+    private boolean resumable;
+
+    /**
+     * The sort values of the last hit of the current page (in {@link #pointInTime} mode). The next page starts after this.
+     */
+    private Object[] searchAfter;
+
+    private Object[] nextSortValues;
+
+    /**
+     * The sort values of the last element returned by {@link #next()}, in {@link #pointInTime} mode. These can be used to resume iteration in a new iterator (see {@link Builder#searchAfter(Object[])}).
+     * @since 6.0
+     */
+    @Getter
+    private Object[] lastSortValues;
+
 
     public static HighLevelElasticSearchIterator.Builder<SearchHit> searchHitsBuilder(RestHighLevelClient client) {
         return HighLevelElasticSearchIterator.<SearchHit>builder()
@@ -136,7 +174,10 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         WindowedEventRate rateMeasurerer,
         List<String> routingIds,
         RequestOptions requestOptions,
-        Boolean requestVersion
+        Boolean requestVersion,
+        boolean pointInTime,
+        Object[] searchAfter,
+        Integer retries
     ) {
         this.adapt = adapterTo(adapt, adaptTo);
         this.client = client;
@@ -162,6 +203,9 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         this.routing = routingIds == null ? null : routingIds.toArray(new String[0]);
         this.requestOptions = requestOptions == null ? RequestOptions.DEFAULT : requestOptions;
         this.requestVersion = requestVersion;
+        this.pointInTime = pointInTime;
+        this.searchAfter = searchAfter;
+        this.retries = retries == null ? 3 : retries;
     }
 
 
@@ -236,7 +280,9 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
                         hasNext = true;
                     }
                     if (hasNext) {
-                        next = adapt.apply(hits.getHits()[i]);
+                        SearchHit hit = hits.getHits()[i];
+                        nextSortValues = hit.getSortValues();
+                        next = adapt.apply(hit);
                     } else {
                         close();
                     }
@@ -259,6 +305,9 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         if (searchSourceBuilder == null) {
             throw new IllegalStateException("prepareSearch not called");
         }
+        if (pointInTime) {
+            return firstPointInTimeBatch();
+        }
         try {
             SearchRequest searchRequest = new SearchRequest(indices, searchSourceBuilder);
             if (requestVersion != null) {
@@ -299,7 +348,155 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         return new Scroll(new TimeValue(scrollContext.toMillis(), TimeUnit.MILLISECONDS));
     }
 
+    /**
+     * Like {@link #firstBatch()}, but opens a point in time in stead of a scroll context
+     * <p>
+     * If no explicit sort is given, this sorts on {@value nl.vpro.elasticsearch.Constants#SHARD_DOC}, which is efficient, but its values are only meaningful in the same point in time. So then iteration can't be resumed
+     * via {@link Builder#searchAfter(Object[])}, nor continued in a new point in time if the current one was lost. The explicit sort should end in a field that is unique.
+     */
+    private boolean firstPointInTimeBatch() {
+        if (searchSourceBuilder.sorts() == null || searchSourceBuilder.sorts().isEmpty()) {
+            log.debug("No explicit sort given, sorting on {}!", SHARD_DOC);
+            searchSourceBuilder.sort(SHARD_DOC);
+        }
+        resumable = searchSourceBuilder.sorts().stream()
+            .noneMatch(s -> s instanceof FieldSortBuilder f && SHARD_DOC.equals(f.getFieldName()));
+        if (searchAfter != null && !resumable) {
+            throw new IllegalStateException("Cannot search after " + Arrays.toString(searchAfter) + " when sorting on " + SHARD_DOC + ", since it is only valid in the same point in time. Sort explicitly on a unique field.");
+        }
+        if (requestVersion != null) {
+            searchSourceBuilder.version(requestVersion);
+        }
+        start = Instant.now();
+        try {
+            openPointInTime();
+            searchPointInTime();
+        } catch (IOException ioe) {
+            throw new RuntimeException("For request " + searchSourceBuilder.toString() + ":" + ioe.getMessage(), ioe);
+        }
+        if (totalSize == 0) {
+            hasNext = false;
+            needsNext = false;
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    private void nextPointInTimeBatch() {
+        int attempt = 0;
+        while (true) {
+            try {
+                searchPointInTime();
+                i = 0;
+                hasNext = hits.getHits().length > 0;
+                return;
+            } catch (ElasticsearchStatusException se) {
+                final int status = se.status().getStatus();
+                final boolean retryable = status == 404 || status == 429 || status >= 500;
+                if (attempt >= retries || !retryable) {
+                    throw new RuntimeException("For request " + searchSourceBuilder.toString() + " after " + Arrays.toString(searchAfter) + ":" + se.getMessage(), se);
+                }
+                if (status == 404 && !resumable) {
+                    throw new IllegalStateException("Point in time " + pitId + " was lost, and sorting on " + SHARD_DOC + " can't be continued in a new one: " + se.getMessage(), se);
+                }
+                log.warn("nextBatch: {}, retrying ({}) after {}", se.getMessage(), attempt + 1, Arrays.toString(searchAfter));
+                if (status == 404) {
+                    // the point in time expired or was lost. Open a new one, and continue after the last sort values
+                    try {
+                        PIT_IDS.remove(pitId);
+                        pitId = null;
+                        openPointInTime();
+                    } catch (IOException ioe) {
+                        log.warn("Could not reopen point in time: {}", ioe.getMessage());
+                    }
+                }
+            } catch (IOException ioe) {
+                if (attempt >= retries) {
+                    log.error(ioe.getMessage());
+                    throw new RuntimeException("For request " + searchSourceBuilder.toString() + ":" + ioe.getMessage(), ioe);
+                }
+                log.warn("nextBatch: {}: {}, retrying ({}) after {}", ioe.getClass().getName(), ioe.getMessage(), attempt + 1, Arrays.toString(searchAfter));
+            }
+            attempt++;
+            try {
+                Thread.sleep(Math.min(Duration.ofMinutes(1).toMillis(), 1000L << attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void openPointInTime() throws IOException {
+        Request post = new Request(POST, "/" + String.join(",", indices) + Paths.PIT);
+        post.addParameter(KEEP_ALIVE, scrollContext.toMillis() + "ms");
+        if (routing != null && routing.length > 0) {
+            post.addParameter(ROUTING, String.join(",", routing));
+        }
+        Response res = client.getLowLevelClient().performRequest(post);
+        try {
+            JsonNode result = Jackson2Mapper.getLenientInstance().readTree(res.getEntity().getContent());
+            pitId = result.get(ID).asText();
+        } finally {
+            EntityUtils.consumeQuietly(res.getEntity());
+        }
+        log.debug("Opened point in time {}", pitId);
+        PIT_IDS.add(pitId);
+    }
+
+    /**
+     * Retrieves the page after {@link #searchAfter} in the current point in time.
+     */
+    private void searchPointInTime() throws IOException {
+        searchSourceBuilder.pointInTimeBuilder(new PointInTimeBuilder(pitId)
+            .setKeepAlive(new TimeValue(scrollContext.toMillis(), TimeUnit.MILLISECONDS)));
+        if (searchAfter != null) {
+            searchSourceBuilder.searchAfter(searchAfter);
+        }
+        response = client.search(new SearchRequest().source(searchSourceBuilder), requestOptions);
+        String newPitId = response.pointInTimeId();
+        if (newPitId != null && !newPitId.equals(pitId)) {
+            log.debug("Point in time {} -> {}", pitId, newPitId);
+            PIT_IDS.remove(pitId);
+            pitId = newPitId;
+            PIT_IDS.add(pitId);
+        }
+        readResponse();
+        SearchHit[] pageHits = hits.getHits();
+        if (pageHits.length > 0) {
+            searchAfter = pageHits[pageHits.length - 1].getSortValues();
+        }
+    }
+
+    private void closePointInTime() {
+        try {
+            Request delete = new Request(METHOD_DELETE, Paths.PIT);
+            ObjectNode body = Jackson2Mapper.getInstance().createObjectNode();
+            body.put(ID, pitId);
+            delete.setJsonEntity(body.toString());
+            Response res = client.getLowLevelClient().performRequest(delete);
+            EntityUtils.consumeQuietly(res.getEntity());
+            log.debug("Deleted point in time {} {}", pitId, res);
+        } catch (ResponseException re) {
+            if (re.getResponse().getStatusLine().getStatusCode() == 404) {
+                log.debug("Not found to delete");
+            } else {
+                log.warn(re.getMessage());
+            }
+            EntityUtils.consumeQuietly(re.getResponse().getEntity());
+        } catch (Exception e) {
+            log.warn(e.getMessage());
+        }
+        PIT_IDS.remove(pitId);
+        pitId = null;
+    }
+
     private void nextBatch() {
+        if (pointInTime) {
+            nextPointInTimeBatch();
+            return;
+        }
         if (scrollId != null) {
             try {
                 SearchScrollRequest searchScrollRequest = new SearchScrollRequest(scrollId);
@@ -346,6 +543,7 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         }
         count++;
         needsNext = true;
+        lastSortValues = nextSortValues;
         rate.newEvent();
         return next;
     }
@@ -388,6 +586,9 @@ public class HighLevelElasticSearchIterator<T> implements ElasticSearchIteratorI
         if (closeRate) {
             rate.close();
         }
+        if (pitId != null) {
+            closePointInTime();
+        }
         if (scrollId != null) {
             try {
                 ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
@@ -34,6 +34,11 @@ public class Constants {
     public static final String _SCROLL_ID = "_scroll_id";
     public static final String SCROLL_ID = "scroll_id";
     public static final String SCROLL = "scroll";
+    public static final String PIT = "pit";
+    public static final String PIT_ID = "pit_id";
+    public static final String KEEP_ALIVE = "keep_alive";
+    public static final String SEARCH_AFTER = "search_after";
+    public static final String SHARD_DOC = "_shard_doc";
 
     public static final String QUERY = "query";
     public static final String P_QUERY = "/" + QUERY;
@@ -43,6 +48,8 @@ public class Constants {
     public static final String ORDER = "order";
     public static final String DESC = "desc";
     public static final String ASC = "asc";
+    public static final String SLICE = "slice";
+    public static final String MAX = "max";
     public static class Query {
         public static final String BOOL = "bool";
         public static final String P_BOOL = "/" + BOOL;
@@ -89,6 +96,11 @@ public class Constants {
 
     public static class Paths {
         public static final String SCROLL = "/_search/scroll";
+        public static final String PIT = "/_pit";
+        /**
+         * Opensearch has point in time on a different path than elasticsearch
+         */
+        public static final String OPENSEARCH_PIT = "/_search/point_in_time";
         public static final String SEARCH = "/_search";
         public static final String DELETE_BY_QUERY = "/_delete_by_query";
         public static final String UPDATE_BY_QUERY = "/_update_by_query";
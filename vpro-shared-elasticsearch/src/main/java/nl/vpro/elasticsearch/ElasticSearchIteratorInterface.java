@@ -14,10 +14,23 @@ public interface ElasticSearchIteratorInterface<T> extends CountedIterator<T>, E
 
     Set<String> SCROLL_IDS = new ConcurrentSkipListSet<>();
 
+    /**
+     * The ids of the currently open points in time, for iterators that use 'point in time' and 'search_after' in stead of scrolling
+     * @since 6.0
+     */
+    Set<String> PIT_IDS = new ConcurrentSkipListSet<>();
+
     static Set<String> getScrollIds() {
         return Collections.unmodifiableSet(SCROLL_IDS);
     }
 
+    /**
+     * @since 6.0
+     */
+    static Set<String> getPitIds() {
+        return Collections.unmodifiableSet(PIT_IDS);
+    }
+
     Optional<TotalRelation> getSizeQualifier();
 
     enum TotalRelation {
@@ -47,7 +60,7 @@ public interface ElasticSearchIteratorInterface<T> extends CountedIterator<T>, E
     // Override for JMX
     @Override
     default Date getStartDate() {
-        return Date.from(getStart());
+        return Optional.ofNullable(getStart()).map(Date::from).orElse(null);
     }
 
     @Override
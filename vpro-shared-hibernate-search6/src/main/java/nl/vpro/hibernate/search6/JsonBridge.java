@@ -8,6 +8,7 @@ import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Collection;
 
@@ -18,27 +19,36 @@ import org.hibernate.search.mapper.pojo.bridge.runtime.ValueBridgeFromIndexedVal
 import org.hibernate.search.mapper.pojo.bridge.runtime.ValueBridgeToIndexedValueContext;
 import org.hibernate.search.mapper.pojo.common.annotation.Param;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import nl.vpro.jackson2.Jackson2Mapper;
 
 
 /**
  * A straight forward bridge to store a complicated object as json in the index.
+ * <p>
+ * The json is at most {@link #MAX_LENGTH} long. Serialization stops as soon as that is exceeded. For collections and arrays the elements that still fit are stored then, otherwise {@code {}} is stored.
  * @since 3.5
  */
 @Getter
 @Slf4j
 @Param(name = "class", value = "java.lang.String")
-@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class JsonBridge<T> implements ValueBridge<T, String> {
 
     public final static int MAX_LENGTH = 32000;
 
-    private Class<T> type;
+    private final Class<T> type;
+
+    @Getter(AccessLevel.NONE)
+    private final ObjectReader reader;
 
     private static final Jackson2Mapper mapper = Jackson2Mapper.getLenientInstance();
 
+    JsonBridge(Class<T> type) {
+        this.type = type;
+        this.reader = mapper.readerFor(type);
+    }
 
     @Override
     public T fromIndexedValue(String stringValue, ValueBridgeFromIndexedValueContext context) {
@@ -46,7 +56,7 @@ public class JsonBridge<T> implements ValueBridge<T, String> {
             return null;
         }
         try {
-            return mapper.readValue(stringValue, type);
+            return reader.readValue(stringValue);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -64,45 +74,66 @@ public class JsonBridge<T> implements ValueBridge<T, String> {
         if (object == null) {
             return null;
         }
+        final BoundedWriter writer = new BoundedWriter(MAX_LENGTH);
         try {
-            String ret = mapper.writeValueAsString(object);
-
-            int len = ret.length();
-            if (len > MAX_LENGTH) {
-                if (object instanceof Collection<?> || object instanceof Object[]) {
-
-                    Object[] array;
-                    if (object instanceof Object[]) {
-                        array = (Object[]) object;
-                    } else {
-                        array = ((Collection<?>) object).toArray(i -> new Object[((Collection<?>) object).size()]);
-                    }
-                    int originalSize = array.length;
-                    int size = array.length;
-                    while (len > MAX_LENGTH && array.length > 0) {
-                        array = Arrays.copyOfRange(array, 0, --size);
-                        ret = mapper.writeValueAsString(array);
-                        len = ret.length();
-                    }
-                    if (size == 0) {
-                        log.warn("Cannot store JSON representation of object type {}: even first item in array already too large (maxlength = " + MAX_LENGTH + ")", object.getClass().getName());
-                        return "[]";
-                    } else {
-                        log.warn("Truncated JSON representation of object type {}: {} -> {} ", object.getClass().getName(), originalSize, size);
-                    }
-                } else {
-                    String sValue = object.toString().substring(0, Math.min(object.toString().length(), 100)) + "...(length: " + len + ")";
-                    log.warn("Cannot store JSON representation of object type {}: {} (maxlength = " + MAX_LENGTH + ")", object.getClass().getName(), sValue);
-                    return "{}";
-                }
+            mapper.writeValue(writer, object);
+            return writer.toString();
+        } catch (IOException e) {
+            if (!writer.isExceeded()) {
+                throw new RuntimeException(e);
             }
-
-            return ret;
-        } catch (JsonProcessingException e) {
+        }
+        try {
+            if (object instanceof Collection<?> collection) {
+                return truncated(object, collection, collection.size());
+            } else if (object instanceof Object[] array) {
+                return truncated(object, Arrays.asList(array), array.length);
+            } else {
+                String sValue = object.toString().substring(0, Math.min(object.toString().length(), 100)) + "...(length > " + MAX_LENGTH + ")";
+                log.warn("Cannot store JSON representation of object type {}: {} (maxlength = " + MAX_LENGTH + ")", object.getClass().getName(), sValue);
+                return "{}";
+            }
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes the elements to a json array, until the next one would make it too long.
+     */
+    private String truncated(Object object, Iterable<?> elements, int originalSize) throws IOException {
+        // leave room for the closing bracket
+        final BoundedWriter writer = new BoundedWriter(MAX_LENGTH - 1);
+        int size = 0;
+        int length;
+        try (JsonGenerator generator = mapper.createGenerator(writer)) {
+            // the array is closed by hand, after the last element that fitted
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+            generator.flush();
+            length = writer.length();
+            try {
+                for (Object element : elements) {
+                    mapper.writeValue(generator, element);
+                    generator.flush();
+                    length = writer.length();
+                    size++;
+                }
+            } catch (IOException e) {
+                if (!writer.isExceeded()) {
+                    throw e;
+                }
+            }
+        }
+        if (size == 0) {
+            log.warn("Cannot store JSON representation of object type {}: even first item in array already too large (maxlength = " + MAX_LENGTH + ")", object.getClass().getName());
+            return "[]";
+        } else {
+            log.warn("Truncated JSON representation of object type {}: {} -> {} ", object.getClass().getName(), originalSize, size);
+        }
+        return writer.substring(length) + "]";
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -134,5 +165,70 @@ public class JsonBridge<T> implements ValueBridge<T, String> {
         }
     }
 
+    /**
+     * Collects what is written, and fails as soon as more than a certain number of characters is written. After that everything written is ignored (e.g. what the generator still had buffered when it is closed).
+     */
+    private static class BoundedWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder();
+        private final int limit;
+        @Getter
+        private boolean exceeded = false;
+
+        BoundedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (accept(len)) {
+                builder.append(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (accept(len)) {
+                builder.append(str, off, off + len);
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (accept(1)) {
+                builder.append((char) c);
+            }
+        }
+
+        private boolean accept(int len) throws IOException {
+            if (exceeded) {
+                return false;
+            }
+            if (builder.length() + len > limit) {
+                exceeded = true;
+                throw new IOException("Exceeded " + limit);
+            }
+            return true;
+        }
+
+        int length() {
+            return builder.length();
+        }
 
+        String substring(int end) {
+            return builder.substring(0, end);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
 }
@@ -1,19 +1,25 @@
 package nl.vpro.hibernate.search6;
 
-import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.*;
+
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import nl.vpro.jackson2.Jackson2Mapper;
 import nl.vpro.test.util.jackson2.Jackson2TestUtil;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 /**
  * @author Michiel Meeuwissen
  * @since 4.3
  */
+@Slf4j
 public class JsonBridgeTest {
 
     /* 100 chars */
@@ -109,4 +115,59 @@ public class JsonBridgeTest {
             assertEquals("[]", ret);
         }
     }
+
+    @Test
+    public void testTooLargeCollectionIsTruncatedToLongestFittingPrefix() throws JsonProcessingException {
+        final Random random = new Random(0);
+        final List<String> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(LONG_STRING.substring(0, random.nextInt(LONG_STRING.length())));
+        }
+        try (JsonBridge<List> bridge = new JsonBridge<>(List.class)) {
+            String ret = bridge.toIndexedValue(list, null);
+            assertTrue(ret.length() <= JsonBridge.MAX_LENGTH);
+
+            List<?> truncated = bridge.fromIndexedValue(ret, null);
+            assertEquals(list.subList(0, truncated.size()), truncated);
+            assertEquals(ret, Jackson2Mapper.getLenientInstance().writeValueAsString(truncated));
+            assertTrue(Jackson2Mapper.getLenientInstance().writeValueAsString(list.subList(0, truncated.size() + 1)).length() > JsonBridge.MAX_LENGTH);
+        }
+    }
+
+    @Test
+    public void testTooLargeArrayWithNulls() {
+        String[] array = new String[1000];
+        for (int i = 0; i < array.length; i += 2) {
+            array[i] = LONG_STRING;
+        }
+        try (JsonBridge<String[]> bridge = new JsonBridge<>(String[].class)) {
+            String ret = bridge.toIndexedValue(array, null);
+            assertTrue(ret.length() <= JsonBridge.MAX_LENGTH);
+            assertTrue(ret.endsWith("null]"));
+            assertNull(bridge.fromIndexedValue(ret, null)[1]);
+        }
+    }
+
+    /**
+     * Logs the time it takes to serialize collections of several sizes. The bigger ones are truncated at {@link JsonBridge#MAX_LENGTH}, so their time should not grow with the size.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        try (JsonBridge<List> bridge = new JsonBridge<>(List.class)) {
+            for (int size : new int[]{10, 100, 1_000, 10_000}) {
+                final List<String> list = Collections.nCopies(size, LONG_STRING);
+                final int count = 50;
+                String ret = null;
+                for (int run = 0; run < 3; run++) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < count; i++) {
+                        ret = bridge.toIndexedValue(list, null);
+                    }
+                    log.info("{} elements: {} μs", size, (System.nanoTime() - start) / count / 1000);
+                }
+                assertTrue(ret.length() <= JsonBridge.MAX_LENGTH);
+            }
+        }
+    }
 }
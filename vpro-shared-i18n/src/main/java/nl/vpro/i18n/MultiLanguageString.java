@@ -1,10 +1,10 @@
 package nl.vpro.i18n;
 
 import lombok.Getter;
-import lombok.Setter;
 
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -26,15 +26,21 @@ import static nl.vpro.i18n.Locales.DUTCH;
  *     <li>{@link MessageFormat} style with {@link Builder#args(Object...)}</li>
  *     <li>{@link String#formatted(Object...)} style with {@link Builder#formatted(Object...)}</li>
  * </ul>
+ * The resulting strings are cached per locale, so that e.g. iterating the characters of it does not format it again and again. The cache is cleared when the instance is changed (via {@link #setDefaultLocale(Locale)} or its {@link Builder}), but it is assumed that the arguments themselves don't change. Parsed {@link MessageFormat}s are shared between instances. This also holds for strings from resource bundles: once resolved for a locale, an instance keeps that string, so e.g. a later {@link ResourceBundle#clearCache()} or change of the default locale of the JVM only affects instances (or locales) that were not resolved yet.
  * @author Michiel Meeuwissen
  * @since 0.47
  */
 public class MultiLanguageString implements CharSequence {
 
+    private static final int MAX_CACHE_SIZE = 1000;
+
+    private static final Map<FormatKey, MessageFormat> MESSAGE_FORMATS = lru(MAX_CACHE_SIZE);
+
     private final Map<Locale, String> strings = new HashMap<>();
 
+    private final Map<Locale, Resolved> resolved = new ConcurrentHashMap<>(4);
+
     @Getter
-    @Setter
     private Locale defaultLocale = null;
 
 
@@ -91,12 +97,12 @@ public class MultiLanguageString implements CharSequence {
     }
 
     public String get(Locale locale) {
-        LocalizedString localized = getLocalized(locale);
-        if (localized != null) {
-            return localized.getValue();
-        } else {
-            return null;
-        }
+        return resolved(locale).value();
+    }
+
+    public void setDefaultLocale(Locale defaultLocale) {
+        this.defaultLocale = defaultLocale;
+        invalidate();
     }
 
     /**
@@ -107,6 +113,18 @@ public class MultiLanguageString implements CharSequence {
     }
 
     public LocalizedString getLocalized(Locale locale) {
+        final Resolved r = resolved(locale);
+        return LocalizedString.of(r.value(), r.locale());
+    }
+
+    private Resolved resolved(Locale locale) {
+        if (locale == null) {
+            return resolve(null);
+        }
+        return resolved.computeIfAbsent(locale, this::resolve);
+    }
+
+    private Resolved resolve(Locale locale) {
         String result = strings.get(locale);
         while (result == null && Locales.simplifyable(locale)) {
             locale = Locales.simplify(locale);
@@ -114,17 +132,14 @@ public class MultiLanguageString implements CharSequence {
         }
         if (result == null) {
             if (bundleName != null) {
-                ResourceBundle bundle = ResourceBundle.getBundle(bundleName, locale);
-                result = bundle.getString(key);
+                result = ResourceBundle.getBundle(bundleName, locale).getString(key);
             } else {
                 result = strings.get(defaultLocale);
             }
         }
         if (result != null) {
             if (args != null) {
-                MessageFormat ft = new MessageFormat(result);
-                ft.setLocale(locale);
-                result = ft.format(args);
+                result = messageFormat(result, locale).format(args);
             }
             if (slf4jArgs != null) {
                 FormattingTuple ft = MessageFormatter.arrayFormat(result, slf4jArgs);
@@ -135,8 +150,11 @@ public class MultiLanguageString implements CharSequence {
                 result = result.formatted(formatArgs);
             }
         }
-        return LocalizedString.of(result, locale);
+        return new Resolved(result, locale);
+    }
 
+    private void invalidate() {
+        resolved.clear();
     }
 
     @Override
@@ -167,32 +185,67 @@ public class MultiLanguageString implements CharSequence {
         return s;
     }
 
+    /**
+     * {@link MessageFormat} is not thread safe, so the shared instance is not used itself, but cloned, which is cheaper than parsing it again.
+     */
+    private static MessageFormat messageFormat(String pattern, Locale locale) {
+        final FormatKey formatKey = new FormatKey(pattern, locale);
+        MessageFormat result = MESSAGE_FORMATS.get(formatKey);
+        if (result == null) {
+            result = new MessageFormat(pattern);
+            result.setLocale(locale);
+            MESSAGE_FORMATS.put(formatKey, result);
+        }
+        return (MessageFormat) result.clone();
+    }
+
+    private static <K, V> Map<K, V> lru(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * The result of {@link #getLocalized(Locale)}, which may have a {@code null} value.
+     */
+    private record Resolved(String value, Locale locale) {
+    }
+
+    private record FormatKey(String pattern, Locale locale) {
+    }
+
 
     public static class Builder implements Supplier<CharSequence> {
         MultiLanguageString created = new MultiLanguageString();
 
         public Builder defaultLocale(Locale locale) {
-            created.defaultLocale = locale;
+            created.setDefaultLocale(locale);
             return this;
         }
 
         public Builder defaultLocale(LanguageCode locale) {
-            created.defaultLocale = locale.toLocale();
+            created.setDefaultLocale(locale.toLocale());
             return this;
         }
 
         public Builder slf4jArgs(Object... args) {
             created.slf4jArgs = args;
+            created.invalidate();
             return this;
         }
 
          public Builder args(Object... args) {
             created.args = args;
+            created.invalidate();
             return this;
         }
 
         public Builder formatted(Object... args) {
             created.formatArgs = args;
+            created.invalidate();
             return this;
         }
 
@@ -201,6 +254,7 @@ public class MultiLanguageString implements CharSequence {
          */
         public Builder nl(String text) {
             created.strings.put(DUTCH, text);
+            created.invalidate();
             return this;
         }
 
@@ -209,6 +263,7 @@ public class MultiLanguageString implements CharSequence {
          */
         public Builder en(String text) {
             created.strings.put(ENGLISH, text);
+            created.invalidate();
             return this;
         }
 
@@ -216,6 +271,7 @@ public class MultiLanguageString implements CharSequence {
             created.bundleName = bundleName;
             created.key = key;
             ResourceBundle.getBundle(bundleName);
+            created.invalidate();
             return this;
         }
 
@@ -254,6 +310,7 @@ public class MultiLanguageString implements CharSequence {
 
             public Builder is(String string) {
                 Builder.this.created.strings.put(locale, string);
+                Builder.this.created.invalidate();
                 return Builder.this;
             }
         }
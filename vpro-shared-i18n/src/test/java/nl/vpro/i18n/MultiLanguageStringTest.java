@@ -1,7 +1,10 @@
 package nl.vpro.i18n;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.util.Locale;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import nl.vpro.logging.simple.StringBuilderSimpleLogger;
@@ -13,6 +16,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 /**
  * @author Michiel Meeuwissen
  */
+@Slf4j
 public class MultiLanguageStringTest {
 
 
@@ -140,6 +144,29 @@ public class MultiLanguageStringTest {
         }
     }
 
+    /**
+     * Bundle strings are not cached by locale, so a bundle that is only found via the default locale of the JVM follows changes of that.
+     */
+    @Test
+    public void bundleFollowsDefaultLocale() {
+        final Locale previous = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.FRENCH);
+            assertThat(bundleString().get(Locale.GERMAN)).isEqualTo("default A");
+            Locale.setDefault(new Locale("eo"));
+            assertThat(bundleString().get(Locale.GERMAN)).isEqualTo("esperanto A");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    private static MultiLanguageString bundleString() {
+        return MultiLanguageString.builder()
+            .bundle("nl.vpro.i18n.test.MultiLanguageStringTest", "a")
+            .args("A")
+            .build();
+    }
+
     @Test
     public void log() {
         try (Locales.RestoreDefaultLocale ignore1 = Locales.with(Locale.US)) {
@@ -154,4 +181,62 @@ public class MultiLanguageStringTest {
         }
     }
 
+    @Test
+    public void cacheIsInvalidated() {
+        MultiLanguageString.Builder builder = MultiLanguageString.builder()
+            .nl("a {0}")
+            .en("b {0}")
+            .defaultLocale(Locales.DUTCH)
+            .args("A");
+        MultiLanguageString string = builder.build();
+        assertThat(string.toString()).isEqualTo("a A");
+
+        builder.args("B");
+        assertThat(string.toString()).isEqualTo("a B");
+
+        builder.nl("c {0}");
+        assertThat(string.toString()).isEqualTo("c B");
+
+        string.setDefaultLocale(Locale.ENGLISH);
+        assertThat(string.toString()).isEqualTo("b B");
+        assertThat(string.get(new Locale("fr"))).isEqualTo("b B");
+        assertThat(string.getLocalized(new Locale("en", "US")).getLocale()).isEqualTo(Locale.ENGLISH);
+    }
+
+    /**
+     * Iterating the characters of one instance (which should format only once), and rendering new instances with the same message.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        final MultiLanguageString string = MultiLanguageString.builder()
+            .nl("{0} heeft {1} fouten in veld {2}")
+            .defaultLocale(Locales.DUTCH)
+            .args("Het formulier", 3, "titel")
+            .build();
+        final int count = 10_000;
+        for (int run = 0; run < 5; run++) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < string.length(); j++) {
+                    sum += string.charAt(j);
+                }
+            }
+            long charAtNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += MultiLanguageString.builder()
+                    .nl("{0} heeft {1} fouten in veld {2}")
+                    .defaultLocale(Locales.DUTCH)
+                    .args("Het formulier", i, "titel")
+                    .build()
+                    .toString().length();
+            }
+            long renderNanos = System.nanoTime() - start;
+            log.info("charAt loop: {} ns, render: {} ns ({})", (double) charAtNanos / count, (double) renderNanos / count, sum);
+        }
+        assertThat(string.toString()).isEqualTo("Het formulier heeft 3 fouten in veld titel");
+    }
+
 }
@@ -15,8 +15,9 @@ import org.meeuw.functional.ThrowingSupplier;
 import org.slf4j.Logger;
 
 import com.fasterxml.jackson.core.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.UnmodifiableIterator;
 
@@ -45,6 +46,16 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
 
     private final BiFunction<JsonParser, TreeNode, ? extends T> valueCreator;
 
+    /**
+     * If not {@code null}, the values are bound directly from the parser, rather than via a {@link TreeNode} and the {@link #valueCreator}
+     */
+    private final ObjectReader valueReader;
+
+    /**
+     * The context of the array we are iterating, used to skip the remainder of a value that could not be bound.
+     */
+    private JsonStreamContext arrayContext;
+
     @Getter
     @Setter
     private Runnable callback;
@@ -76,11 +87,11 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
     }
 
     public JsonArrayIterator(InputStream inputStream, final Class<T> clazz, Runnable callback) throws IOException {
-        this(inputStream, null, clazz, callback, null, null, null, null, null, null, null, null);
+        this(inputStream, null, clazz, callback, null, null, null, null, null, null, null, null, null);
     }
 
     public JsonArrayIterator(InputStream inputStream, final BiFunction<JsonParser, TreeNode, T> valueCreator) throws IOException {
-        this(inputStream, valueCreator, null, null, null, null, null, null, null, null, null, null);
+        this(inputStream, valueCreator, null, null, null, null, null, null, null, null, null, null, null);
     }
 
 
@@ -120,6 +131,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
      * @param skipNulls       Whether to skip nulls in the array. Default true.
      * @param skipErrors      Whether to skip objects in the array that can't be marshalled. Default to skipNulls value. If false a {@code null} will be produces (and see skipNulls)
      * @param eventListener   A listener for events that happen during parsing and iteration of the array. See {@link Event} and extension classes.
+     * @param bindDirectly    Whether values of <code>valueClass</code> are bound directly from the parser. Default true. Otherwise, every value is parsed to a {@link TreeNode} first, which is then converted.
      * @throws IOException    If the json parser could not be created or the piece until the start of the array could
      *                        not be tokenized.
      */
@@ -136,16 +148,19 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
          @Nullable Logger logger,
          @Nullable Boolean skipNulls,
          @Nullable Boolean skipErrors,
-         @Nullable Listener<T> eventListener
+         @Nullable Listener<T> eventListener,
+         @Nullable Boolean bindDirectly
      ) throws IOException {
          if (inputStream == null) {
              throw new IllegalArgumentException("No inputStream given");
          }
-         this.jp = (objectMapper == null ? Jackson2Mapper.getLenientInstance() : objectMapper).getFactory().createParser(inputStream);
+         final ObjectMapper mapper = objectMapper == null ? Jackson2Mapper.getLenientInstance() : objectMapper;
+         this.jp = mapper.getFactory().createParser(inputStream);
          this.valueCreator = valueCreator == null ? valueCreator(valueClass) : valueCreator;
          if (valueCreator != null && valueClass != null) {
              throw new IllegalArgumentException();
          }
+         this.valueReader = valueClass != null && (bindDirectly == null || bindDirectly) ? mapper.readerFor(valueClass) : null;
          if (logger != null) {
              this.logger = logger;
          }
@@ -179,6 +194,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
              if (token == JsonToken.START_ARRAY) {
                 if (property == null || property.equals(fn)) {
                     this.property = fn;
+                    this.arrayContext = jp.getParsingContext();
                  break;
              }
          }
@@ -257,6 +273,21 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
                         hasNext = false;
                         break;
                     }
+                    if (valueReader != null) {
+                        if (currentToken == null) {
+                            next = null;
+                            hasNext = false;
+                            break;
+                        }
+                        if (currentToken == JsonToken.VALUE_NULL && skipNulls) {
+                            foundNulls++;
+                            continue;
+                        }
+                        if (readDirectly()) {
+                            break;
+                        }
+                        continue;
+                    }
                     JsonNode tree = jp.readValueAsTree(); // read the next token.
                     if (tree == null) {
                         next = null;
@@ -273,19 +304,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
                         hasNext = true;
                         break;
                     } catch (ValueReadException jme) {
-                        foundNulls++;
-                        boolean accepted = eventListener != null && eventListener.conditionalAccept(new ValueReadExceptionEvent(tree, jme));
-                        if (! accepted) {
-                            if (skipNulls) {
-                                logger.warn("{} {} for\n{}\nWill be skipped", jme.getClass(), jme.getMessage(), tree);
-                            } else {
-                                logger.warn("{} {} for\n{}\nWill be null", jme.getClass(), jme.getMessage(), tree);
-                            }
-                        }
-                        if (! skipErrors) {
-                            next = null;
-                            event(() -> new NextEvent(next));
-                            hasNext = true;
+                        if (valueReadException(tree, jme)) {
                             break;
                         }
                     }
@@ -299,6 +318,69 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
         }
     }
 
+    /**
+     * Binds the current value directly from the parser. Only if an event listener is present, the value is buffered first, because it may want to receive the json if the value could not be bound.
+     * @return Whether a next value was found
+     */
+    private boolean readDirectly() throws IOException {
+        TokenBuffer buffer = null;
+        JsonParser source = jp;
+        if (eventListener != null) {
+            buffer = new TokenBuffer(jp);
+            buffer.copyCurrentStructure(jp);
+            source = buffer.asParser(jp.getCodec());
+        }
+        try {
+            next = valueReader.readValue(source);
+            event(() -> new NextEvent(next));
+            hasNext = true;
+            return true;
+        } catch (JsonMappingException jme) {
+            final Object json;
+            if (buffer == null) {
+                json = jp.currentLocation();
+                skipCurrentValue();
+            } else {
+                json = valueReader.readTree(buffer.asParser(jp.getCodec()));
+            }
+            return valueReadException(json, new ValueReadException(jme));
+        }
+    }
+
+    /**
+     * After a failure, the parser may be anywhere in the value. This proceeds to its last token.
+     */
+    private void skipCurrentValue() throws IOException {
+        while (jp.getParsingContext() != arrayContext) {
+            if (jp.nextToken() == null) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param json The json that could not be bound (a {@link TreeNode}), or if that is not available, its location.
+     * @return Whether a ({@code null}) next value is to be produced
+     */
+    private boolean valueReadException(Object json, ValueReadException jme) {
+        foundNulls++;
+        boolean accepted = eventListener != null && eventListener.conditionalAccept(new ValueReadExceptionEvent(json instanceof TreeNode tree ? tree : null, jme));
+        if (! accepted) {
+            if (skipNulls) {
+                logger.warn("{} {} for\n{}\nWill be skipped", jme.getClass(), jme.getMessage(), json);
+            } else {
+                logger.warn("{} {} for\n{}\nWill be null", jme.getClass(), jme.getMessage(), json);
+            }
+        }
+        if (! skipErrors) {
+            next = null;
+            event(() -> new NextEvent(next));
+            hasNext = true;
+            return true;
+        }
+        return false;
+    }
+
 
     private void callbackBeforeThrow(RuntimeException e) {
         callback();
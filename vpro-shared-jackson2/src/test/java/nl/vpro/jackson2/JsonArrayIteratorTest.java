@@ -14,6 +14,7 @@ import jakarta.xml.bind.annotation.XmlAccessorType;
 
 import org.apache.commons.io.IOUtils;
 import org.json.JSONException;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
@@ -309,6 +310,77 @@ public class JsonArrayIteratorTest {
         }
     }
 
+    @Test
+    public void bindDirectly() throws IOException {
+        byte[] bytes = """
+            [
+            {"value": "a"},
+            ["array", {"nested": [1, 2, {}]}],
+            {"integerValue": 'x', "value": {"nested": true}},
+            null,
+            "string",
+            {"value": "b", "integerValue": 2}
+            ]
+            """.getBytes(StandardCharsets.UTF_8);
+        for (boolean direct : new boolean[] {true, false}) {
+            for (boolean skipErrors : new boolean[]{true, false}) {
+                try (JsonArrayIterator<Simple> i = JsonArrayIterator.<Simple>builder()
+                    .inputStream(new ByteArrayInputStream(bytes))
+                    .valueClass(Simple.class)
+                    .bindDirectly(direct)
+                    .skipErrors(skipErrors)
+                    .build()) {
+                    List<Simple> result = new ArrayList<>();
+                    i.forEachRemaining(result::add);
+                    if (skipErrors) {
+                        assertThat(result).hasSize(2);
+                        assertThat(i.getCount()).isEqualTo(6);
+                    } else {
+                        assertThat(result).hasSize(5);
+                        assertThat(result.subList(1, 4)).containsOnlyNulls();
+                    }
+                    assertThat(result.get(0).getValue()).isEqualTo("a");
+                    assertThat(result.get(result.size() - 1).getIntegerValue()).isEqualTo(2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares binding directly from the parser with binding via a tree.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200_000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"value\": \"value ").append(i).append("\", \"integerValue\": ").append(i).append('}');
+        }
+        json.append(']');
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        for (int run = 0; run < 5; run++) {
+            for (boolean direct : new boolean[] {false, true}) {
+                long start = System.nanoTime();
+                long count = 0;
+                try (JsonArrayIterator<Simple> i = JsonArrayIterator.<Simple>builder()
+                    .inputStream(new ByteArrayInputStream(bytes))
+                    .valueClass(Simple.class)
+                    .bindDirectly(direct)
+                    .build()) {
+                    while (i.hasNext()) {
+                        i.next();
+                        count++;
+                    }
+                }
+                assertThat(count).isEqualTo(200_000);
+                log.info("{}: {} ms", direct ? "direct" : "via tree", (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
     @XmlAccessorType(XmlAccessType.FIELD)
     @Getter
     @Setter
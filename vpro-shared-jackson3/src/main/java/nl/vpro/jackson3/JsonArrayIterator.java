@@ -7,6 +7,7 @@ import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectReader;
 import tools.jackson.databind.exc.MismatchedInputException;
 import tools.jackson.databind.node.NullNode;
+import tools.jackson.databind.util.TokenBuffer;
 
 import java.io.*;
 import java.util.*;
@@ -48,6 +49,16 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
 
     private final BiFunction<ObjectReader, JsonNode, ? extends T> valueCreator;
 
+    /**
+     * If not {@code null}, the values are bound directly from the parser, rather than via a {@link JsonNode} and the {@link #valueCreator}
+     */
+    private final ObjectReader valueReader;
+
+    /**
+     * The context of the array we are iterating, used to skip the remainder of a value that could not be bound.
+     */
+    private TokenStreamContext arrayContext;
+
     @Getter
     @Setter
     private Runnable callback;
@@ -79,11 +90,11 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
     }
 
     public JsonArrayIterator(InputStream inputStream, final Class<T> clazz, Runnable callback) {
-        this(inputStream, null, clazz, callback, null, null, null, null, null, null, null, null);
+        this(inputStream, null, clazz, callback, null, null, null, null, null, null, null, null, null);
     }
 
     public JsonArrayIterator(InputStream inputStream, final BiFunction<ObjectReader, JsonNode, T> valueCreator) {
-        this(inputStream, valueCreator, null, null, null, null, null, null, null, null, null, null);
+        this(inputStream, valueCreator, null, null, null, null, null, null, null, null, null, null, null);
     }
 
 
@@ -116,6 +127,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
      * @param skipNulls       Whether to skip nulls in the array. Default true.
      * @param skipErrors      Whether to skip objects in the array that can't be marshaled. Default to skipNulls value. If false a {@code null} will be produces (and see skipNulls)
      * @param eventListener   A listener for events that happen during parsing and iteration of the array. See {@link Event} and extension classes.
+     * @param bindDirectly    Whether values of <code>valueClass</code> are bound directly from the parser. Default true. Otherwise, every value is parsed to a {@link JsonNode} first, which is then converted.
      * @throws JacksonException    If the JSON parser could not be created or the piece until the start of the array could
      *                        not be tokenized.
      */
@@ -132,7 +144,8 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
         @Nullable Logger logger,
         @Nullable Boolean skipNulls,
         @Nullable Boolean skipErrors,
-        @Nullable Listener<T> eventListener
+        @Nullable Listener<T> eventListener,
+        @Nullable Boolean bindDirectly
     ) {
         requireNonNull(inputStream, "No inputStream given");
         this.reader = objectMapper == null ? Jackson3Mapper.LENIENT.reader() : objectMapper.reader();
@@ -141,6 +154,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
         if (valueCreator != null && valueClass != null) {
             throw new IllegalArgumentException();
         }
+        this.valueReader = valueClass != null && (bindDirectly == null || bindDirectly) ? reader.forType(valueClass) : null;
         if (logger != null) {
             this.logger = logger;
         }
@@ -175,6 +189,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
             if (token == JsonToken.START_ARRAY) {
                 if (property == null || property.equals(fn)) {
                     this.property = fn;
+                    this.arrayContext = jp.streamReadContext();
                     break;
                 }
             }
@@ -247,6 +262,21 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
                         hasNext = false;
                         break;
                     }
+                    if (valueReader != null) {
+                        if (currentToken == null) {
+                            next = null;
+                            hasNext = false;
+                            break;
+                        }
+                        if (currentToken == JsonToken.VALUE_NULL && skipNulls) {
+                            foundNulls++;
+                            continue;
+                        }
+                        if (readDirectly()) {
+                            break;
+                        }
+                        continue;
+                    }
                     JsonNode tree = jp.readValueAsTree(); // read the next token.
                     if (tree == null) {
                         next = null;
@@ -263,19 +293,7 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
                         hasNext = true;
                         break;
                     } catch (MismatchedInputException jme) {
-                        foundNulls++;
-                        boolean accepted = eventListener != null && eventListener.conditionalAccept(new ValueReadExceptionEvent(tree, jme));
-                        if (! accepted) {
-                            if (skipNulls) {
-                                logger.warn("{} {} for\n{}\nWill be skipped", jme.getClass(), jme.getMessage(), tree);
-                            } else {
-                                logger.warn("{} {} for\n{}\nWill be null", jme.getClass(), jme.getMessage(), tree);
-                            }
-                        }
-                        if (! skipErrors) {
-                            next = null;
-                            event(() -> new NextEvent(next));
-                            hasNext = true;
+                        if (valueReadException(tree, jme)) {
                             break;
                         }
                     }
@@ -287,6 +305,69 @@ public class JsonArrayIterator<T> extends UnmodifiableIterator<T>
         }
     }
 
+    /**
+     * Binds the current value directly from the parser. Only if an event listener is present, the value is buffered first, because it may want to receive the json if the value could not be bound.
+     * @return Whether a next value was found
+     */
+    private boolean readDirectly() {
+        TokenBuffer buffer = null;
+        JsonParser source = jp;
+        if (eventListener != null) {
+            buffer = TokenBuffer.forBuffering(jp, ObjectWriteContext.empty());
+            buffer.copyCurrentStructure(jp);
+            source = buffer.asParser(jp.objectReadContext());
+        }
+        try {
+            next = valueReader.readValue(source);
+            event(() -> new NextEvent(next));
+            hasNext = true;
+            return true;
+        } catch (MismatchedInputException jme) {
+            final Object json;
+            if (buffer == null) {
+                json = jp.currentLocation();
+                skipCurrentValue();
+            } else {
+                json = valueReader.readTree(buffer.asParser(jp.objectReadContext()));
+            }
+            return valueReadException(json, jme);
+        }
+    }
+
+    /**
+     * After a failure, the parser may be anywhere in the value. This proceeds to its last token.
+     */
+    private void skipCurrentValue() {
+        while (jp.streamReadContext() != arrayContext) {
+            if (jp.nextToken() == null) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param json The json that could not be bound (a {@link JsonNode}), or if that is not available, its location.
+     * @return Whether a ({@code null}) next value is to be produced
+     */
+    private boolean valueReadException(Object json, MismatchedInputException jme) {
+        foundNulls++;
+        boolean accepted = eventListener != null && eventListener.conditionalAccept(new ValueReadExceptionEvent(json instanceof JsonNode tree ? tree : null, jme));
+        if (! accepted) {
+            if (skipNulls) {
+                logger.warn("{} {} for\n{}\nWill be skipped", jme.getClass(), jme.getMessage(), json);
+            } else {
+                logger.warn("{} {} for\n{}\nWill be null", jme.getClass(), jme.getMessage(), json);
+            }
+        }
+        if (! skipErrors) {
+            next = null;
+            event(() -> new NextEvent(next));
+            hasNext = true;
+            return true;
+        }
+        return false;
+    }
+
 
     private void callbackBeforeThrow(RuntimeException e) {
         callback();
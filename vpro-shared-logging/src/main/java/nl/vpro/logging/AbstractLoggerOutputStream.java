@@ -1,23 +1,47 @@
 package nl.vpro.logging;
 
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * Wraps some logger in an {@link OutputStream}, making logging available as an outputstream, which can be useful for things that accept outputstreams (e.g. external processes)
+ * <p>
+ * Writing, flushing and closing are synchronized, so one instance can be shared by several threads (e.g. the ones copying the output of concurrently running processes). Their lines may be interleaved then, but are not mixed up. Lines can be logged {@link #async(int) by another thread}.
  * @author Michiel Meeuwissen
  */
+@Slf4j
 public abstract class AbstractLoggerOutputStream extends OutputStream {
 
-    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    /**
+     * Put on the queue to make the logging thread stop.
+     */
+    private static final String END = new String("END");
+
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofPlatform()
+        .name(AbstractLoggerOutputStream.class.getSimpleName() + "-", 1)
+        .daemon(true)
+        .factory();
+
+    private byte[] buffer = new byte[256];
+    private int bufferLength = 0;
     private final boolean skipEmptyLines;
     private int lastChar = -1;
 
+    private BlockingQueue<String> queue;
+    private Thread loggingThread;
+    private boolean closed = false;
+
     @Getter
     protected long count = 0;
 
@@ -36,8 +60,30 @@ public abstract class AbstractLoggerOutputStream extends OutputStream {
 
     protected abstract void log(String line);
 
+    /**
+     * Makes the lines logged by a separate thread, so that writing to this stream is not slowed down by the logging itself. At most {@code capacity} lines are waiting to be logged. If there are more, writing blocks until the logging thread caught up. {@link #close()} waits until all lines are logged.
+     * @since 6.0
+     */
+    public AbstractLoggerOutputStream async(int capacity) {
+        return async(capacity, THREAD_FACTORY);
+    }
+
+    /**
+     * As {@link #async(int)}, but the logging thread is created by the given factory (e.g. one of {@code nl.vpro.util.ThreadPools}).
+     * @since 6.0
+     */
+    public synchronized AbstractLoggerOutputStream async(int capacity, ThreadFactory threadFactory) {
+        if (queue != null) {
+            throw new IllegalStateException("Already async");
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        loggingThread = threadFactory.newThread(this::drain);
+        loggingThread.start();
+        return this;
+    }
+
     @Override
-    public void write(int b) {
+    public synchronized void write(int b) {
         switch (b) {
             case '\n' -> log(skipEmptyLines);
             case '\r' -> {
@@ -45,40 +91,145 @@ public abstract class AbstractLoggerOutputStream extends OutputStream {
                     log(skipEmptyLines);
                 }
             }
-            default -> buffer.write(b);
+            default -> append(b);
         }
         lastChar = b;
     }
 
+    /**
+     * Scans for line ends in bulk, and copies everything in between at once to the line buffer.
+     * @since 6.0
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return;
+        }
+        final int end = off + len;
+        int start = off;
+        for (int i = off; i < end; i++) {
+            final byte c = b[i];
+            if (c == '\n' || c == '\r') {
+                append(b, start, i - start);
+                final int previous = i > off ? b[i - 1] : lastChar;
+                if (c == '\n' || previous != '\n') {
+                    log(skipEmptyLines);
+                }
+                start = i + 1;
+            }
+        }
+        append(b, start, end - start);
+        lastChar = b[end - 1];
+    }
+
     @Override
-    public void flush() {
+    public synchronized void flush() {
         log(skipEmptyLines);
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
         super.close();
         log(true);
+        if (queue != null && loggingThread.isAlive()) {
+            put(END);
+            try {
+                loggingThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void append(int b) {
+        ensureCapacity(bufferLength + 1);
+        buffer[bufferLength++] = (byte) b;
+    }
+
+    private void append(byte[] b, int off, int len) {
+        if (len > 0) {
+            ensureCapacity(bufferLength + len);
+            System.arraycopy(b, off, buffer, bufferLength, len);
+            bufferLength += len;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
     }
 
-    @SneakyThrows
     private void log(boolean skipEmpty) {
-        final String line = buffer.toString(charset);
         try {
+            final boolean truncated = max != null && count >= max;
+            if (truncated && !skipEmpty) {
+                // the line itself is not needed
+                count++;
+                if (count == max + 1) {
+                    emit("...");
+                }
+                return;
+            }
+            final String line = new String(buffer, 0, bufferLength, charset);
             if (!skipEmpty || StringUtils.isNotBlank(line)) {
                 count++;
                 if (max != null) {
                     if (count > max) {
                         if (count == max + 1) {
-                            log("...");
+                            emit("...");
                         }
                         return;
                     }
                 }
-                log(line);
+                emit(line);
             }
         } finally {
-            buffer.reset();
+            bufferLength = 0;
+        }
+    }
+
+    private void emit(String line) {
+        if (queue == null) {
+            log(line);
+        } else {
+            put(line);
+        }
+    }
+
+    private void put(String line) {
+        try {
+            queue.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (line != END) {
+                log(line);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final String line;
+            try {
+                line = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (line == END) {
+                return;
+            }
+            try {
+                log(line);
+            } catch (RuntimeException e) {
+                log.error("Could not log {}: {}", line, e.getMessage(), e);
+            }
         }
     }
 }
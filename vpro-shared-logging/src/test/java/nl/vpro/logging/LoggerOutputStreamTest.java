@@ -3,9 +3,15 @@ package nl.vpro.logging;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.*;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -42,4 +48,154 @@ public class LoggerOutputStreamTest {
         log.info(""+ Duration.ofNanos(System.nanoTime() - nano));
     }
 
+    @ParameterizedTest
+    @CsvSource({
+        "false,",
+        "true,",
+        "false,5",
+        "true,5"
+    })
+    public void bulkSameAsByteByByte(boolean skipEmptyLines, Integer max) throws IOException {
+        final Random random = new Random(1);
+        final String[] parts = {"\n", "\r", "\r\n", "\n\r", " ", "é", "frame=  123 fps=25", "\t"};
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append(parts[random.nextInt(parts.length)]);
+        }
+        final byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        final List<String> expected = new ArrayList<>();
+        final CollectingOutputStream byteByByte = new CollectingOutputStream(skipEmptyLines, max, expected);
+        for (byte b : bytes) {
+            byteByByte.write(b);
+        }
+        byteByByte.close();
+
+        final List<String> actual = new ArrayList<>();
+        final CollectingOutputStream bulk = new CollectingOutputStream(skipEmptyLines, max, actual);
+        for (int off = 0; off < bytes.length; ) {
+            final int len = Math.min(random.nextInt(20), bytes.length - off);
+            bulk.write(bytes, off, len);
+            off += len;
+        }
+        bulk.close();
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(bulk.getCount()).isEqualTo(byteByByte.getCount());
+    }
+
+    @Test
+    public void async() throws IOException {
+        final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        final AbstractLoggerOutputStream out = new LoggerOutputStream(false) {
+            @Override
+            protected void log(String line) {
+                threads.add(Thread.currentThread());
+                lines.add(line);
+            }
+        }.async(2);
+        for (int i = 0; i < 100; i++) {
+            out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        out.close();
+        assertThat(lines).hasSize(100);
+        assertThat(lines.get(99)).isEqualTo("line 99");
+        assertThat(threads).doesNotContain(Thread.currentThread());
+    }
+
+    /**
+     * A failing line does not stop the logging thread, and closing twice does not wait for it again.
+     */
+    @Test
+    @Timeout(10)
+    public void asyncFailingAndClosingTwice() throws IOException {
+        final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        final AbstractLoggerOutputStream out = new LoggerOutputStream(false) {
+            @Override
+            protected void log(String line) {
+                if (line.equals("fail")) {
+                    throw new IllegalStateException(line);
+                }
+                lines.add(line);
+            }
+        }.async(1, r -> new Thread(r, "test-logger"));
+        out.write("a\nfail\nb\n".getBytes(StandardCharsets.UTF_8));
+        out.close();
+        out.close();
+        assertThat(lines).containsExactly("a", "b");
+    }
+
+    /**
+     * One instance shared by two threads (like the static ones in e.g. {@code nl.vpro.util.Ssh}). Whole lines may be interleaved, but not mixed up.
+     */
+    @Test
+    @Timeout(10)
+    public void sharedByTwoThreads() throws Exception {
+        final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        final CollectingOutputStream out = new CollectingOutputStream(false, null, lines);
+        final int count = 10_000;
+        final Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            final byte[] line = (String.valueOf((char) ('a' + t)).repeat(100 + t * 300) + "\n").getBytes(StandardCharsets.UTF_8);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    out.write(line, 0, line.length);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        out.close();
+        assertThat(lines).hasSize(2 * count);
+        assertThat(lines).allMatch(l -> l.equals("a".repeat(100)) || l.equals("b".repeat(400)));
+    }
+
+    /**
+     * Writing process output (like ffmpeg's) in blocks, as {@code nl.vpro.util.Copier} would do, compared to writing it byte by byte.
+     */
+    @Test
+    @Tag("performance")
+    public void benchmark() throws IOException {
+        final byte[] output = "frame= 1234 fps= 25 q=28.0 size=   10240kB time=00:00:49.36 bitrate=1699.5kbits/s speed=1.0x\r\n"
+            .repeat(100_000)
+            .getBytes(StandardCharsets.UTF_8);
+        for (int run = 0; run < 3; run++) {
+            final CollectingOutputStream byteByByte = new CollectingOutputStream(false, null, null);
+            long start = System.nanoTime();
+            for (byte b : output) {
+                byteByByte.write(b);
+            }
+            byteByByte.close();
+            final Duration single = Duration.ofNanos(System.nanoTime() - start);
+
+            final CollectingOutputStream bulk = new CollectingOutputStream(false, null, null);
+            start = System.nanoTime();
+            for (int off = 0; off < output.length; off += 8192) {
+                bulk.write(output, off, Math.min(8192, output.length - off));
+            }
+            bulk.close();
+            final Duration blocks = Duration.ofNanos(System.nanoTime() - start);
+            log.info("{} bytes, {} lines: byte by byte {}, in blocks {}", output.length, bulk.getCount(), single, blocks);
+            assertThat(bulk.getCount()).isEqualTo(byteByByte.getCount());
+        }
+    }
+
+    private static class CollectingOutputStream extends AbstractLoggerOutputStream {
+        private final List<String> lines;
+
+        CollectingOutputStream(boolean skipEmptyLines, Integer max, List<String> lines) {
+            super(skipEmptyLines, max);
+            this.lines = lines;
+        }
+
+        @Override
+        protected void log(String line) {
+            if (lines != null) {
+                lines.add(line);
+            }
+        }
+    }
 }
@@ -121,6 +121,12 @@ public class MonitoringProperties implements Serializable {
     }""")
     String gaugeScript;
 
+    /**
+     * If not zero, the scrapes of the prometheus endpoint are cached for this long. Concurrent and quickly repeated scrapes then share one scrape of the registry.
+     */
+    @Value("${monitoring.prometheus.cache:0s}")
+    String prometheusCache = Duration.ZERO.toString();
+
     @Value("${monitoring.endpoints.health:/manage/health}")
     private String health = "/manage/health";
 
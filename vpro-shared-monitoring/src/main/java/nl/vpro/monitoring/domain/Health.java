@@ -18,5 +18,10 @@ public record Health(
     Duration upTime,
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     Duration prometheusCallDuration,
-    Long prometheusDownCount) {
+    Long prometheusDownCount,
+    Double prometheusCacheHitRatio) {
+
+    public Health(int status, String message, Instant startTime, Duration upTime, Duration prometheusCallDuration, Long prometheusDownCount) {
+        this(status, message, startTime, upTime, prometheusCallDuration, prometheusDownCount, null);
+    }
 }
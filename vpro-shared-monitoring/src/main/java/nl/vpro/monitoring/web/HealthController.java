@@ -159,6 +159,7 @@ public class HealthController {
                         .upTime(ready == null ? null : Duration.between(ready, clock.instant()))
                         .prometheusCallDuration(prometheusDuration)
                         .prometheusDownCount(prometheusDownCount.get() == 0 ? null : prometheusDownCount.get())
+                        .prometheusCacheHitRatio(prometheusController == null || ! prometheusController.getCache().isPositive() ? null : prometheusController.getHitRatio())
                         .build()
                 );
         } else {
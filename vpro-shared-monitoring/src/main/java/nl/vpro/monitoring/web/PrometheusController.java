@@ -4,9 +4,12 @@ import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -22,13 +25,23 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 
 import nl.vpro.monitoring.config.*;
+import nl.vpro.util.TimeUtils;
 
+/**
+ * Serves the metrics of the {@link PrometheusMeterRegistry}, in the prometheus text format, or in the OpenMetrics format if the client accepts that. The response is gzipped if the client accepts that.
+ * <p>
+ * If {@link MonitoringProperties#getPrometheusCache()} is set, a scrape is reused for that long, and concurrent requests share one scrape. Otherwise, every request scrapes the registry (one at a time).
+ */
 @Lazy(false)
 @Slf4j
 public class PrometheusController {
 
     public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    public static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
 
+    /**
+     * The time it takes to scrape the registry. If scrapes are cached, only the actual scrapes are measured.
+     */
     @Getter
     private final WindowedStatisticalLong duration = createDuration();
 
@@ -36,11 +49,18 @@ public class PrometheusController {
 
     private final MonitoringProperties properties;
 
+    @Getter
+    private final Duration cache;
+    private final Map<String, CompletableFuture<Snapshot>> snapshots = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
 
     @Inject
     public PrometheusController(Provider<PrometheusMeterRegistry> registry, @Value("endpointMonitoringProperties") MonitoringProperties properties) {
         this.registry = registry;
         this.properties = properties;
+        this.cache = TimeUtils.parseDuration(properties.getPrometheusCache()).orElse(Duration.ZERO);
     }
 
     /**
@@ -62,28 +82,59 @@ public class PrometheusController {
      * Returns metrics in format fit for prometheus
      */
 
-    public synchronized void prometheus(
+    public void prometheus(
         HttpServletRequest request,
         HttpServletResponse response
     ) throws IOException {
         if (authenticate(request, response)) {
 
             log.debug("Scraping Prometheus metrics");
+            final String contentType = contentType(request.getHeader("Accept"));
+            final boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
             response.setStatus(HttpServletResponse.SC_OK);
-            response.setContentType(CONTENT_TYPE);
-            try (
-                WindowedStatisticalLong.RunningDuration measure = duration.measure();
-                OutputStream writer = response.getOutputStream()) {
+            response.setContentType(contentType);
+            response.setHeader("Vary", "Accept, Accept-Encoding");
+            if (gzip) {
+                response.setHeader("Content-Encoding", "gzip");
+            }
+            if (cache.isPositive()) {
+                final Snapshot snapshot = snapshot(contentType);
+                final byte[] body = gzip ? snapshot.gzipped() : snapshot.body();
+                response.setContentLength(body.length);
+                try (OutputStream writer = response.getOutputStream()) {
+                    writer.write(body);
+                } catch (ClientAbortException clientAbortException) {
+                    log.info("Client aborted connection while sending Prometheus metrics");
+                }
+            } else {
+                synchronized (this) {
+                    try (
+                        WindowedStatisticalLong.RunningDuration measure = duration.measure();
+                        OutputStream writer = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream()) {
 
-                Duration took = scrape(writer);
-                log.atLevel(took.compareTo(Duration.ofSeconds(2)) > 0 ? Level.INFO : Level.DEBUG).log("Scraping Prometheus metrics took {}", took);
+                        Duration took = scrapeFor(writer, contentType);
+                        log.atLevel(took.compareTo(Duration.ofSeconds(2)) > 0 ? Level.INFO : Level.DEBUG).log("Scraping Prometheus metrics took {}", took);
+                    }
+                }
             }
         }
     }
+
+    /**
+     * Scrapes in the prometheus text format. Requests for that format are still served via this method, so overriding it keeps working for those.
+     */
     protected Duration scrape(OutputStream writer) throws IOException {
+        return scrape(writer, CONTENT_TYPE);
+    }
+
+    private Duration scrapeFor(OutputStream writer, String contentType) throws IOException {
+        return CONTENT_TYPE.equals(contentType) ? scrape(writer) : scrape(writer, contentType);
+    }
+
+    protected Duration scrape(OutputStream writer, String contentType) throws IOException {
         long start = System.nanoTime();
         try {
-            registry.get().scrape(writer);
+            registry.get().scrape(writer, contentType);
             writer.flush();
             return Duration.ofNanos(System.nanoTime() - start);
         } catch (NoSuchBeanDefinitionException noSuchBeanDefinitionException) {
@@ -98,9 +149,107 @@ public class PrometheusController {
         }
     }
 
+    /**
+     * Returns a scrape in the given format that is not older than {@link #getCache()}. If there is none, one is made, and concurrent callers wait for that one.
+     */
+    Snapshot snapshot(String contentType) throws IOException {
+        while (true) {
+            final CompletableFuture<Snapshot> current = snapshots.get(contentType);
+            if (current != null && (! current.isDone() || isFresh(current))) {
+                hits.increment();
+                return await(current);
+            }
+            final CompletableFuture<Snapshot> building = new CompletableFuture<>();
+            final boolean mine = current == null ?
+                snapshots.putIfAbsent(contentType, building) == null :
+                snapshots.replace(contentType, current, building);
+            if (mine) {
+                misses.increment();
+                try (WindowedStatisticalLong.RunningDuration measure = duration.measure()) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream(current == null || current.isCompletedExceptionally() ? 8192 : current.join().body().length);
+                    final Duration took = scrapeFor(out, contentType);
+                    log.atLevel(took.compareTo(Duration.ofSeconds(2)) > 0 ? Level.INFO : Level.DEBUG).log("Scraping Prometheus metrics took {}", took);
+                    building.complete(new Snapshot(out.toByteArray(), System.nanoTime()));
+                } catch (IOException | RuntimeException e) {
+                    building.completeExceptionally(e);
+                }
+                return await(building);
+            }
+        }
+    }
+
+    private boolean isFresh(CompletableFuture<Snapshot> snapshot) {
+        return ! snapshot.isCompletedExceptionally() &&
+            System.nanoTime() - snapshot.join().created() < cache.toNanos();
+    }
+
+    private static Snapshot await(CompletableFuture<Snapshot> snapshot) throws IOException {
+        try {
+            return snapshot.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * The fraction of the requests that could be served from a cached scrape
+     */
+    public double getHitRatio() {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * OpenMetrics if the client accepts that at least as much as the prometheus text format.
+     */
+    static String contentType(String accept) {
+        final double openMetrics = quality(accept, "application/openmetrics-text");
+        return openMetrics > 0 && openMetrics >= quality(accept, "text/plain") ? OPENMETRICS_CONTENT_TYPE : CONTENT_TYPE;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        return quality(acceptEncoding, "gzip") > 0;
+    }
+
+    /**
+     * The q-value of the given value in a header like {@code Accept} or {@code Accept-Encoding}, so {@code 0} if it is not in it.
+     */
+    static double quality(String header, String value) {
+        if (header == null) {
+            return 0;
+        }
+        for (String element : header.split(",")) {
+            final String[] parameters = element.split(";");
+            if (parameters[0].trim().equalsIgnoreCase(value)) {
+                for (int i = 1; i < parameters.length; i++) {
+                    final String parameter = parameters[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(parameter.substring(2).trim());
+                        } catch (NumberFormatException nfe) {
+                            log.debug("Invalid {} in {}", parameter, header);
+                            return 0;
+                        }
+                    }
+                }
+                return 1;
+            }
+        }
+        return 0;
+    }
 
     public void reset() {
         this.duration.reset();
+        this.hits.reset();
+        this.misses.reset();
+        this.snapshots.clear();
     }
 
     private WindowedStatisticalLong createDuration() {
@@ -112,6 +261,46 @@ public class PrometheusController {
     }
 
 
+    /**
+     * A scrape of the registry. The gzipped version is only created when needed.
+     */
+    static class Snapshot {
+        private final byte[] body;
+        private final long created;
+        private volatile byte[] gzipped;
+
+        Snapshot(byte[] body, long created) {
+            this.body = body;
+            this.created = created;
+        }
+
+        byte[] body() {
+            return body;
+        }
+
+        long created() {
+            return created;
+        }
+
+        byte[] gzipped() throws IOException {
+            byte[] result = gzipped;
+            if (result == null) {
+                synchronized (this) {
+                    result = gzipped;
+                    if (result == null) {
+                        final ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+                        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                            gzip.write(body);
+                        }
+                        result = out.toByteArray();
+                        gzipped = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
     private boolean authenticate(
         HttpServletRequest request,
         HttpServletResponse response
@@ -1,12 +1,14 @@
 package nl.vpro.monitoring.web;
 
+import io.micrometer.core.instrument.*;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.Serial;
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import jakarta.servlet.*;
@@ -43,6 +45,15 @@ import static nl.vpro.monitoring.config.MeterRegistryConfiguration.meterRegistry
  *  </pre>
  *
  *  The {@code prefixes} parameter defines a lists of recognized 'prefixes'. The path of the request is matched to those, and the first match will result a tag with this prefix value. (e.g. {@code path=/manage}). If none matched then the used tag will be {@code path=*}.
+ * <p>
+ *  Other optional parameters
+ *  <ul>
+ *      <li>{@code percentiles}: per prefix the percentiles to publish for the duration. E.g. {@code /manage=0.5,0.95 *=0.99}</li>
+ *      <li>{@code histogram}: the prefixes for which a percentile histogram is published for the duration. E.g. {@code /manage *}</li>
+ *      <li>{@code maxMeters}: the maximal number of combinations of tags to keep meters for (defaults to {@value #DEFAULT_MAX_METERS}). If more combinations are encountered, the content type and method are tagged {@code other}.</li>
+ *  </ul>
+ *  <p>
+ *  The meters are resolved once per combination of tags, and cached.
  */
 @Slf4j
 public class RequestsMeteringFilter extends HttpFilter {
@@ -73,7 +84,18 @@ public class RequestsMeteringFilter extends HttpFilter {
         }
     }
 
+    static final int DEFAULT_MAX_METERS = 1000;
+    static final String OTHER = "other";
+
     private final List<Matcher> matchers = new ArrayList<>();
+    private final Map<String, double[]> percentiles = new HashMap<>();
+    private final Set<String> histograms = new HashSet<>();
+    private int maxMeters = DEFAULT_MAX_METERS;
+
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final AtomicBoolean warnedMaxMeters = new AtomicBoolean(false);
+    private volatile MeterRegistry metersRegistry;
 
 
     @Override
@@ -86,6 +108,35 @@ public class RequestsMeteringFilter extends HttpFilter {
             }
         }
         matchers.add(Matcher.of("*", Predicates.alwaysTrue()));
+        String max = filterConfig.getInitParameter("maxMeters");
+        if (StringUtils.isNotBlank(max)) {
+            maxMeters = Integer.parseInt(max.trim());
+        }
+        String percentilesParameter = filterConfig.getInitParameter("percentiles");
+        if (StringUtils.isNotBlank(percentilesParameter)) {
+            for (String entry : percentilesParameter.trim().split("\\s+")) {
+                String[] split = entry.split("=", 2);
+                if (split.length != 2) {
+                    throw new ServletException("Could not parse percentiles " + entry + " (should be like /prefix=0.5,0.95)");
+                }
+                percentiles.put(checkPrefix(split[0]), Arrays.stream(split[1].split(","))
+                    .mapToDouble(Double::parseDouble)
+                    .toArray());
+            }
+        }
+        String histogramParameter = filterConfig.getInitParameter("histogram");
+        if (StringUtils.isNotBlank(histogramParameter)) {
+            for (String prefix : histogramParameter.trim().split("[,\\s]+")) {
+                histograms.add(checkPrefix(prefix));
+            }
+        }
+    }
+
+    private String checkPrefix(String prefix) {
+        if (matchers.stream().noneMatch(m -> m.toString.equals(prefix))) {
+            log.warn("{} is not one of the prefixes {}", prefix, matchers);
+        }
+        return prefix;
     }
 
     @Override
@@ -108,8 +159,7 @@ public class RequestsMeteringFilter extends HttpFilter {
             String contentType = "?";
             {
                 if (response.getContentType() != null) {
-                    MediaType type = MediaType.parse(response.getContentType());
-                    contentType = type.withoutParameters().toString();
+                    contentType = contentType(response.getContentType());
                 } else {
                     if (request.isAsyncStarted()) {
                         contentType = "async";
@@ -120,15 +170,79 @@ public class RequestsMeteringFilter extends HttpFilter {
                     }
                 }
             }
-            String[] tags = new String[] {
-                "path", pathTag,
-                "contentType", contentType,
-                "status", String.valueOf(response.getStatus()),
-                "method", request.getMethod()
-            };
-            meterRegistry.counter("servlet_requests", tags).increment();
-            meterRegistry.timer("servlet_requests_duration", tags)
-                .record(Duration.ofNanos(System.nanoTime() - nanoStart));
+            final Meters m = meters(pathTag, contentType, response.getStatus(), request.getMethod());
+            m.counter().increment();
+            m.timer().record(System.nanoTime() - nanoStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The content type without parameters. The results of {@link MediaType#parse(String)} are cached.
+     */
+    String contentType(String responseContentType) {
+        String result = contentTypes.get(responseContentType);
+        if (result == null) {
+            result = MediaType.parse(responseContentType).withoutParameters().toString();
+            if (contentTypes.size() < maxMeters) {
+                contentTypes.put(responseContentType, result);
+            }
         }
+        return result;
+    }
+
+    /**
+     * Returns the counter and timer for the given combination of tags. They are looked up in the registry only once.
+     */
+    Meters meters(String path, String contentType, int status, String method) {
+        final MeterRegistry registry = meterRegistry;
+        if (registry != metersRegistry) {
+            synchronized (meters) {
+                if (registry != metersRegistry) {
+                    log.debug("Using {}", registry);
+                    meters.clear();
+                    metersRegistry = registry;
+                }
+            }
+        }
+        Key key = new Key(path, contentType, status, method);
+        Meters result = meters.get(key);
+        if (result == null) {
+            if (meters.size() >= maxMeters) {
+                if (warnedMaxMeters.compareAndSet(false, true)) {
+                    log.warn("More than {} combinations of tags. Content type and method of new ones will be tagged '{}'", maxMeters, OTHER);
+                }
+                key = new Key(path, OTHER, status, OTHER);
+            }
+            result = meters.computeIfAbsent(key, k -> createMeters(registry, k));
+        }
+        return result;
+    }
+
+    private Meters createMeters(MeterRegistry registry, Key key) {
+        final Tags tags = Tags.of(
+            "path", key.path(),
+            "contentType", key.contentType(),
+            "status", String.valueOf(key.status()),
+            "method", key.method()
+        );
+        final Timer.Builder timer = Timer.builder("servlet_requests_duration")
+            .tags(tags);
+        final double[] keyPercentiles = percentiles.get(key.path());
+        if (keyPercentiles != null) {
+            timer.publishPercentiles(keyPercentiles);
+        }
+        if (histograms.contains(key.path())) {
+            timer.publishPercentileHistogram();
+        }
+        return new Meters(
+            registry.counter("servlet_requests", tags),
+            timer.register(registry)
+        );
+    }
+
+    record Key(String path, String contentType, int status, String method) {
+    }
+
+    record Meters(Counter counter, Timer timer) {
     }
 }
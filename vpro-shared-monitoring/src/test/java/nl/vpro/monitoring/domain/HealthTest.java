@@ -25,7 +25,7 @@ class HealthTest {
             "ok",
             Instant.EPOCH,
             Duration.ofSeconds(1),
-            Duration.ofSeconds(2), 0L);
+            Duration.ofSeconds(2), 0L, 0.5);
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -37,7 +37,8 @@ class HealthTest {
                 "startTime" : "1970-01-01T00:00:00Z",
                 "upTime" : "PT1S",
                 "prometheusCallDuration" : "PT2S",
-                "prometheusDownCount" : 0
+                "prometheusDownCount" : 0,
+                "prometheusCacheHitRatio" : 0.5
              }
             """);
     }
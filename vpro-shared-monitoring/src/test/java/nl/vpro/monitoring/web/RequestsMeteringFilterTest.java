@@ -0,0 +1,120 @@
+package nl.vpro.monitoring.web;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+import jakarta.servlet.ServletException;
+
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.*;
+
+import nl.vpro.monitoring.config.MeterRegistryConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class RequestsMeteringFilterTest {
+
+    private PrometheusMeterRegistry previous;
+    private PrometheusMeterRegistry registry;
+    private final RequestsMeteringFilter filter = new RequestsMeteringFilter();
+
+    @BeforeEach
+    public void setup() throws ServletException {
+        previous = MeterRegistryConfiguration.meterRegistry;
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        MeterRegistryConfiguration.meterRegistry = registry;
+        MockFilterConfig config = new MockFilterConfig();
+        config.addInitParameter("prefixes", "/manage /import");
+        config.addInitParameter("percentiles", "/manage=0.5,0.95");
+        config.addInitParameter("maxMeters", "3");
+        filter.init(config);
+    }
+
+    @AfterEach
+    public void restore() {
+        MeterRegistryConfiguration.meterRegistry = previous;
+    }
+
+    @Test
+    public void meters() throws ServletException, IOException {
+        request("/manage/foo", "text/plain; charset=utf-8", 200);
+        request("/manage/bar", "text/plain;charset=UTF-8", 200);
+        request("/other", "application/json", 404);
+
+        assertThat(registry.get("servlet_requests")
+            .tags("path", "/manage", "contentType", "text/plain", "status", "200", "method", "GET")
+            .counter().count()).isEqualTo(2);
+        assertThat(registry.get("servlet_requests_duration")
+            .tags("path", "*", "contentType", "application/json", "status", "404", "method", "GET")
+            .timer().count()).isEqualTo(1);
+
+        final Timer timer = registry.get("servlet_requests_duration")
+            .tags("path", "/manage")
+            .timer();
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(2);
+        assertThat(filter.meters("/manage", "text/plain", 200, "GET"))
+            .isSameAs(filter.meters("/manage", "text/plain", 200, "GET"));
+    }
+
+    @Test
+    public void maxMeters() throws ServletException, IOException {
+        request("/import", "text/plain", 200);
+        request("/import", "text/html", 200);
+        request("/import", "application/json", 200);
+        request("/import", "application/xml", 200);
+        request("/import", "image/png", 200);
+
+        assertThat(registry.get("servlet_requests")
+            .tags("path", "/import", "contentType", RequestsMeteringFilter.OTHER, "method", RequestsMeteringFilter.OTHER)
+            .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void replacedRegistry() throws ServletException, IOException {
+        request("/import", "text/plain", 200);
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        MeterRegistryConfiguration.meterRegistry = registry;
+        request("/import", "text/plain", 200);
+        assertThat(registry.get("servlet_requests").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * The overhead per request of the filter, compared to just calling the chain.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() throws ServletException, IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/manage/foo");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType("application/json; charset=utf-8");
+        final int count = 200_000;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                new MockFilterChain().doFilter(request, response);
+            }
+            long chain = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                filter.doFilter(request, response, new MockFilterChain());
+            }
+            long filtered = System.nanoTime() - start;
+            log.info("Overhead per request: {} ns", (filtered - chain) / count);
+        }
+        assertThat(registry.get("servlet_requests").counter().count()).isEqualTo(5.0 * count);
+    }
+
+    private void request(String path, String contentType, int status) throws ServletException, IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, resp) -> {
+            resp.setContentType(contentType);
+            ((MockHttpServletResponse) resp).setStatus(status);
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package nl.vpro.rs.client;
 
+import java.util.Map;
+
 import javax.management.MXBean;
 
 import nl.vpro.jmx.Description;
@@ -57,6 +59,12 @@ public interface AbstractApiClientMXBean {
     Integer getMaxConnectionsPerRouteNoTimeout();
     void setMaxConnectionsPerRouteNoTimeout(Integer maxConnectionsPerRoute);
 
+    /**
+     * @since 6.0
+     */
+    @Description("The statistics (leased, pending, available, max) of the connection pools, in total and per route")
+    Map<String, String> getConnectionPoolStatistics();
+
 
     @Units("events/minute")
     double getRate();
@@ -1,6 +1,8 @@
 package nl.vpro.rs.client;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.ws.rs.client.*;
 
@@ -14,6 +16,8 @@ import nl.vpro.jmx.CountAspect;
  */
 public class CountFilter implements ClientResponseFilter  {
 
+    private static final Map<Method, String> METHOD_NAMES = new ConcurrentHashMap<>();
+
     private final Logger log;
 
     public CountFilter(Logger log) {
@@ -42,7 +46,7 @@ public class CountFilter implements ClientResponseFilter  {
     }
 
      static String methodToString(Method m) {
-         return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+         return METHOD_NAMES.computeIfAbsent(m, method -> method.getDeclaringClass().getSimpleName() + "." + method.getName());
     }
 
 }
@@ -2,10 +2,12 @@ package nl.vpro.jmx;
 
 import lombok.Data;
 
+import java.lang.invoke.*;
 import java.lang.reflect.*;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
@@ -17,6 +19,8 @@ import static nl.vpro.util.TimeUtils.roundToMillis;
 
 /**
  * Wraps all calls to register some statistics.
+ * <p>
+ * Per {@link Method} of the proxied interface the way to call it (a {@link MethodHandle} if possible), and the last used {@link Counter} are resolved only once. The {@link Local} is reused for every non-nested call on the same thread, so that counting a call normally doesn't allocate anything.
  *
  * @author Michiel Meeuwissen
  * @since 1.57
@@ -25,16 +29,27 @@ public class CountAspect<T> implements InvocationHandler {
 
     public static final ThreadLocal<Local> currentThreadLocal = ThreadLocal.withInitial(() -> null);
 
+    private static final ThreadLocal<Local> reusableLocal = ThreadLocal.withInitial(Local::new);
+
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final SimpleLogger log;
     private final T proxied;
     private final Map<String, Counter> counts;
     private final ObjectName name;
     private final Duration countWindow;
     private final Duration warnThreshold;
+    private final long warnThresholdNanos;
     private final Integer bucketCount;
     private final Level warnLevel;
+    private final Listener listener;
+    private final Map<Method, Dispatch> dispatches = new ConcurrentHashMap<>();
 
     CountAspect(T proxied, Map<String, Counter> counter, Duration countWindow, Integer bucketCount, ObjectName name, SimpleLogger log, Duration warnThreshold, Level warnLevel) {
+        this(proxied, counter, countWindow, bucketCount, name, log, warnThreshold, warnLevel, null);
+    }
+
+    CountAspect(T proxied, Map<String, Counter> counter, Duration countWindow, Integer bucketCount, ObjectName name, SimpleLogger log, Duration warnThreshold, Level warnLevel, Listener listener) {
         this.proxied = proxied;
         this.counts = counter;
         this.name = name;
@@ -42,28 +57,31 @@ public class CountAspect<T> implements InvocationHandler {
         this.bucketCount = bucketCount;
         this.log = log;
         this.warnThreshold = warnThreshold;
+        this.warnThresholdNanos = warnThreshold.toNanos();
         this.warnLevel = warnLevel == null ? Level.WARN : warnLevel;
+        this.listener = listener;
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        Local local = start(method);
+        final Dispatch dispatch = dispatches.computeIfAbsent(method, Dispatch::new);
+        final Local previous = currentThreadLocal.get();
+        final Local local = (previous == null ? reusableLocal.get() : new Local()).start(method);
+        currentThreadLocal.set(local);
         try {
-            return method.invoke(proxied, args);
+            return dispatch.invoke(args);
         } finally {
             local.responseEnd();
-            if (local.needsCount()) {
-                Duration totalDuration = local.getTotalDuration();
-                counts.computeIfAbsent(local.key,
-                    (m) -> Counter.builder()
-                        .name(getObjectName(m))
-                        .countWindow(countWindow)
-                        .bucketCount(bucketCount)
-                        .build()
-                )
-                    .eventAndDuration(totalDuration, local.getRequestDuration());
-
-                if (totalDuration.compareTo(warnThreshold) > 0) {
+            if (dispatch.counted) {
+                final long totalNanos = local.responseEnd - local.start;
+                final long requestNanos = local.requestEnd - local.start;
+                dispatch.counter(local.key).eventAndNanos(totalNanos, requestNanos);
+                if (listener != null) {
+                    listener.counted(local.key, totalNanos, requestNanos);
+                }
+
+                if (totalNanos > warnThresholdNanos) {
+                    Duration totalDuration = local.getTotalDuration();
                     String durationReport = (((float) totalDuration.toMillis()) / local.getRequestDuration().toMillis() > 1.5f) ?
                         String.format("%s/%s", roundToMillis(local.getRequestDuration()), roundToMillis(totalDuration)) :
                         roundToMillis(totalDuration).toString();
@@ -73,11 +91,9 @@ public class CountAspect<T> implements InvocationHandler {
                         local.requestUri);
                 }
             }
-
-            currentThreadLocal.remove();
+            // setting rather than removing, which would make the next call allocate a new entry in the thread local map
+            currentThreadLocal.set(previous);
         }
-
-
     }
 
     ObjectName getObjectName(String m) {
@@ -91,6 +107,14 @@ public class CountAspect<T> implements InvocationHandler {
         }
     }
 
+    private Counter newCounter(String key) {
+        return Counter.builder()
+            .name(getObjectName(key))
+            .countWindow(countWindow)
+            .bucketCount(bucketCount)
+            .build();
+    }
+
 
     @SuppressWarnings("unchecked")
     public static <T> T proxyCounter(
@@ -103,33 +127,125 @@ public class CountAspect<T> implements InvocationHandler {
         Duration warnThreshold,
         Level warnLevel
         ) {
+        return proxyCounter(counter, countWindow, bucketCount, name, restInterface, service, log, warnThreshold, warnLevel, null);
+    }
+
+    /**
+     * @param listener If not {@code null}, this is called for every counted call too, e.g. to publish them via micrometer too (see {@link CountAspectTimers})
+     * @since 6.0
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T proxyCounter(
+        Map<String, Counter> counter,
+        Duration countWindow,
+        Integer bucketCount,
+        ObjectName name, Class<T> restInterface,
+        T service,
+        SimpleLogger log,
+        Duration warnThreshold,
+        Level warnLevel,
+        Listener listener
+        ) {
         return (T) Proxy.newProxyInstance(CountAspect.class.getClassLoader(),
             new Class[]{restInterface},
-            new CountAspect<>(service, counter, countWindow, bucketCount, name, log, warnThreshold, warnLevel));
+            new CountAspect<>(service, counter, countWindow, bucketCount, name, log, warnThreshold, warnLevel, listener));
     }
 
-    private Local start(Method method) {
-        Local local = new Local(method);
-        currentThreadLocal.set(local);
-        return local;
+    /**
+     * Is called for every counted call, with the key of the {@link Counter}, and the total duration and the duration until the request was done in nanoseconds.
+     * @since 6.0
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void counted(String key, long totalNanos, long requestNanos);
+    }
+
+    /**
+     * Everything needed to call and count one method of the proxied interface, resolved once.
+     */
+    private class Dispatch {
+        final Method method;
+        final MethodHandle handle;
+        final boolean counted;
+        volatile Resolved last;
+
+        Dispatch(Method method) {
+            this.method = method;
+            this.handle = handle(method, proxied);
+            this.counted = !method.getName().equals("toString");
+        }
+
+        Object invoke(Object[] args) throws Throwable {
+            if (handle != null) {
+                return (Object) handle.invokeExact(args == null ? NO_ARGS : args);
+            }
+            try {
+                return method.invoke(proxied, args);
+            } catch (InvocationTargetException ite) {
+                throw ite.getCause();
+            }
+        }
+
+        /**
+         * Normally the key is the same as for the previous call, so the counter can be reused without looking it up in the map.
+         */
+        Counter counter(String key) {
+            final Resolved resolved = last;
+            if (resolved != null && resolved.key.equals(key) && !resolved.counter.isShutdown()) {
+                return resolved.counter;
+            }
+            final Counter counter = counts.computeIfAbsent(key, CountAspect.this::newCounter);
+            last = new Resolved(key, counter);
+            return counter;
+        }
+    }
+
+    private record Resolved(String key, Counter counter) {
     }
+
+    /**
+     * A method handle with type {@code (Object[])Object} calling the method on the target, or {@code null} if the method is not accessible that way, in which case reflection is used.
+     */
+    static MethodHandle handle(Method method, Object target) {
+        try {
+            return MethodHandles.publicLookup()
+                .unreflect(method)
+                .asFixedArity()
+                .bindTo(target)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
     @Data
     public static class Local {
 
-        final Method method;
-        private final long start = System.nanoTime();
+        Method method;
+        private long start;
         private long requestEnd;
         private long responseEnd;
         private URI requestUri;
         private String key;
 
+        private Local() {
+        }
 
         Local(Method method) {
+            start(method);
+        }
+
+        Local start(Method method) {
             this.method = method;
             this.key = method.getName();
+            this.requestUri = null;
+            this.requestEnd = 0;
+            this.responseEnd = 0;
+            this.start = System.nanoTime();
+            return this;
         }
 
-
         public boolean needsCount() {
             return !method.getName().equals("toString");
         }
@@ -153,4 +269,3 @@ public class CountAspect<T> implements InvocationHandler {
     }
 
 }
-
@@ -0,0 +1,58 @@
+package nl.vpro.jmx;
+
+import io.micrometer.core.instrument.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * A {@link CountAspect.Listener} that publishes the counted calls as micrometer {@link Timer}s too: {@code <name>} for the total duration, and {@code <name>.request} for the duration until the request was sent. They are tagged with the key of the {@link Counter}. This is separate from {@link CountAspect} itself, so that micrometer is only needed if this is used.
+ * <pre>{@code
+ *   client.setCountListener(new CountAspectTimers(meterRegistry, "api.client", Tags.of("client", "media")));
+ * }</pre>
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+public class CountAspectTimers implements CountAspect.Listener {
+
+    private final MeterRegistry registry;
+    private final String name;
+    private final Iterable<Tag> tags;
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public CountAspectTimers(MeterRegistry registry, String name) {
+        this(registry, name, emptyList());
+    }
+
+    public CountAspectTimers(MeterRegistry registry, String name, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.name = name;
+        this.tags = tags;
+    }
+
+    @Override
+    public void counted(String key, long totalNanos, long requestNanos) {
+        final Timer[] t = timers.computeIfAbsent(key, this::timers);
+        t[0].record(totalNanos, TimeUnit.NANOSECONDS);
+        if (requestNanos >= 0 && requestNanos <= totalNanos) {
+            t[1].record(requestNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] timers(String key) {
+        final Tags keyTags = Tags.concat(tags, "key", key);
+        return new Timer[] {
+            Timer.builder(name)
+                .tags(keyTags)
+                .description("The duration of the calls")
+                .register(registry),
+            Timer.builder(name + ".request")
+                .tags(keyTags)
+                .description("The duration of the calls until the request was sent")
+                .register(registry)
+        };
+    }
+}
@@ -32,6 +32,7 @@ public class Counter implements CounterMXBean {
     private final WindowedEventRate rate;
     private final List<WindowedLongSummaryStatistics> durationStatistics = new ArrayList<>();
     private final ObjectName name;
+    private volatile boolean shutdown = false;
 
     @lombok.Builder
     protected Counter(
@@ -123,7 +124,35 @@ public class Counter implements CounterMXBean {
         }
     }
 
+    /**
+     * As {@link #eventAndDuration(Duration, Duration...)} with one extra duration, but without the need to create {@link Duration} instances.
+     * @since 6.0
+     */
+    void eventAndNanos(long nanos, long requestNanos) {
+        increment();
+        if (log.isDebugEnabled()) {
+            log.debug("{} Duration {}", this, Duration.ofNanos(nanos));
+        }
+        getDurationStatistics().accept(millis(nanos));
+        if (this.durationStatistics.size() <= 1) {
+            this.durationStatistics.add(newStatistics());
+        }
+        this.durationStatistics.get(1).accept(millis(requestNanos));
+    }
+
+    private static long millis(long nanos) {
+        return Math.floorDiv(nanos + 500_000, 1_000_000);
+    }
+
+    /**
+     * @since 6.0
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
     public void shutdown() {
+        shutdown = true;
         if (name != null) {
             MBeans.unregister(name);
         }
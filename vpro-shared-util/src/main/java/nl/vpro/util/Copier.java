@@ -5,9 +5,11 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
+import java.nio.channels.*;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -28,6 +30,7 @@ import static nl.vpro.util.FileCachingInputStream.EOF;
 @Slf4j
 public class Copier implements Runnable, Closeable {
     static final int DEFAULT_BATCH_SIZE = 8192;
+    static final int DEFAULT_TRANSFER_SIZE = 64 * 1024;
 
 
     /**
@@ -41,6 +44,13 @@ public class Copier implements Runnable, Closeable {
     private volatile Throwable exception;
     private final  AtomicLong count = new AtomicLong(0);
 
+    /**
+     * The number of bytes that are written <em>and flushed</em> to the output. Only maintained if {@link #publishWritten}
+     */
+    private volatile long written;
+    private final Object writtenLock = new Object();
+    private final AtomicInteger writtenWaiters = new AtomicInteger(0);
+
     private final InputStream input;
     private final Long expectedCount;
     private final OutputStream output;
@@ -57,6 +67,10 @@ public class Copier implements Runnable, Closeable {
     private final String name;
     private final String logPrefix;
     private final Object notify;
+    private final boolean publishWritten;
+    private final boolean channels;
+    private final @Nullable FileChannel inputChannel;
+    private final @Nullable FileChannel outputChannel;
 
     private final ExecutorService executorService;
 
@@ -66,12 +80,14 @@ public class Copier implements Runnable, Closeable {
      * @param input The input stream to copy from (will be closed if ready)
      * @param output The output stream to copy to (will not be implicetely closed)
      * @param batch The size of batches (defaults to 8192)
-     * @param batchConsumer Some action to perform after each batch
+     * @param batchConsumer Some action to perform after each batch, and once more after the last one if that was incomplete
      * @param callback Called when ready, this should probably close the outputstream
      * @param errorHandler Called on error, just before callback
      * @param offset Just the initial value for {@link #getCount()}
      * @param name A name to assign to this copier
      * @param notify if a batch was handled notify this object
+     * @param publishWritten If true, the output is flushed after every read from the input, and {@link #getWritten()} is updated. Threads in {@link #waitForWritten(long)} are woken up as soon as that happens.
+     * @param channels If the input is a {@link FileInputStream} or the output a {@link FileOutputStream}, copy via their {@link FileChannel} (defaults to true). See {@link #isUsingChannels()}
      */
     @lombok.Builder(builderClassName = "Builder")
     private Copier(
@@ -86,6 +102,8 @@ public class Copier implements Runnable, Closeable {
         int offset,
         @Nullable String name,
         @Nullable Object notify,
+        @Nullable Boolean publishWritten,
+        @Nullable Boolean channels,
         @Nullable ExecutorService executorService
         ) {
         this.input = input;
@@ -97,14 +115,19 @@ public class Copier implements Runnable, Closeable {
         this.batchConsumer = batchConsumer;
         this.errorHandler = errorHandler;
         this.count.set(offset);
+        this.written = offset;
         this.name = name;
         this.logPrefix = name == null ? "" : name + ": ";
         this.notify = notify;
+        this.publishWritten = publishWritten != null && publishWritten;
+        this.channels = channels == null || channels;
+        this.inputChannel = this.channels && input instanceof FileInputStream fileInputStream ? seekable(fileInputStream.getChannel(), true) : null;
+        this.outputChannel = this.channels && ! this.publishWritten && output instanceof FileOutputStream fileOutputStream ? seekable(fileOutputStream.getChannel(), false) : null;
         this.executorService = executorService == null ? ThreadPools.copyExecutor : executorService;
     }
 
     public Copier(@NonNull InputStream i, @NonNull OutputStream o, Long batch) {
-        this(i, null, o, batch, null, null, null, null,  0, null, null, null);
+        this(i, null, o, batch, null, null, null, null,  0, null, null, null, null, null);
     }
 
 
@@ -115,7 +138,11 @@ public class Copier implements Runnable, Closeable {
     @Override
     public void run() {
         try {
-            if (batchConsumer == null || batch < 1) {
+            if (isUsingChannels()) {
+                copyWithTransfers(channelTransfer());
+            } else if (publishWritten) {
+                copyWithTransfers(heapTransfer());
+            } else if (batchConsumer == null || batch < 1) {
                 long copied = IOUtils.copyLarge(input, output);
                 count.addAndGet(copied);
             } else {
@@ -162,7 +189,12 @@ public class Copier implements Runnable, Closeable {
 
             output.write(buffer, 0, readInPart);
             count.addAndGet(readInPart);
-            if (++part == equalParts.length) { // the required batch consumer size is now full
+            if (!busy) {
+                if (part > 0 || readInPart > 0) {
+                    // the last, incomplete, batch
+                    batchConsumer.accept(this);
+                }
+            } else if (++part == equalParts.length) { // the required batch consumer size is now full
                 batchConsumer.accept(this);
                 notifyIfRequested();
                 part = 0;
@@ -171,6 +203,136 @@ public class Copier implements Runnable, Closeable {
         log.debug("Copied {} from {} to {}", getCount(), input, output);
     }
 
+    /**
+     * Whether this copier copies via {@link FileChannel#transferTo(long, long, WritableByteChannel)} or {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}, which avoids copying through a heap buffer (on linux this is {@code sendfile}, or a pooled direct buffer if the other side is not a file).
+     * <p>
+     * That is the case if the input is a {@link FileInputStream}, or if the output is a {@link FileOutputStream}. In the latter case not if {@code publishWritten}, because {@link FileChannel#transferFrom(ReadableByteChannel, long, long)} would wait for entire chunks. In both cases only if it is a seekable, regular file, so not e.g. a pipe or a terminal.
+     * @since 6.0
+     */
+    public boolean isUsingChannels() {
+        return inputChannel != null || outputChannel != null;
+    }
+
+    /**
+     * Returns the channel if it can be used with positions. Pipes, FIFOs and terminals can't ('Illegal seek'). Input files must report a size too, which e.g. files in {@code /proc} don't.
+     */
+    private static @Nullable FileChannel seekable(FileChannel channel, boolean input) {
+        try {
+            channel.position();
+            if (input && channel.size() == 0) {
+                return null;
+            }
+            return channel;
+        } catch (IOException ioe) {
+            log.debug("Not using {}: {}", channel, ioe.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copies by calling the transfer repeatedly. Takes care of the batch callbacks, the count and {@link #getWritten()}.
+     */
+    private void copyWithTransfers(Transfer transfer) throws IOException {
+        final boolean batches = batchConsumer != null && batch >= 1;
+        final int[] equalParts = batches ? equalsParts() : new int[] {publishWritten && !isUsingChannels() ? DEFAULT_BATCH_SIZE : DEFAULT_TRANSFER_SIZE};
+        int part = 0;
+        long inPart = 0;
+        while (true) {
+            final long transferred = transfer.transfer(equalParts[part] - inPart);
+            if (transferred == EOF) {
+                checkCount(count.get());
+                log.debug("breaking on {}", count.get());
+                if (batches && (part > 0 || inPart > 0)) {
+                    // the last, incomplete, batch
+                    batchConsumer.accept(this);
+                }
+                break;
+            }
+            final long newCount = count.addAndGet(transferred);
+            if (publishWritten) {
+                output.flush();
+                publishWritten(newCount);
+            }
+            inPart += transferred;
+            if (inPart == equalParts[part]) {
+                inPart = 0;
+                if (++part == equalParts.length) {
+                    if (batches) {
+                        batchConsumer.accept(this);
+                    }
+                    notifyIfRequested();
+                    part = 0;
+                }
+            }
+        }
+        log.debug("Copied {} from {} to {}", getCount(), input, output);
+    }
+
+    /**
+     * Reads and writes via a heap buffer, one read at a time.
+     */
+    private Transfer heapTransfer() {
+        final byte[] buffer = new byte[(int) Math.min(Math.max(batch, DEFAULT_BATCH_SIZE), DEFAULT_TRANSFER_SIZE)];
+        return max -> {
+            final int read = input.read(buffer, 0, (int) Math.min(max, buffer.length));
+            if (read != EOF) {
+                output.write(buffer, 0, read);
+            }
+            return read;
+        };
+    }
+
+    /**
+     * Transfers via the {@link FileChannel} of the input or the output. The position of the channel is kept up to date, so the streams can be used afterwards as if the copy happened via them.
+     */
+    private Transfer channelTransfer() {
+        if (inputChannel != null) {
+            final FileChannel in = inputChannel;
+            final WritableByteChannel out = output instanceof FileOutputStream fileOutputStream ? fileOutputStream.getChannel() : Channels.newChannel(output);
+            return max -> {
+                final long position = in.position();
+                final long transferred = in.transferTo(position, max, out);
+                if (transferred == 0 && position >= in.size()) {
+                    return EOF;
+                }
+                in.position(position + transferred);
+                return transferred;
+            };
+        } else {
+            final FileChannel out = outputChannel;
+            final ReadableByteChannel in = Channels.newChannel(input);
+            return max -> {
+                final long position = out.position();
+                final long transferred = out.transferFrom(in, position, max);
+                if (transferred == 0) {
+                    return EOF;
+                }
+                out.position(position + transferred);
+                return transferred;
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transfer {
+        /**
+         * @return the number of bytes transferred (at most {@code max}), or {@link FileCachingInputStream#EOF} if there is nothing more.
+         */
+        long transfer(long max) throws IOException;
+    }
+
+    /**
+     * Publishes the new value for {@link #getWritten()}. The monitor is only used if some thread is actually waiting for it.
+     */
+    private void publishWritten(long newWritten) {
+        written = newWritten;
+        if (writtenWaiters.get() > 0) {
+            synchronized (writtenLock) {
+                writtenLock.notifyAll();
+            }
+        }
+    }
+
     private void checkCount(long currentCount) {
         if (expectedCount != null) {
             if (currentCount < expectedCount) {
@@ -215,6 +377,9 @@ public class Copier implements Runnable, Closeable {
             readyAndCallbacked = true;
             notifyIfRequested();
         }
+        synchronized (writtenLock) {
+            writtenLock.notifyAll();
+        }
     }
 
     public void waitFor() throws InterruptedException {
@@ -243,6 +408,39 @@ public class Copier implements Runnable, Closeable {
         return readyAndCallbacked;
     }
 
+    /**
+     * The number of bytes written to the output and flushed. This only increases, and is only maintained if this copier was built with {@code publishWritten(true)}.
+     * Bytes up to this number can be read from whatever the output is writing to.
+     * @since 6.0
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Waits until at least the given number of bytes are {@link #getWritten() written}, or until the copier is ready.
+     * @return The number of bytes written
+     * @since 6.0
+     */
+    public long waitForWritten(long atLeast) throws InterruptedException {
+        long result = written;
+        if (result >= atLeast || readyAndCallbacked) {
+            return result;
+        }
+        synchronized (writtenLock) {
+            // registering as waiter before checking again, so that publishWritten can't miss us
+            writtenWaiters.incrementAndGet();
+            try {
+                while ((result = written) < atLeast && !readyAndCallbacked) {
+                    writtenLock.wait();
+                }
+            } finally {
+                writtenWaiters.decrementAndGet();
+            }
+        }
+        return result;
+    }
+
     public Optional<Throwable> getException() {
         return Optional.ofNullable(exception);
     }
@@ -264,7 +462,7 @@ public class Copier implements Runnable, Closeable {
         return count.get();
     }
 
-    public Copier execute() {
+    public synchronized Copier execute() {
         if (this.future != null) {
             throw new IllegalStateException(logPrefix + "Already running");
         }
@@ -272,7 +470,7 @@ public class Copier implements Runnable, Closeable {
         return this;
     }
 
-    public boolean executeIfNotRunning() {
+    public synchronized boolean executeIfNotRunning() {
         if (future == null) {
             execute();
             return true;
@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.time.Duration;
 import java.util.*;
@@ -33,6 +35,10 @@ import nl.vpro.logging.simple.Slf4jSimpleLogger;
  * <p>Use this if you want to consume an inputstream as fast as possible, while handing it at a
  * slower pace. The cost is the creation of the temporary file.</p>
  *
+ * <p>If {@code eventDriven} is set, the temporary file is read via a positional {@link FileChannel}, and a reader that caught up with the copier is woken up as soon as new bytes were written (see {@link Copier#waitForWritten(long)}), in stead of polling the file.</p>
+ *
+ * <p>In that case (or if the stream fitted in memory), also {@link #newReader() additional readers} can be opened, so that the same input can be consumed by several consumers at once. The temporary file is only deleted when all of them are closed.</p>
+ *
  * @author Michiel Meeuwissen
  * @since 0.50
  */
@@ -58,8 +64,15 @@ public class FileCachingInputStream extends InputStream {
     private final boolean deleteTempFile;
 
     private final InputStream tempFileInputStream;
+    private final FileChannel tempFileChannel;
+    private final ByteBuffer readAhead;
     private boolean tempFileInputStreamClosed = false;
 
+    /**
+     * The number of open readers, this stream itself included
+     */
+    private final AtomicInteger readers = new AtomicInteger(1);
+
     @Getter
     private volatile boolean closed = false;
     private final AtomicLong count = new AtomicLong(0);
@@ -81,7 +94,9 @@ public class FileCachingInputStream extends InputStream {
      * @param progressLogging Whether progress logging must be done (every batch)
      * @param progressLoggingBatch every this many batches a progress logging will be issued (unused progressLogging is explicitly false)
      * @param deleteTempFile Whether the intermediate temporary file must be deleted immediately on closing of this stream
+     * @param outputBuffer If set, the temp file is written via a {@link BufferedOutputStream} with this buffer size. Otherwise it is written unbuffered, which allows the {@link Copier} to {@link Copier#isUsingChannels() use the file channel}.
      * @param initialBuffer The initial buffer size to use, defaults to 8192 bytes. If this is larger than the input stream, no temporary file will be created.
+     * @param eventDriven Whether to read the temporary file via a {@link FileChannel}, being notified by the copier when new bytes are available (defaults to false, which polls the file)
      */
     @lombok.Builder(builderClassName = "Builder")
     @SneakyThrows(IOException.class)
@@ -102,6 +117,7 @@ public class FileCachingInputStream extends InputStream {
         @Nullable final Integer progressLoggingBatch,
         @Nullable final Path tempPath,
         @Nullable final Boolean deleteTempFile,
+        @Nullable final Boolean eventDriven,
         @Nullable final ExecutorService executorService
     ) {
         super();
@@ -130,6 +146,8 @@ public class FileCachingInputStream extends InputStream {
                     // there will be no need to read from a file input stream at all
                     this.toFileCopier = null;
                     this.tempFileInputStream = null;
+                    this.tempFileChannel = null;
+                    this.readAhead = null;
                     this.tempFile = initialBufferResult.tempFile;
                     return;
                 }
@@ -148,8 +166,18 @@ public class FileCachingInputStream extends InputStream {
                 progressLoggingBatch
             );
 
-            this.tempFileInputStream = new BufferedInputStream(Files.newInputStream(tempFile));
-            incStreams(tempFileInputStream);
+            final boolean effectiveEventDriven = eventDriven != null && eventDriven;
+            if (effectiveEventDriven) {
+                this.tempFileInputStream = null;
+                this.tempFileChannel = FileChannel.open(tempFile, StandardOpenOption.READ);
+                this.readAhead = ByteBuffer.allocate(DEFAULT_FILE_BUFFER_SIZE).limit(0);
+                incStreams(tempFileChannel);
+            } else {
+                this.tempFileInputStream = new BufferedInputStream(Files.newInputStream(tempFile));
+                this.tempFileChannel = null;
+                this.readAhead = null;
+                incStreams(tempFileInputStream);
+            }
 
             toFileCopier = createToFileCopier(
                 input,
@@ -159,6 +187,7 @@ public class FileCachingInputStream extends InputStream {
                 consumer,
                 batchSize,
                 progressLogging,
+                effectiveEventDriven,
                 executorService
             );
             executeCopier(downloadFirst, startImmediately);
@@ -181,10 +210,13 @@ public class FileCachingInputStream extends InputStream {
         if (isClosed() || getException().isPresent()) {
             return 0;
         }
-        if (tempFileInputStream == null) {
+        if (toFileCopier == null) {
             return buffer.length - (int) count.get();
+        }
+        toFileCopier.executeIfNotRunning();
+        if (tempFileChannel != null) {
+            return (int) Math.min(Integer.MAX_VALUE, toFileCopier.getWritten() - count.get());
         } else {
-            toFileCopier.executeIfNotRunning();
             return tempFileInputStream.available();
         }
     }
@@ -201,6 +233,7 @@ public class FileCachingInputStream extends InputStream {
         @Nullable final Consumer<FileCachingInputStream> consumer,
         final long batchSize,
         final Boolean progressLogging,
+        final boolean publishWritten,
         final ExecutorService executorService
         ) throws ExecutionException, InterruptedException {
 
@@ -213,6 +246,7 @@ public class FileCachingInputStream extends InputStream {
             .output(tempFileOutputStream)
             .name(this.tempFile.toString())
             .notify(this)
+            .publishWritten(publishWritten)
             .errorHandler((c, e) ->
                 this.future.completeExceptionally(e)
             )
@@ -296,12 +330,10 @@ public class FileCachingInputStream extends InputStream {
 
     }
     private OutputStream createTempFileOutputStream(@Nullable Integer outputBuffer) throws IOException {
-        if (outputBuffer == null) {
-            outputBuffer = DEFAULT_FILE_BUFFER_SIZE;
-        }
-
-
-        final OutputStream tempFileOutputStream = new BufferedOutputStream(Files.newOutputStream(tempFile), outputBuffer);
+        // without explicit buffer, the copier can write via the channel of the file output stream directly
+        final OutputStream tempFileOutputStream = outputBuffer == null ?
+            new FileOutputStream(tempFile.toFile()) :
+            new BufferedOutputStream(Files.newOutputStream(tempFile), outputBuffer);
         incStreams(tempFileOutputStream);
         if (buffer != null) {
             // write the initial buffer to the temp file too, so that this file accurately describes the entire stream
@@ -357,9 +389,11 @@ public class FileCachingInputStream extends InputStream {
 
     @Override
     public int read() throws IOException {
-        if (tempFileInputStream == null) {
+        if (toFileCopier == null) {
             // the stream was small, we are reading from the memory buffer
             return readFromBuffer();
+        } else if (tempFileChannel != null) {
+            return readFromChannel();
         } else {
             return readFromFile();
         }
@@ -368,10 +402,14 @@ public class FileCachingInputStream extends InputStream {
 
     @Override
     public int read(byte @NonNull[] b, int off, int len) throws IOException {
-        if (tempFileInputStream == null) {
+        if (toFileCopier == null) {
             int result =  readFromBuffer(b, off, len);
             log.debug("From buffer {}", result);
             return result;
+        } else if (tempFileChannel != null) {
+            int result = readFromChannel(b, off, len);
+            log.trace("From channel {}", result);
+            return result;
         } else {
             int result = readFromFile(b, off, len);
             log.trace("From file {}", result);
@@ -381,8 +419,8 @@ public class FileCachingInputStream extends InputStream {
 
 
     protected synchronized void closeTempFile() throws IOException {
-        if (this.tempFileInputStream != null && ! tempFileInputStreamClosed) {
-            closeAndDecStreams("file input", this.tempFileInputStream);
+        if (this.toFileCopier != null && ! tempFileInputStreamClosed) {
+            closeAndDecStreams("file input", this.tempFileInputStream != null ? this.tempFileInputStream : this.tempFileChannel);
             if (tempFile != null && this.deleteTempFile) {
                 deleteTempFile();
             }
@@ -415,31 +453,10 @@ public class FileCachingInputStream extends InputStream {
                     log.debug("Closed by other thread in the mean time");
                     return;
                 }
-                closeTempFile();
-
                 closed = true;
                 notifyAll();
             }
-
-            if (toFileCopier != null) {
-                // if somewhy closed when copier is not ready yet, it can be interrupted, because we will not be using it any more.
-                log.debug("Closing copier");
-                try {
-                    toFileCopier.waitForAndClose();
-                } catch (InterruptedException interruptedException) {
-                    throw new InterruptedIOException(interruptedException.getMessage());
-                }
-            } else {
-                log.debug("No copier to close");
-            }
-            if (this.tempFile != null && this.deleteTempFile) {
-                try {
-                    log.debug("Deleting {}", tempFile);
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException ioException) {
-                    log.debug(ioException.getClass().getName() + ": " + ioException.getMessage());
-                }
-            }
+            release();
         } else {
             log.debug("Closed already", new Exception());
         }
@@ -447,6 +464,54 @@ public class FileCachingInputStream extends InputStream {
          log.debug("closed");
     }
 
+    /**
+     * Opens an additional, independent, {@link InputStream} on the same data. It has its own position, starting at the beginning of the stream, and follows the copier just like this stream does.
+     * <p>
+     * This is only possible if the stream fitted in memory, or if it is {@code eventDriven}. The reader reads via the shared {@link FileChannel}, so it is recommended to wrap it in a {@link BufferedInputStream} if it is read per byte.
+     * @throws IllegalStateException if not event driven, or if this stream and all other readers are closed already.
+     * @since 6.0
+     */
+    public InputStream newReader() {
+        if (toFileCopier != null && tempFileChannel == null) {
+            throw new IllegalStateException("Additional readers are only supported if event driven");
+        }
+        if (readers.getAndUpdate(i -> i == 0 ? 0 : i + 1) == 0) {
+            throw new IllegalStateException(this + " is closed already");
+        }
+        return new Reader();
+    }
+
+    /**
+     * Called when this stream, or one of its {@link #newReader() readers} is closed. The last one closes the temp file and the copier.
+     */
+    private void release() throws IOException {
+        final int remaining = readers.decrementAndGet();
+        if (remaining > 0) {
+            log.debug("{} readers remaining", remaining);
+            return;
+        }
+        closeTempFile();
+        if (toFileCopier != null) {
+            // if somewhy closed when copier is not ready yet, it can be interrupted, because we will not be using it any more.
+            log.debug("Closing copier");
+            try {
+                toFileCopier.waitForAndClose();
+            } catch (InterruptedException interruptedException) {
+                throw new InterruptedIOException(interruptedException.getMessage());
+            }
+        } else {
+            log.debug("No copier to close");
+        }
+        if (this.tempFile != null && this.deleteTempFile) {
+            try {
+                log.debug("Deleting {}", tempFile);
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ioException) {
+                log.debug(ioException.getClass().getName() + ": " + ioException.getMessage());
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return super.toString() + " for " + tempFile;
@@ -609,6 +674,93 @@ public class FileCachingInputStream extends InputStream {
         return result;
     }
 
+    /**
+     * One of the paths of {@link #read()}, when it is reading from the {@link #tempFileChannel}. Bytes are read ahead into a buffer, so that not every byte needs a call to the channel.
+     */
+    private int readFromChannel() throws IOException {
+        if (!readAhead.hasRemaining()) {
+            // nothing is read ahead, so the position in the file is just the count
+            int read = readTempFile(count.get(), readAhead.array(), 0, readAhead.capacity());
+            if (read == EOF) {
+                return EOF;
+            }
+            readAhead.position(0).limit(read);
+        }
+        count.incrementAndGet();
+        return Byte.toUnsignedInt(readAhead.get());
+    }
+
+    /**
+     * One of the paths of {@link #read(byte[], int, int)}, when it is reading from the {@link #tempFileChannel}.
+     */
+    private int readFromChannel(byte[] b, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        final int result;
+        if (readAhead.hasRemaining()) {
+            result = Math.min(length, readAhead.remaining());
+            readAhead.get(b, offset, result);
+        } else {
+            result = readTempFile(count.get(), b, offset, length);
+            if (result == EOF) {
+                return EOF;
+            }
+        }
+        count.addAndGet(result);
+        return result;
+    }
+
+    private int readTempFile(long position, byte[] b, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        try {
+            return readFromChannel(position, b, offset, length);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted, message: {}", e.getMessage());
+            if (readers.get() <= 1) {
+                // nobody else is reading, so the download can be abandoned
+                toFileCopier.close();
+                future.completeExceptionally(e);
+            }
+            // otherwise, like a reader, only this stream stops, and the last reader closes the copier
+            close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads at most {@code length} bytes from the temp file, starting at {@code position}. Only bytes that the copier reported as {@link Copier#getWritten() written} are read, and if there are none, this waits until the copier wrote some more.
+     * @return The number of bytes read, or {@link #EOF} if the copier is ready and all bytes were read already
+     */
+    private int readFromChannel(long position, byte[] b, int offset, int length) throws IOException, InterruptedException {
+        toFileCopier.executeIfNotRunning();
+        long available = toFileCopier.getWritten() - position;
+        while (available <= 0) {
+            if (toFileCopier.isReadyIOException()) {
+                available = toFileCopier.getWritten() - position;
+                if (available <= 0) {
+                    log.debug("Copier is ready ({} bytes), no new results", toFileCopier.getCount());
+                    return EOF;
+                }
+                break;
+            }
+            available = toFileCopier.waitForWritten(position + 1) - position;
+        }
+        final ByteBuffer target = ByteBuffer.wrap(b, offset, (int) Math.min(length, available));
+        while (target.hasRemaining()) {
+            if (tempFileChannel.read(target, position + target.position() - offset) == EOF) {
+                // cannot happen, the bytes were flushed
+                log.warn("Unexpected EOF at {} of {}", position + target.position() - offset, tempFile);
+                break;
+            }
+        }
+        final int result = target.position() - offset;
+        return result == 0 ? EOF : result;
+    }
+
     public static Consumer<FileCachingInputStream> throttle(Duration d) {
         return (fc) -> {
             try {
@@ -634,6 +786,86 @@ public class FileCachingInputStream extends InputStream {
     }
 
 
+    /**
+     * An additional reader, see {@link #newReader()}.
+     */
+    protected class Reader extends InputStream {
+        private final byte[] single = new byte[1];
+        private long position = 0;
+        private volatile boolean readerClosed = false;
+
+        @Override
+        public int read() throws IOException {
+            int result = read(single, 0, 1);
+            return result == EOF ? EOF : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte @NonNull [] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (readerClosed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final int result;
+            if (toFileCopier == null) {
+                result = (int) Math.min(len, buffer.length - position);
+                if (result <= 0) {
+                    return EOF;
+                }
+                System.arraycopy(buffer, (int) position, b, off, result);
+            } else {
+                try {
+                    result = readFromChannel(position, b, off, len);
+                } catch (InterruptedException e) {
+                    log.warn("Interrupted, message: {}", e.getMessage());
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                }
+                if (result == EOF) {
+                    return EOF;
+                }
+            }
+            position += result;
+            return result;
+        }
+
+        @Override
+        public int available() {
+            if (readerClosed) {
+                return 0;
+            }
+            final long end = toFileCopier == null ? buffer.length : toFileCopier.getWritten();
+            return (int) Math.max(0, Math.min(Integer.MAX_VALUE, end - position));
+        }
+
+        /**
+         * The number of bytes read by this reader
+         */
+        public long getCount() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (this) {
+                if (readerClosed) {
+                    return;
+                }
+                readerClosed = true;
+            }
+            release();
+        }
+
+        @Override
+        public String toString() {
+            return "reader of " + FileCachingInputStream.this + " (" + position + " bytes read)";
+        }
+    }
+
     @Slf4j
     public static class Builder {
 
@@ -1,10 +1,10 @@
 package nl.vpro.util;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import com.google.common.collect.Iterators;
-import com.google.common.collect.PeekingIterator;
 
 /**
  * @author Michiel Meeuwissen
@@ -76,56 +76,170 @@ public class MergedSortedIterator<T>  extends BasicWrappedIterator<T> implements
         return size;
     }
 
-    @SuppressWarnings({"OptionalAssignedToNull", "OptionalUsedAsFieldOrParameterType"})
+    /**
+     * A {@link Spliterator} merging the given sorted iterators. Sequentially this is traversed in sorted order, just like {@link #mergeInSameThread(Comparator, Iterable)}.
+     * <p>
+     * {@link Spliterator#trySplit()} splits the set of iterators in two halves (as long as nothing was consumed yet), so that in a {@link java.util.stream.Stream#parallel() parallel} stream the iterators are read in parallel. The order of the splits together is then of course not sorted any more, so this is only useful for unordered operations. Also, then the iterators are not consumed in the same thread any more.
+     * @since 6.0
+     */
+    public static <T> Spliterator<T> spliterator(Comparator<? super T> comparator, Iterable<CountedIterator<T>> iterators) {
+        final List<CountedIterator<T>> list = new ArrayList<>();
+        iterators.forEach(list::add);
+        return new MergingSpliterator<>(comparator, list);
+    }
+
+    /**
+     * Merges the iterators with a binary heap of the iterators, ordered by their current element. Taking an element costs {@code O(log k)} comparisons, and no allocations.
+     * <p>
+     * Iterators are only advanced when an element of them is needed, and always in the calling thread. On equal elements the one of the last iterator is returned first.
+     */
     protected static class SameThreadMergingIterator<S> implements Iterator<S> {
-        final List<PeekingIterator<S>> iterators;
+        final List<Iterator<S>> iterators;
         final Comparator<? super S> comparator;
-        Optional<S> next = null;
-        boolean needsFindNext = true;
 
+        /**
+         * The current element of every iterator
+         */
+        private final Object[] heads;
+        /**
+         * Indices of the iterators that have a current element, as a binary heap
+         */
+        private final int[] heap;
+        private int heapSize = -1;
+        /**
+         * The iterator of which the last returned element was taken, and which still needs to be advanced
+         */
+        private int advance = -1;
 
         SameThreadMergingIterator(Comparator<? super S> comparator, Iterable<? extends Iterator<S>> iterators) {
             this.comparator = comparator;
             this.iterators = new ArrayList<>();
             for (Iterator<S> i : iterators) {
-                this.iterators.add(Iterators.peekingIterator(i));
+                this.iterators.add(i);
             }
+            this.heads = new Object[this.iterators.size()];
+            this.heap = new int[this.iterators.size()];
         }
 
         @Override
         public boolean hasNext() {
             findNext();
-            return next != null;
+            return heapSize > 0;
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public S next() {
             findNext();
-            if (next == null){
+            if (heapSize == 0) {
                 throw new NoSuchElementException();
             }
-            needsFindNext = true;
-            return next.orElse(null);
+            advance = heap[0];
+            return (S) heads[advance];
         }
+
         protected void findNext() {
-            if (needsFindNext) {
-                Optional<S> candidate = null;
-                PeekingIterator<S> usedIterator = null;
-                for (PeekingIterator<S> i : iterators) {
-                    if (i.hasNext()) {
-                        if (candidate == null || comparator.compare(candidate.orElse(null), i.peek()) >= 0) {
-                            candidate = Optional.ofNullable(i.peek());
-                            usedIterator = i;
-                        }
+            if (heapSize == -1) {
+                heapSize = 0;
+                for (int i = 0; i < heads.length; i++) {
+                    final Iterator<S> iterator = iterators.get(i);
+                    if (iterator.hasNext()) {
+                        heads[i] = iterator.next();
+                        heap[heapSize++] = i;
                     }
                 }
-                next = candidate;
-                if (usedIterator != null) {
-                    usedIterator.next();
+                for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                    siftDown(i);
+                }
+            } else if (advance != -1) {
+                final Iterator<S> iterator = iterators.get(advance);
+                if (iterator.hasNext()) {
+                    heads[advance] = iterator.next();
+                } else {
+                    heads[advance] = null;
+                    heap[0] = heap[--heapSize];
+                }
+                advance = -1;
+                if (heapSize > 0) {
+                    siftDown(0);
                 }
-                needsFindNext = false;
             }
         }
+
+        private void siftDown(int position) {
+            final int source = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (! before(heap[child], source)) {
+                    break;
+                }
+                heap[position] = heap[child];
+                position = child;
+            }
+            heap[position] = source;
+        }
+
+        /**
+         * Whether the current element of iterator {@code a} must be returned before the one of iterator {@code b}
+         */
+        @SuppressWarnings("unchecked")
+        private boolean before(int a, int b) {
+            final int compare = comparator.compare((S) heads[a], (S) heads[b]);
+            return compare == 0 ? a > b : compare < 0;
+        }
     }
 
+    /**
+     * See {@link #spliterator(Comparator, Iterable)}
+     */
+    protected static class MergingSpliterator<S> implements Spliterator<S> {
+        private final Comparator<? super S> comparator;
+        private List<CountedIterator<S>> iterators;
+        private SameThreadMergingIterator<S> merged;
+
+        MergingSpliterator(Comparator<? super S> comparator, List<CountedIterator<S>> iterators) {
+            this.comparator = comparator;
+            this.iterators = iterators;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super S> action) {
+            if (merged == null) {
+                merged = new SameThreadMergingIterator<>(comparator, iterators);
+            }
+            if (merged.hasNext()) {
+                action.accept(merged.next());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<S> trySplit() {
+            if (merged != null || iterators.size() < 2) {
+                return null;
+            }
+            final int half = iterators.size() / 2;
+            final Spliterator<S> prefix = new MergingSpliterator<>(comparator, iterators.subList(0, half));
+            iterators = iterators.subList(half, iterators.size());
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            final Long size = merged == null ? getSize(iterators) : null;
+            return size == null ? Long.MAX_VALUE : size;
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+    }
 }
@@ -3,10 +3,13 @@ package nl.vpro.util;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.*;
 import java.lang.reflect.*;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.LocaleUtils;
@@ -43,6 +46,18 @@ public class ReflectionUtils {
      */
     public static final Function<String, String> IDENTITY = k -> k;
 
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    /**
+     * How to set and get properties on instances of a certain class, resolved once per class.
+     */
+    private static final ClassValue<Plan> PLANS = new ClassValue<>() {
+        @Override
+        protected Plan computeValue(Class<?> type) {
+            return new Plan(type);
+        }
+    };
+
     public static String defaultSetter(String k) {
         return "set" + Character.toUpperCase(k.charAt(0)) + k.substring(1);
     }
@@ -304,63 +319,57 @@ public class ReflectionUtils {
         @Nullable Object value, boolean onlyIfNull) {
         String v = value == null ? null : String.valueOf(value);
 
-        Method[] methods = instance.getClass().getMethods();
+        final Plan plan = PLANS.get(instance.getClass());
         Type parameterClass = null;
         if (onlyIfNull) {
-            for (Method m : methods) {
-                if (getterNames.contains(m.getName()) && m.getParameterCount() == 0) {
+            for (Accessor getter : plan.candidates(plan.getters, getterNames)) {
+                try {
+                    Object existingValue = getter.get(instance);
+                    if (existingValue != null) {
+                        return new Result(fieldName, IGNORED);
+                    }
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+            if (fieldName != null) {
+                FieldAccessor f = plan.field(fieldName);
+                if (f != null) {
                     try {
-                        Object existingValue = m.invoke(instance);
+                        Object existingValue = f.field.get(instance);
                         if (existingValue != null) {
                             return new Result(fieldName, IGNORED);
                         }
-                    } catch (IllegalAccessException | InvocationTargetException e) {
+                    } catch (IllegalAccessException e) {
                         log.error(e.getMessage(), e);
                     }
                 }
             }
-            if (fieldName != null) {
-                try {
-                    Field f = getField(instance.getClass(), fieldName);
-                    f.setAccessible(true);
-                    Object existingValue = f.get(instance);
-                    if (existingValue != null) {
-                        return new Result(fieldName, IGNORED);
-                    }
-                } catch (NoSuchFieldException e) {
-                    log.debug(e.getMessage());
-                } catch (IllegalAccessException e) {
-                    log.error(e.getMessage(), e);
-                }
+        }
+        for (Accessor setter : plan.candidates(plan.setters, setterNames)) {
+            try {
+                parameterClass = setter.parameterType;
+                Object convertedValue = setter.converter().apply(v);
+                setter.set(instance, convertedValue);
+                log.debug("Set {} to {}", setter.method.getName(), v);
+                return new Result(fieldName, SET);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                log.error(e.getMessage(), e);
             }
         }
-        for (Method m : methods) {
-            if (setterNames.contains(m.getName()) && m.getParameterCount() == 1) {
+        if (fieldName != null) {
+            FieldAccessor f = plan.field(fieldName);
+            if (f != null) {
                 try {
-                    parameterClass = m.getParameters()[0].getParameterizedType();
-                    Object convertedValue = convert(v, parameterClass);
-                    m.invoke(instance, convertedValue);
-                    log.debug("Set {} to {}", m.getName(), v);
+                    parameterClass = f.field.getType();
+                    f.field.set(instance, f.converter.apply(v));
+                    log.debug("Set field {} to {}", f.field.getName(), v);
                     return new Result(fieldName, SET);
-                } catch (IllegalAccessException | InvocationTargetException e) {
+                } catch (IllegalAccessException e) {
                     log.error(e.getMessage(), e);
                 }
             }
         }
-        if (fieldName != null) {
-            try {
-                Field f = getField(instance.getClass(), fieldName);
-                parameterClass = f.getType();
-                f.setAccessible(true);
-                f.set(instance, convert(v, f.getGenericType()));
-                log.debug("Set field {} to {}", f.getName(), v);
-                return  new Result(fieldName, SET);
-            } catch (NoSuchFieldException e) {
-                log.debug(e.getMessage());
-            } catch (IllegalAccessException e) {
-                log.error(e.getMessage(), e);
-            }
-        }
         if (parameterClass != null) {
             log.warn("Unrecognized parameter type " + parameterClass);
         }
@@ -376,57 +385,90 @@ public class ReflectionUtils {
         return convert(o, parameter.getParameterizedType());
     }
 
-    @SuppressWarnings({"unchecked", "ConstantConditions"})
-    private static <T> Object convert(String o, Type parameterType) {
-        Class<?> parameterClass;
-        if (parameterType instanceof Class) {
-            parameterClass = (Class) parameterType;
-        } else if (parameterType instanceof ParameterizedType parameterizedType) {
-            parameterClass = (Class) parameterizedType.getRawType();
-        } else if (parameterType instanceof WildcardType wildcardType) {
-            parameterClass = (Class) wildcardType.getUpperBounds()[0];
-        } else {
-            throw new UnsupportedOperationException("Cannot convert " + o + " to " + parameterType);
+    private static Object convert(String o, Type parameterType) {
+        return converter(parameterType).apply(o);
+    }
+
+    /**
+     * Dispatches on the type only once, and returns a function converting a string value to it. If the type is not supported, the function throws {@link UnsupportedOperationException}.
+     * @since 6.0
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Function<String, Object> converter(Type parameterType) {
+        final Class<?> parameterClass = rawClass(parameterType);
+        if (parameterClass == null) {
+            return o -> {
+                throw new UnsupportedOperationException("Cannot convert " + o + " to " + parameterType);
+            };
         }
         if (String.class.isAssignableFrom(parameterClass)) {
-            return o;
+            return o -> o;
         } else if (boolean.class.equals(parameterClass) || parameterClass.isAssignableFrom(Boolean.class)) {
-            return Boolean.valueOf(o);
+            return Boolean::valueOf;
         } else if (int.class.equals(parameterClass) || parameterClass.isAssignableFrom(Integer.class)) {
-            return Integer.valueOf(o);
+            return Integer::valueOf;
         } else if (long.class.equals(parameterClass) || parameterClass.isAssignableFrom(Long.class)) {
-            return Long.valueOf(o);
+            return Long::valueOf;
         } else if (float.class.equals(parameterClass) || parameterClass.isAssignableFrom(Float.class)) {
-            return Float.valueOf(o);
+            return Float::valueOf;
         } else if (double.class.equals(parameterClass) || parameterClass.isAssignableFrom(Double.class)) {
-            return Double.valueOf(o);
+            return Double::valueOf;
         } else if (Enum.class.isAssignableFrom(parameterClass)) {
-            try {
-                return Enum.valueOf((Class<? extends Enum>) parameterClass, o);
-            } catch (IllegalArgumentException iae) {
-                try {
-                    return Enum.valueOf((Class<? extends Enum>) parameterClass, o.toUpperCase());
-                } catch (IllegalArgumentException iae2) {
-                    try {
-                        Method valueOfXml = parameterClass.getDeclaredMethod("valueOfXml", String.class);
-                        valueOfXml.setAccessible(true);
-                        return valueOfXml.invoke(null, o);
-                    } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException nsme) {
-                        throw iae2;
-                    }
-                }
-            }
+            return o -> enumValue((Class<? extends Enum>) parameterClass, o);
         } else if (parameterClass.isAssignableFrom(Locale.class)) {
-            return LocaleUtils.toLocale(o);
+            return LocaleUtils::toLocale;
         } else if (parameterClass.isAssignableFrom(Duration.class)) {
-            return TimeUtils.parseDuration(o).orElse(null);
+            return o -> TimeUtils.parseDuration(o).orElse(null);
         } else if (parameterClass.isAssignableFrom(List.class)) {
-            ParameterizedType parameterizedType = (ParameterizedType) parameterType;
-            return Arrays.stream(o.split("\\s*,\\s*"))
-                .map(s -> convert(s, parameterizedType.getActualTypeArguments()[0]))
+            if (!(parameterType instanceof ParameterizedType parameterizedType)) {
+                return o -> {
+                    throw new UnsupportedOperationException("Cannot convert " + o + " to raw " + parameterType);
+                };
+            }
+            final Function<String, Object> element = converter(parameterizedType.getActualTypeArguments()[0]);
+            return o -> Arrays.stream(LIST_SEPARATOR.split(o))
+                .map(element)
                 .collect(Collectors.toList());
         } else {
-            throw new UnsupportedOperationException();
+            return o -> {
+                throw new UnsupportedOperationException();
+            };
+        }
+    }
+
+    /**
+     * The class a value of the given type would have at least, or {@code null} if that can't be determined (e.g. for generic arrays). Wildcards and type variables resolve to their (first) upper bound.
+     */
+    private static @Nullable Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        } else if (type instanceof ParameterizedType parameterizedType) {
+            return rawClass(parameterizedType.getRawType());
+        } else if (type instanceof WildcardType wildcardType) {
+            return rawClass(wildcardType.getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?> typeVariable) {
+            return rawClass(typeVariable.getBounds()[0]);
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<? extends Enum> enumClass, String o) {
+        try {
+            return Enum.valueOf(enumClass, o);
+        } catch (IllegalArgumentException iae) {
+            try {
+                return Enum.valueOf(enumClass, o.toUpperCase());
+            } catch (IllegalArgumentException iae2) {
+                try {
+                    Method valueOfXml = enumClass.getDeclaredMethod("valueOfXml", String.class);
+                    valueOfXml.setAccessible(true);
+                    return valueOfXml.invoke(null, o);
+                } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException nsme) {
+                    throw iae2;
+                }
+            }
         }
     }
 
@@ -508,6 +550,146 @@ public class ReflectionUtils {
             primitiveClasses.put(clazz.getName(), clazz);
     }
 
+    /**
+     * The public methods of a class with one or no parameters, by name, and the fields as far as they were looked up. The converters for the parameter types and the {@link MethodHandle}s are resolved on first use, so a method with an unsupported parameter type only matters if it is actually called.
+     */
+    private static final class Plan {
+        final Class<?> type;
+        final Map<String, List<Accessor>> setters = new HashMap<>();
+        final Map<String, List<Accessor>> getters = new HashMap<>();
+        final Map<String, Optional<FieldAccessor>> fields = new ConcurrentHashMap<>();
+
+        Plan(Class<?> type) {
+            this.type = type;
+            final Method[] methods = type.getMethods();
+            for (int i = 0; i < methods.length; i++) {
+                final Method m = methods[i];
+                if (m.getParameterCount() == 1) {
+                    setters.computeIfAbsent(m.getName(), k -> new ArrayList<>(1)).add(new Accessor(m, i, m.getParameters()[0].getParameterizedType()));
+                } else if (m.getParameterCount() == 0) {
+                    getters.computeIfAbsent(m.getName(), k -> new ArrayList<>(1)).add(new Accessor(m, i, null));
+                }
+            }
+        }
+
+        /**
+         * The accessors with one of the given names, in the order of {@link Class#getMethods()}, which is the order in which they are tried.
+         */
+        List<Accessor> candidates(Map<String, List<Accessor>> accessors, Collection<String> names) {
+            List<Accessor> result = List.of();
+            boolean merged = false;
+            for (String name : names) {
+                final List<Accessor> found = accessors.get(name);
+                if (found == null || found == result) {
+                    continue;
+                }
+                if (result.isEmpty()) {
+                    result = found;
+                } else {
+                    if (!merged) {
+                        result = new ArrayList<>(result);
+                        merged = true;
+                    }
+                    for (Accessor a : found) {
+                        if (!result.contains(a)) {
+                            result.add(a);
+                        }
+                    }
+                }
+            }
+            if (merged) {
+                result.sort(Comparator.comparingInt(a -> a.index));
+            }
+            return result;
+        }
+
+        @Nullable
+        FieldAccessor field(String name) {
+            return fields.computeIfAbsent(name, n -> {
+                try {
+                    final Field f = getField(type, n);
+                    f.setAccessible(true);
+                    return Optional.of(new FieldAccessor(f, converter(f.getGenericType())));
+                } catch (NoSuchFieldException e) {
+                    log.debug(e.getMessage());
+                    return Optional.empty();
+                }
+            }).orElse(null);
+        }
+    }
+
+    /**
+     * A public method, which is called via a {@link MethodHandle}
+     */
+    private static final class Accessor {
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        final Method method;
+        final int index;
+        final @Nullable Type parameterType;
+        private Function<String, Object> converter;
+        private MethodHandle handle;
+
+        Accessor(Method method, int index, @Nullable Type parameterType) {
+            this.method = method;
+            this.index = index;
+            this.parameterType = parameterType;
+        }
+
+        Function<String, Object> converter() {
+            Function<String, Object> result = converter;
+            if (result == null) {
+                result = ReflectionUtils.converter(Objects.requireNonNull(parameterType));
+                converter = result;
+            }
+            return result;
+        }
+
+        void set(Object instance, Object value) throws IllegalAccessException, InvocationTargetException {
+            final MethodHandle h = handle(SETTER_TYPE);
+            try {
+                h.invokeExact(instance, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        Object get(Object instance) throws IllegalAccessException, InvocationTargetException {
+            final MethodHandle h = handle(GETTER_TYPE);
+            try {
+                return (Object) h.invokeExact(instance);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        /**
+         * The lookup has the same access as {@link Method#invoke(Object, Object...)} called from here would have had.
+         */
+        private MethodHandle handle(MethodType type) throws IllegalAccessException {
+            MethodHandle result = handle;
+            if (result == null) {
+                result = MethodHandles.lookup()
+                    .unreflect(method)
+                    .asFixedArity();
+                if (Modifier.isStatic(method.getModifiers())) {
+                    result = MethodHandles.dropArguments(result, 0, Object.class);
+                }
+                result = result.asType(type);
+                handle = result;
+            }
+            return result;
+        }
+    }
+
+    private record FieldAccessor(Field field, Function<String, Object> converter) {
+    }
+
     @Getter
     public static class Result {
         final String property;
@@ -10,7 +10,9 @@ import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.EntityArrays;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.*;
@@ -31,6 +33,22 @@ public class TextUtil {
      */
     public static final Pattern ILLEGAL_PATTERN = Pattern.compile("<.*>|&#\\d{2,4};|&[\\w]{2,8};|\\u2028");
 
+    private static final Pattern CONTROL_CHARACTERS = Pattern.compile("\\p{Cc}+");
+    private static final Pattern SPACES = Pattern.compile(" +");
+    private static final Pattern WHITE_SPACE = Pattern.compile("[\\s\u00a0]+");
+    private static final Pattern CARRIAGE_RETURNS = Pattern.compile("\\r{3,}");
+    private static final Pattern HORIZONTAL_WHITE_SPACE = Pattern.compile("[ \\t\\x0B\\f]+");
+    private static final Pattern INVALID_XML = Pattern.compile("[\\x{0}-\\x{8}]|[\\x{B}-\\x{C}]|[\\x{E}-\\x{1F}]|[\\x{D800}-\\x{DFFF}]|[\\x{FFFE}-\\x{FFFF}]");
+    private static final Pattern NO_BREAK_SPACES = Pattern.compile("\u00a0+");
+    private static final Pattern THREE_OR_MORE_NEWLINES = Pattern.compile("\n{3,}");
+    private static final Pattern CONTROL_CHARACTERS_BUT_NEWLINES_AND_TABS = Pattern.compile("[\\p{Cntrl}&&[^\r\n\t]]");
+    private static final Pattern ESCAPED_NEWLINE = Pattern.compile("\\\\n");
+
+    /**
+     * The named entities as unescaped by {@link StringEscapeUtils#unescapeHtml4(String)}, without the leading {@code &} and trailing {@code ;}
+     */
+    private static final Map<String, String> ENTITIES = entities();
+
     private TextUtil() {
         // utility class
     }
@@ -169,8 +187,7 @@ public class TextUtil {
      * @see #ILLEGAL_PATTERN for a rough check
      */
     public static boolean isValid(@NonNull String input, boolean aggressive) {
-        Matcher matcher = ILLEGAL_PATTERN.matcher(input);
-        if(!matcher.find()) {
+        if (!containsIllegal(input)) {
             return true;
         }
         // sanitizing should do nothing (modulo white space)
@@ -196,6 +213,61 @@ public class TextUtil {
         }
     }
 
+    /**
+     * Equivalent to {@code ILLEGAL_PATTERN.matcher(input).find()}, but in one pass over the characters.
+     * @see #ILLEGAL_PATTERN
+     * @since 6.0
+     */
+    static boolean containsIllegal(@NonNull CharSequence input) {
+        final int length = input.length();
+        boolean lessThan = false;
+        for (int i = 0; i < length; i++) {
+            final char c = input.charAt(i);
+            switch (c) {
+                case '<' -> lessThan = true;
+                case '>' -> {
+                    if (lessThan) {
+                        return true;
+                    }
+                }
+                case '\n', '\r', '\u0085', '\u2029' -> lessThan = false; // '.' doesn't match line terminators
+                case '\u2028' -> {
+                    return true;
+                }
+                case '&' -> {
+                    if (i + 1 < length && input.charAt(i + 1) == '#') {
+                        int digits = 0;
+                        while (i + 2 + digits < length && digits <= 4 && isAsciiDigit(input.charAt(i + 2 + digits))) {
+                            digits++;
+                        }
+                        if (digits >= 2 && digits <= 4 && i + 2 + digits < length && input.charAt(i + 2 + digits) == ';') {
+                            return true;
+                        }
+                    } else {
+                        int word = 0;
+                        while (i + 1 + word < length && word <= 8 && isWordCharacter(input.charAt(i + 1 + word))) {
+                            word++;
+                        }
+                        if (word >= 2 && word <= 8 && i + 1 + word < length && input.charAt(i + 1 + word) == ';') {
+                            return true;
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isAsciiDigit(c) || c == '_';
+    }
+
     public static final Pattern VALID_XML = Pattern.compile("[^\\x09\\x0A\\x0D\\x20-\\xD7FF\\xE000-\\xFFFD\\x10000-x10FFFF]*");
 
     @PolyNull
@@ -204,7 +276,7 @@ public class TextUtil {
             return null;
         }
 
-        return input.replaceAll("[\\x{0}-\\x{8}]|[\\x{B}-\\x{C}]|[\\x{E}-\\x{1F}]|[\\x{D800}-\\x{DFFF}]|[\\x{FFFE}-\\x{FFFF}]", "");
+        return INVALID_XML.matcher(input).replaceAll("");
     }
 
     public static boolean isValidXmlText(String input) {
@@ -251,7 +323,7 @@ public class TextUtil {
             return null;
         }
 
-        return input.trim().replaceAll("[\\s\u00a0]+", " ");
+        return WHITE_SPACE.matcher(input.trim()).replaceAll(" ");
     }
 
     @PolyNull
@@ -259,11 +331,9 @@ public class TextUtil {
         if (input == null) {
             return null;
         }
-        return input.trim()
-            .replaceAll("\\r{3,}", "\n\n")
-            // space, line tabulation, tab, formfeed,cariage return
-            .replaceAll("[ \\t\\x0B\\f]+", " ")
-            ;
+        final String result = CARRIAGE_RETURNS.matcher(input.trim()).replaceAll("\n\n");
+        // space, line tabulation, tab, formfeed,cariage return
+        return HORIZONTAL_WHITE_SPACE.matcher(result).replaceAll(" ");
     }
 
     /**
@@ -291,7 +361,7 @@ public class TextUtil {
         if (input == null) {
             return null;
         }
-        input = input.replaceAll("\\p{Cc}+", " ");
+        input = CONTROL_CHARACTERS.matcher(input).replaceAll(" ");
 
         return replaceLineBreaks(
             replaceNonBreakingSpace(input)
@@ -353,7 +423,7 @@ public class TextUtil {
         String str = jsoupDoc.html();
         String strWithNewLines = Jsoup.clean(str, "",
             Safelist.none(), outputSettings);
-        return strWithNewLines.replaceAll(" +", " ").trim();
+        return SPACES.matcher(strWithNewLines).replaceAll(" ").trim();
     }
 
     /**
@@ -374,27 +444,51 @@ public class TextUtil {
         jsoupDoc.select("br").before("\\n");
         jsoupDoc.select("p").before("\\n\\n");
         jsoupDoc.select("li").before("\\n-");
-        String str = jsoupDoc.html().replaceAll("\\\\n", "\n");
+        String str = ESCAPED_NEWLINE.matcher(jsoupDoc.html()).replaceAll("\n");
         String strWithNewLines = Jsoup.clean(str, "", Safelist.none(), outputSettings);
-        return unescapeHtml(
+        String result = unescapeHtml(
             strWithNewLines.trim()
-        )
-            .replaceAll(" +", " ")
-            .replaceAll("\u00a0+", "\u00a0") // no break space
-            .replaceAll("\u2028", "\n") // line seperator
-            .replaceAll("\n{3,}", "\n\n")
-            .replaceAll("[\\p{Cntrl}&&[^\r\n\t]]", "") // control characters, (but not newlines and tabs)
-            ;
+        );
+        result = SPACES.matcher(result).replaceAll(" ");
+        result = NO_BREAK_SPACES.matcher(result).replaceAll("\u00a0"); // no break space
+        result = result.replace('\u2028', '\n'); // line seperator
+        result = THREE_OR_MORE_NEWLINES.matcher(result).replaceAll("\n\n");
+        return CONTROL_CHARACTERS_BUT_NEWLINES_AND_TABS.matcher(result).replaceAll(""); // control characters, (but not newlines and tabs)
     }
 
     /**
      * Aggressively removes all tags and escaped HTML characters from the given input and replaces some characters that
      * might lead to problems for end users.
+     * <p>
+     * Most texts contain no markup at all. Those are handled on character level (and returned as is, if there is nothing to do). Only if the text contains tags, or entities which jsoup interprets differently, it is parsed with jsoup.
      *
      * @return A single line of text
      */
     @PolyNull
     public static String sanitize(@PolyNull String input) {
+        if (input == null) {
+            return null;
+        }
+        String sanitized = input;
+        while (true) {
+            final String next = sanitizeCharacters(sanitized);
+            if (next == null) {
+                return sanitizeWithJsoup(input);
+            }
+            if (next.equals(sanitized)) {
+                return next;
+            }
+            // entities may have been escaped more than once
+            sanitized = next;
+        }
+    }
+
+    /**
+     * The implementation of {@link #sanitize(String)} for text containing markup.
+     * @since 6.0
+     */
+    @PolyNull
+    static String sanitizeWithJsoup(@PolyNull String input) {
         if (input == null) {
             return null;
         }
@@ -407,8 +501,168 @@ public class TextUtil {
         return sanitized;
     }
 
+    /**
+     * One pass of sanitizing on character level: entities are unescaped (once), 'odd' characters are replaced by a space, spaces are collapsed and the result is trimmed.
+     *
+     * @return The sanitized string (the input itself if nothing needed to be done), or {@code null} if the input contains something that needs {@link #sanitizeWithJsoup(String) jsoup}.
+     */
+    @Nullable
+    private static String sanitizeCharacters(@NonNull String input) {
+        final int length = input.length();
+        if (isSanitized(input)) {
+            return input;
+        }
+        final StringBuilder builder = new StringBuilder(length);
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            final CharSequence decoded;
+            if (c == '&') {
+                final int end = entityEnd(input, i);
+                if (end == -1) {
+                    return null;
+                }
+                if (end == i) {
+                    decoded = "&";
+                } else {
+                    decoded = decodeEntity(input, i, end);
+                    if (decoded == null) {
+                        return null;
+                    }
+                    i = end;
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                decoded = input.subSequence(i, i + 2);
+                i++;
+            } else {
+                decoded = null;
+            }
+            final int decodedLength = decoded == null ? 1 : decoded.length();
+            for (int j = 0; j < decodedLength; j++) {
+                final char d = decoded == null ? c : decoded.charAt(j);
+                if (d == '<' || (Character.isSurrogate(d) && decoded == null)) {
+                    // markup, or something odd that jsoup handles on its own way
+                    return null;
+                }
+                if (d == ' ' || isOdd(d)) {
+                    pendingSpace = !builder.isEmpty();
+                } else {
+                    if (pendingSpace) {
+                        builder.append(' ');
+                        pendingSpace = false;
+                    }
+                    builder.append(d);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Whether {@link #sanitize(String)} would not change the input. I.e. it contains no markup, entities, or 'odd' characters, and no superfluous spaces.
+     */
+    private static boolean isSanitized(@NonNull String input) {
+        final int length = input.length();
+        for (int i = 0; i < length; i++) {
+            final char c = input.charAt(i);
+            if (c < 0x80) {
+                // ascii fast path
+                if (c == '<' || c == '&' || c < 0x20 || c == 0x7F) {
+                    return false;
+                }
+                if (c == ' ' && (i == 0 || i == length - 1 || input.charAt(i - 1) == ' ')) {
+                    return false;
+                }
+            } else if (isOdd(c)) {
+                return false;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    i++;
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The characters that are replaced by a space in {@link #replaceOdd(String)}
+     */
+    private static boolean isOdd(char c) {
+        return Character.getType(c) == Character.CONTROL || c == '\u00a0' || c == '\u2028';
+    }
 
+    /**
+     * @param input The input
+     * @param start The index of an {@code &}
+     * @return The index of the {@code ;} ending the entity starting at {@code start}. {@code start} itself if it is no entity, and {@code -1} if it can't be decided without jsoup.
+     */
+    private static int entityEnd(String input, int start) {
+        final int length = input.length();
+        int i = start + 1;
+        if (i < length && input.charAt(i) == '#') {
+            i++;
+            final boolean hex = i < length && (input.charAt(i) == 'x' || input.charAt(i) == 'X');
+            if (hex) {
+                i++;
+            }
+            final int digitsStart = i;
+            while (i < length && (hex ? Character.digit(input.charAt(i), 16) >= 0 && input.charAt(i) < 0x80 : isAsciiDigit(input.charAt(i)))) {
+                i++;
+            }
+            if (i == digitsStart) {
+                return start;
+            }
+            return i < length && input.charAt(i) == ';' ? i : -1;
+        }
+        // jsoup: letters, then digits
+        while (i < length && Character.isLetter(input.charAt(i))) {
+            i++;
+        }
+        while (i < length && isAsciiDigit(input.charAt(i))) {
+            i++;
+        }
+        if (i == start + 1) {
+            return start;
+        }
+        final String name = input.substring(start + 1, i);
+        if (i < length && input.charAt(i) == ';') {
+            return ENTITIES.containsKey(name) || Entities.isNamedEntity(name) ? i : start;
+        }
+        // jsoup would unescape some entities even without ';'
+        return Entities.isBaseNamedEntity(name) ? -1 : start;
+    }
+
+    /**
+     * @return The value of the entity between {@code start} and {@code end} (both inclusive), or {@code null} if that is something jsoup handles in its own way.
+     */
+    @Nullable
+    private static String decodeEntity(String input, int start, int end) {
+        if (input.charAt(start + 1) == '#') {
+            final boolean hex = input.charAt(start + 2) == 'x' || input.charAt(start + 2) == 'X';
+            final String digits = input.substring(start + (hex ? 3 : 2), end);
+            if (digits.length() > 7) {
+                return null;
+            }
+            final int codePoint = Integer.parseInt(digits, hex ? 16 : 10);
+            if (codePoint == 0 || (codePoint >= 0x80 && codePoint <= 0x9F) || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                return null;
+            }
+            return new String(Character.toChars(codePoint));
+        }
+        final String name = input.substring(start + 1, end);
+        final String value = ENTITIES.get(name);
+        return value == null ? Entities.getByName(name) : value;
+    }
 
+    private static Map<String, String> entities() {
+        final Map<String, String> result = new HashMap<>();
+        for (Map<CharSequence, CharSequence> map : List.of(EntityArrays.BASIC_UNESCAPE, EntityArrays.ISO8859_1_UNESCAPE, EntityArrays.HTML40_EXTENDED_UNESCAPE)) {
+            map.forEach((entity, value) -> result.put(entity.subSequence(1, entity.length() - 1).toString(), value.toString()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
 
     @PolyNull
     private static String _sanitize(@PolyNull String input) {
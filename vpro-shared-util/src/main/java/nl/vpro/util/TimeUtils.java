@@ -8,6 +8,7 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.*;
 import java.util.Date;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,22 +33,57 @@ public class TimeUtils {
         if (StringUtils.isBlank(parse)) {
             return Optional.empty();
         }
-        try {
-            return Optional.of(ZonedDateTime.parse(parse));
-        } catch (DateTimeParseException ignored) {
+        final Shape shape = Shape.of(parse);
+        if (!shape.local) {
+            try {
+                return Optional.of(ZonedDateTime.parse(parse));
+            } catch (DateTimeParseException ignored) {
 
+            }
         }
-        Instant instant = parse(parse).orElse(null);
+        Instant instant = parse(parse, shape).orElse(null);
         if (instant == null) {
             return Optional.empty();
         }
         return Optional.of(instant.atZone(ZONE_ID));
     }
 
+    /**
+     * Parses a {@link CharSequence} to an {@link Instant}. Supported are the ISO-8601 formats for offset date times, local dates and local date times (the last two are interpreted at {@link #ZONE_ID}), zoned date times and instants. A number is interpreted as a year if it is between 1000 and 9999, and as epoch millis otherwise.
+     * <p>
+     * The common formats are recognized in one pass over the input, and then parsed by the one parser that can parse them. Only input that is not recognized is tried against all parsers (as this was done before 6.0 for all input), so only that may make parse exceptions to be thrown and caught.
+     */
     public static Optional<Instant> parse(CharSequence dateValue) {
         if (StringUtils.isBlank(dateValue)) {
             return Optional.empty();
         }
+        return parse(dateValue, Shape.of(dateValue));
+    }
+
+    private static Optional<Instant> parse(CharSequence dateValue, Shape shape) {
+        try {
+            switch (shape) {
+                case NUMBER:
+                    return Optional.of(ofNumber(Long.parseLong(dateValue.toString())));
+                case DATE:
+                    return Optional.of(LocalDate.parse(dateValue).atStartOfDay().atZone(ZONE_ID).toInstant());
+                case LOCAL_DATE_TIME:
+                    return Optional.of(LocalDateTime.parse(dateValue).atZone(ZONE_ID).toInstant());
+                case OFFSET_DATE_TIME:
+                    return Optional.of(OffsetDateTime.parse(dateValue).toInstant());
+                default:
+                    break;
+            }
+        } catch (DateTimeParseException | NumberFormatException ignored) {
+            // it only looked like it. E.g. 2000-13-01. Let tryAll report it.
+        }
+        return tryAll(dateValue);
+    }
+
+    /**
+     * Tries all supported formats in turn.
+     */
+    static Optional<Instant> tryAll(CharSequence dateValue) {
         try {
             // this is the proper XML representation to try that first
             return Optional.of(OffsetDateTime.parse(dateValue).toInstant());
@@ -78,16 +114,18 @@ public class TimeUtils {
         }
 
         try {
-            long longValue = Long.parseLong(dateValue.toString());
-            if (longValue >= 1000 && longValue <= 9999) {
-                return Optional.of(LocalDate.of((int) longValue, 1, 1).atStartOfDay().atZone(ZONE_ID).toInstant());
-            } else {
-                return Optional.of(Instant.ofEpochMilli(Long.parseLong(dateValue.toString())));
-            }
+            return Optional.of(ofNumber(Long.parseLong(dateValue.toString())));
         } catch (NumberFormatException nfe) {
             throw dtp;
         }
+    }
 
+    private static Instant ofNumber(long longValue) {
+        if (longValue >= 1000 && longValue <= 9999) {
+            return LocalDate.of((int) longValue, 1, 1).atStartOfDay().atZone(ZONE_ID).toInstant();
+        } else {
+            return Instant.ofEpochMilli(longValue);
+        }
     }
 
     /**
@@ -100,6 +138,7 @@ public class TimeUtils {
      *     <li>If the string parses as a {@link Long}, it will be interpreted as a number of milliseconds</li>
      *     <li>If the string would become a valid ISO-8601 duration by prefixing it with 'P' or 'PT', that will be done too, making those prefixes effectively optional, so that the string like '1s' will parse to one second.</li>
      * </ul>
+     * None of these steps throw exceptions for input they don't accept, only if nothing accepts it, a {@link DateTimeParseException} is thrown.
      * @see #parseDuration(CharSequence)
      */
     public static Optional<Duration> parseDuration(CharSequence d) {
@@ -124,7 +163,10 @@ public class TimeUtils {
     private static final Pattern WEEKS = Pattern.compile("^P(\\d+)W$");
     private static final Pattern COMPLETE_FORMAT = Pattern.compile("^(P(?:\\d+Y)?(?:\\d+M)?(?:\\d+D)?)(T(?:\\d+H)?(?:\\d+M)?(?:[\\d.]+S)?)$");
 
-    private static Optional<Duration> parseDuration(DateTimeParseException original, CharSequence d, @Nullable ZonedDateTime at) {
+    /**
+     * @param original Supplies the exception to report if nothing can parse the value. This is the one of parsing the original value. Only when it is actually needed the exception is created.
+     */
+    private static Optional<Duration> parseDuration(@Nullable Supplier<DateTimeParseException> original, CharSequence d, @Nullable ZonedDateTime at) {
         if (StringUtils.isBlank(d)) {
             return Optional.empty();
         }
@@ -133,48 +175,57 @@ public class TimeUtils {
             return Optional.empty();
         }
 
-        try {
-            return Optional.of(Duration.parse(d));
-        } catch (DateTimeParseException dtp) {
-            if (original != null) {
-                dtp = original;
-            }
-            // For some reason Duration.parse does not support ISO_8601's PnW format (https://en.wikipedia.org/wiki/ISO_8601#Durations)
-            Matcher matcher = WEEKS.matcher(d);
-            if (matcher.matches()) {
-                return Optional.of(Duration.ofDays(7L * Integer.parseInt(matcher.group(1))));
+        Supplier<DateTimeParseException> dtp = original;
+        if (isDuration(d)) {
+            try {
+                return Optional.of(Duration.parse(d));
+            } catch (DateTimeParseException e) {
+                // overflow
+                if (dtp == null) {
+                    dtp = () -> e;
+                }
             }
+        }
+        if (dtp == null) {
+            dtp = cannotBeParsed(d, "Duration");
+        }
+        // For some reason Duration.parse does not support ISO_8601's PnW format (https://en.wikipedia.org/wiki/ISO_8601#Durations)
+        Matcher matcher = WEEKS.matcher(d);
+        if (matcher.matches()) {
+            return Optional.of(Duration.ofDays(7L * Integer.parseInt(matcher.group(1))));
+        }
 
-            String ds = d.toString().replaceAll("\\s*", "");
-            if (ds.length() < d.length()) {
-                return parseDuration(dtp, ds, at);
-            }
+        String ds = removeWhitespace(d);
+        if (ds.length() < d.length()) {
+            return parseDuration(dtp, ds, at);
+        }
 
+        if (isLong(ds)) {
             try {
                 return Optional.of(Duration.ofMillis(Long.parseLong(ds)));
             } catch (NumberFormatException nfe) {
-                // ignore
+                // too big
             }
-            if (!ds.startsWith("P")) {
-                return parseDuration(dtp, "P" + ds, at);
-            } else {
-                Matcher completeMatcher = COMPLETE_FORMAT.matcher(ds);
-                if (completeMatcher.matches()) {
-                    Period p = Period.parse(completeMatcher.group(1));
-                    Duration time = Duration.parse("P" + completeMatcher.group(2));
-                    if (at == null) {
-                        log.debug("Implicitly using {} for duration evaluation", LOCAL_EPOCH);
-                        at = LOCAL_EPOCH;
-                    }
-                    return Optional.of(Duration.between(at, at.plus(p).plus(time)));
-                } else if (!ds.startsWith("PT")){
-                    // so it did start with P, just not with PT, and it couldn't be parsed
-                    return parseDuration(dtp, "PT" + ds.substring(1), at);
+        }
+        if (!ds.startsWith("P")) {
+            return parseDuration(dtp, "P" + ds, at);
+        } else {
+            Matcher completeMatcher = COMPLETE_FORMAT.matcher(ds);
+            if (completeMatcher.matches()) {
+                Period p = Period.parse(completeMatcher.group(1));
+                Duration time = Duration.parse("P" + completeMatcher.group(2));
+                if (at == null) {
+                    log.debug("Implicitly using {} for duration evaluation", LOCAL_EPOCH);
+                    at = LOCAL_EPOCH;
                 }
+                return Optional.of(Duration.between(at, at.plus(p).plus(time)));
+            } else if (!ds.startsWith("PT")){
+                // so it did start with P, just not with PT, and it couldn't be parsed
+                return parseDuration(dtp, "PT" + ds.substring(1), at);
             }
-
-            throw new DateTimeParseException(dtp.getParsedString() + ":" + dtp.getMessage(), dtp.getParsedString(), dtp.getErrorIndex());
         }
+        final DateTimeParseException exception = dtp.get();
+        throw new DateTimeParseException(exception.getParsedString() + ":" + exception.getMessage(), exception.getParsedString(), exception.getErrorIndex());
     }
 
 
@@ -186,12 +237,149 @@ public class TimeUtils {
         if (d == null) {
             return Optional.empty();
         }
-        try {
-            return Optional.of(Period.parse(d));
-        } catch (DateTimeParseException dte) {
-            return parseDuration(dte, d, Instant.EPOCH.atZone(ZONE_ID));
+        if (isPeriod(d)) {
+            try {
+                return Optional.of(Period.parse(d));
+            } catch (DateTimeParseException dte) {
+                return parseDuration(() -> dte, d, Instant.EPOCH.atZone(ZONE_ID));
+            }
         }
+        return parseDuration(cannotBeParsed(d, "Period"), d, Instant.EPOCH.atZone(ZONE_ID));
+    }
 
+    /**
+     * Whether the text has the format {@link Duration#parse(CharSequence)} accepts, so that it only can fail on too big numbers. Like {@code PnDTnHnMn.nS}, where all amounts are optional, but at least one must be present.
+     */
+    private static boolean isDuration(CharSequence text) {
+        int i = afterP(text);
+        if (i < 0) {
+            return false;
+        }
+        final int days = afterAmount(text, i, 'D', false);
+        if (days >= 0) {
+            i = days;
+        }
+        if (i == text.length()) {
+            return days >= 0;
+        }
+        if (!is(text, i, 'T')) {
+            return false;
+        }
+        i++;
+        boolean time = false;
+        for (char unit : new char[] {'H', 'M', 'S'}) {
+            final int next = afterAmount(text, i, unit, unit == 'S');
+            if (next >= 0) {
+                i = next;
+                time = true;
+            }
+        }
+        if (!time) {
+            // Duration.parse only rejects a 'T' without time amounts if it is upper case
+            return days >= 0 && i == text.length() && text.charAt(i - 1) == 't';
+        }
+        return i == text.length();
+    }
+
+    /**
+     * Whether the text has the format {@link Period#parse(CharSequence)} accepts, so that it only can fail on too big numbers. Like {@code PnYnMnWnD}, where all amounts are optional, but at least one must be present.
+     */
+    private static boolean isPeriod(CharSequence text) {
+        int i = afterP(text);
+        if (i < 0) {
+            return false;
+        }
+        boolean amount = false;
+        for (char unit : new char[] {'Y', 'M', 'W', 'D'}) {
+            final int next = afterAmount(text, i, unit, false);
+            if (next >= 0) {
+                i = next;
+                amount = true;
+            }
+        }
+        return amount && i == text.length();
+    }
+
+    /**
+     * The index after the optional sign and the {@code P} that a duration or period starts with, or {@code -1}
+     */
+    private static int afterP(CharSequence text) {
+        final int i = text.length() > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        return is(text, i, 'P') ? i + 1 : -1;
+    }
+
+    /**
+     * The index after an amount like {@code -5M} at {@code i}, or {@code -1} if there is no such amount.
+     * @param fraction Whether the amount may have a fraction of at most 9 digits (for seconds)
+     */
+    private static int afterAmount(CharSequence text, int i, char unit, boolean fraction) {
+        final int length = text.length();
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        final int digits = i;
+        while (i < length && Shape.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == digits) {
+            return -1;
+        }
+        if (fraction && i < length && (text.charAt(i) == '.' || text.charAt(i) == ',')) {
+            i++;
+            final int fractionDigits = i;
+            while (i < length && i - fractionDigits < 9 && Shape.isDigit(text.charAt(i))) {
+                i++;
+            }
+        }
+        return is(text, i, unit) ? i + 1 : -1;
+    }
+
+    /**
+     * Whether the character at {@code i} is the given upper case ascii letter, or its lower case variant.
+     */
+    private static boolean is(CharSequence text, int i, char upperCase) {
+        return i < text.length() && (text.charAt(i) | 0x20) == (upperCase | 0x20);
+    }
+
+    /**
+     * The exception {@link Duration#parse(CharSequence)} or {@link Period#parse(CharSequence)} would have thrown
+     */
+    private static Supplier<DateTimeParseException> cannotBeParsed(CharSequence text, String type) {
+        return () -> new DateTimeParseException("Text cannot be parsed to a " + type, text, 0);
+    }
+
+    /**
+     * Removes the characters matched by {@code \s} (not all {@link Character#isWhitespace(char) whitespace}), like {@code replaceAll("\\s*", "")} would.
+     */
+    private static String removeWhitespace(CharSequence d) {
+        StringBuilder result = null;
+        for (int i = 0; i < d.length(); i++) {
+            final char c = d.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (result == null) {
+                    result = new StringBuilder(d.length()).append(d, 0, i);
+                }
+            } else if (result != null) {
+                result.append(c);
+            }
+        }
+        return result == null ? d.toString() : result.toString();
+    }
+
+    /**
+     * Whether {@link Long#parseLong(String)} will accept the string, (at least as long as it is not too big).
+     */
+    private static boolean isLong(CharSequence s) {
+        final int start = s.length() > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+        if (start == s.length()) {
+            return false;
+        }
+        for (int i = start; i < s.length(); i++) {
+            if (Character.digit(s.charAt(i), 10) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static String toParsableString(Duration duration) {
@@ -210,6 +398,13 @@ public class TimeUtils {
         }
 
 
+        if (Shape.of(d) == Shape.DATE) {
+            try {
+                return Optional.of(LocalDate.parse(d).atStartOfDay());
+            } catch (DateTimeParseException ignored) {
+                // reported below
+            }
+        }
         try {
             return Optional.of(LocalDateTime.parse(d));
         } catch (DateTimeParseException dtp) {
@@ -234,6 +429,13 @@ public class TimeUtils {
         }
 
 
+        if (Shape.of(d) == Shape.LOCAL_DATE_TIME) {
+            try {
+                return Optional.of(LocalDateTime.parse(d).toLocalDate());
+            } catch (DateTimeParseException ignored) {
+                // reported below
+            }
+        }
         try {
             return Optional.of(LocalDate.parse(d));
         } catch (DateTimeParseException dtp) {
@@ -335,4 +537,98 @@ public class TimeUtils {
             return LocalTime.parse(t, LOCAL_TIME_PATTERN);
         }
     }
+
+    /**
+     * The shape of a date/time value, as recognized by one pass over the characters, which determines the one parser that can parse it.
+     */
+    enum Shape {
+        /**
+         * An optionally signed number, i.e. a year or epoch millis
+         */
+        NUMBER(true),
+        /**
+         * {@code yyyy-MM-dd}
+         */
+        DATE(true),
+        /**
+         * {@code yyyy-MM-ddTHH:mm[:ss[.SSS]]}
+         */
+        LOCAL_DATE_TIME(true),
+        /**
+         * A local date time followed by {@code Z} or an offset like {@code +02:00}
+         */
+        OFFSET_DATE_TIME(false),
+        /**
+         * Anything else, like zoned date times with a region, or invalid input
+         */
+        OTHER(false);
+
+        /**
+         * Whether the value has no zone, so certainly is not parsable by {@link ZonedDateTime#parse(CharSequence)}
+         */
+        final boolean local;
+
+        Shape(boolean local) {
+            this.local = local;
+        }
+
+        static Shape of(CharSequence s) {
+            final int length = s.length();
+            int i = length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+            if (i < length && digits(s, i, length)) {
+                return NUMBER;
+            }
+            if (length < 10 || !digits(s, 0, 4) || s.charAt(4) != '-' || !digits(s, 5, 7) || s.charAt(7) != '-' || !digits(s, 8, 10)) {
+                return OTHER;
+            }
+            if (length == 10) {
+                return DATE;
+            }
+            // HH:mm
+            if (length < 16 || s.charAt(10) != 'T' || !digits(s, 11, 13) || s.charAt(13) != ':' || !digits(s, 14, 16)) {
+                return OTHER;
+            }
+            i = 16;
+            // :ss
+            if (i + 3 <= length && s.charAt(i) == ':' && digits(s, i + 1, i + 3)) {
+                i += 3;
+                // .SSS
+                if (i < length && s.charAt(i) == '.') {
+                    i++;
+                    while (i < length && isDigit(s.charAt(i))) {
+                        i++;
+                    }
+                }
+            }
+            if (i == length) {
+                return LOCAL_DATE_TIME;
+            }
+            final char offset = s.charAt(i);
+            if (offset == 'Z' && i + 1 == length) {
+                return OFFSET_DATE_TIME;
+            }
+            if ((offset == '+' || offset == '-') && i + 1 < length) {
+                for (int j = i + 1; j < length; j++) {
+                    if (!isDigit(s.charAt(j)) && s.charAt(j) != ':') {
+                        return OTHER;
+                    }
+                }
+                return OFFSET_DATE_TIME;
+            }
+            return OTHER;
+        }
+
+        private static boolean digits(CharSequence s, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!isDigit(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
 }
@@ -9,6 +9,7 @@ import java.time.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.*;
 import java.util.stream.Collectors;
@@ -72,9 +73,30 @@ public class ObjectLocker {
     static final Map<Serializable, LockHolder<Serializable>> LOCKED_OBJECTS    = new ConcurrentHashMap<>();
 
     public static final BiPredicate<Serializable, Serializable> CLASS_EQUALS = (o1, o2) -> Objects.equals(o1.getClass(), o2.getClass());
+
+    /**
+     * The order in which {@link #withKeysLock(Collection, String, Callable)} acquires keys. First on class name, then on natural order (if the keys are {@link Comparable}), then on hash code and
+     * finally on {@link Object#toString()}. Different keys which are equal in all these respects can't be ordered the same way in every thread, so for those an {@link IllegalArgumentException} is thrown.
+     * @since 6.0
+     */
+    public static final Comparator<Serializable> KEY_ORDER = Comparator
+        .<Serializable, String>comparing(k -> k.getClass().getName())
+        .thenComparing(ObjectLocker::compareNaturally)
+        .thenComparingInt(Object::hashCode)
+        .thenComparing(Object::toString)
+        .thenComparing(ObjectLocker::requireEqual);
+
     static boolean strictlyOne;
     static boolean monitor;
 
+    /**
+     * If set, lock holders are registered and unregistered per key using {@link ConcurrentMap#compute(Object, BiFunction)}, in stead of in a section synchronized on the complete map of locks. This means that locking on unrelated keys doesn't contend any more.
+     * <p>
+     * This only has effect if the used map is a {@link ConcurrentMap}, which e.g. {@link #LOCKED_OBJECTS} is. It can be changed at runtime: it only determines the mode of newly created {@link LockHolder}s, and threads locking on an existing holder follow the mode of that holder (see {@link LockHolder#isConcurrent()}).
+     * @since 6.0
+     */
+    static volatile boolean concurrentRegistry;
+
     static ThreadLocal<Duration> threadLocalMonitorTime = ThreadLocal.withInitial(() -> null);
 
     static Duration maxLockAcquireTime = Duration.ofMinutes(10);
@@ -129,10 +151,211 @@ public class ObjectLocker {
     }
 
 
+    /**
+     * The holders of {@link #withKeysLock(Collection, String, Callable)} that are currently locked. Their key is the (sorted) list of keys.
+     * @since 6.0
+     */
+    static final Map<Serializable, LockHolder<Serializable>> MULTI_KEY_LOCKED_OBJECTS = new ConcurrentHashMap<>();
+
     public static Map<Serializable, LockHolder<? extends Serializable>> getLockedObjects() {
         return Collections.unmodifiableMap(LOCKED_OBJECTS);
     }
 
+    /**
+     * Like {@link #withKeyLock(Serializable, String, Callable)}, but without blocking the calling thread. Acquirers for the same key are queued, and the lock is granted to them in FIFO
+     * order when the previous {@link CompletionStage} completes.
+     * <p>
+     * The lock is not bound to a thread, so it is not reentrant. It uses the same {@link LockHolder} as {@link #withKeyLock(Serializable, String, Callable)}, so it is exclusive with respect to those too: it is not granted while a thread holds the lock,
+     * and threads wait while it is granted.
+     *
+     * @param key The key to lock on
+     * @param reason A description for the reason of locking, which can be used in logging or exceptions
+     * @param supplier Produces the actual work, which is started once the lock is granted. The lock is released when the resulting stage completes (normally or exceptionally)
+     * @return A future that completes with the result of the stage produced by {@code supplier}, after the lock was released.
+     * @since 6.0
+     */
+    public static <T> CompletableFuture<T> withKeyLockAsync(
+        @Nullable Serializable key,
+        @NonNull String reason,
+        @NonNull Supplier<? extends CompletionStage<T>> supplier) {
+        return withObjectLockAsync(key, reason, supplier, LOCKED_OBJECTS);
+    }
+
+    /**
+     * @see #withKeyLockAsync(Serializable, String, Supplier)
+     * @since 6.0
+     */
+    public static <T, K extends Serializable> CompletableFuture<T> withObjectLockAsync(
+        @Nullable final K key,
+        @NonNull final String reason,
+        @NonNull final Supplier<? extends CompletionStage<T>> supplier,
+        @NonNull final Map<K, LockHolder<K>> locks) {
+        if (key == null) {
+            log.warn("Calling with null key: {}", reason);
+            return supply(supplier);
+        }
+        final long nanoStart = System.nanoTime();
+        final CompletableFuture<Void> granted = new CompletableFuture<>();
+        log.debug("Acquiring async lock {} ({})", key, reason);
+        final LockHolder<K> holder = registerAsync(key, reason, locks, granted);
+        dispatchAsync(holder);
+        if (!granted.isDone()) {
+            log.debug("There are already acquirers ({}) for {}, waiting", holder.getQueueLength(), key);
+        }
+        return granted
+            .thenCompose(v -> {
+                final Duration acquireTime = Duration.ofNanos(System.nanoTime() - nanoStart);
+                LOCKER_LOG.atLevel(acquireTime.compareTo(minWaitTime) > 0 ? Level.INFO : Level.DEBUG).log(
+                    "Acquired async lock for {} ({}) after {}", holder, reason, acquireTime);
+                for (Listener listener : LISTENERS) {
+                    try {
+                        listener.lock(holder, acquireTime);
+                    } catch (Exception e) {
+                        log.error(e.getMessage(), e);
+                    }
+                }
+                final long nanoAcquired = System.nanoTime();
+                return supply(supplier)
+                    .whenComplete((r, e) -> releaseAsync(nanoAcquired, locks, holder));
+            });
+    }
+
+    private static <T> CompletableFuture<T> supply(Supplier<? extends CompletionStage<T>> supplier) {
+        try {
+            return supplier.get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Registers the holder for the key like for a thread, and queues the waiter in it. Asynchronous acquirers are not bound to the current thread, so the holder is not added to {@link #HOLDS}, and no checks
+     * on other keys held by the current thread are done.
+     */
+    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
+    private static <K extends Serializable> LockHolder<K> registerAsync(
+        @NonNull final K key,
+        @NonNull final String reason,
+        @NonNull final Map<K, LockHolder<K>> locks,
+        @NonNull final CompletableFuture<Void> waiter) {
+        final boolean heldByThread = HOLDS.get().stream().anyMatch(h -> h.key.equals(key));
+        while (true) {
+            final LockHolder<K> holder = register(key, reason, locks, (held, k) -> false);
+            if (!heldByThread) {
+                HOLDS.get().remove(holder);
+            }
+            if (holder.concurrent) {
+                // the holder stays registered until the waiter unregisters
+                holder.asyncWaiters.add(waiter);
+                return holder;
+            }
+            synchronized (locks) {
+                // a holder with queued waiters is not removed, but it may just have been removed before the waiter was queued
+                if (locks.get(key) == holder) {
+                    holder.asyncWaiters.add(waiter);
+                    return holder;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grants the holder to the first asynchronous waiter, if no thread holds its lock, and it is not granted already. This is called after queueing a waiter, and after every release, so no waiter is forgotten.
+     * Threads go first: those waiting for an asynchronous acquirer to release, and those queued for the lock (which includes the ones just woken up by {@link #releaseAsync(long, Map, LockHolder)}). They dispatch again when they unlock. Threads that stop waiting without locking dispatch too.
+     */
+    private static void dispatchAsync(final @NonNull LockHolder<?> holder) {
+        while (!holder.asyncWaiters.isEmpty() && holder.lock.tryLock()) {
+            final CompletableFuture<Void> waiter;
+            try {
+                if (holder.asyncHeld || holder.lock.getHoldCount() > 1 || holder.lock.hasWaiters(holder.asyncReleased) || holder.lock.hasQueuedThreads()) {
+                    // it will be dispatched again when that is released
+                    return;
+                }
+                waiter = holder.asyncWaiters.poll();
+                if (waiter == null) {
+                    continue;
+                }
+                holder.asyncHeld = true;
+            } finally {
+                holder.lock.unlock();
+            }
+            grant(holder, waiter);
+            return;
+        }
+    }
+
+    /**
+     * Completes the given future, but not before {@link LockHolder#getAvailableAfter()}, and not in the current thread, to avoid recursion if many waiters are queued.
+     */
+    private static void grant(LockHolder<?> holder, CompletableFuture<Void> waiter) {
+        final Instant availableAfter = holder.availableAfter;
+        holder.availableAfter = null;
+        if (availableAfter != null && availableAfter.isAfter(clock.instant())) {
+            final Duration delay = Duration.between(clock.instant(), availableAfter);
+            log.debug("Granting {} after {}", holder, delay);
+            waiter.completeAsync(() -> null, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS));
+        } else {
+            waiter.completeAsync(() -> null);
+        }
+    }
+
+    @SuppressWarnings({"SynchronizationOnLocalVariableOrMethodParameter", "unchecked"})
+    private static <K extends Serializable> void releaseAsync(
+        final long nanoStart,
+        final @NonNull Map<K, LockHolder<K>> locks,
+        final @NonNull LockHolder<K> holder) {
+        try {
+            reportRelease(nanoStart, holder);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+        }
+        holder.lock.lock();
+        try {
+            holder.asyncHeld = false;
+            holder.asyncReleased.signalAll();
+        } finally {
+            holder.lock.unlock();
+        }
+        if (holder.concurrent) {
+            unregister((ConcurrentMap<K, LockHolder<K>>) locks, holder);
+        } else {
+            synchronized (locks) {
+                if (unused(holder) && (holder.availableAfter == null || holder.availableAfter.isBefore(clock.instant()))) {
+                    log.trace("Removed {}", holder.key);
+                    locks.remove(holder.key, holder);
+                }
+            }
+        }
+        dispatchAsync(holder);
+    }
+
+    /**
+     * Waits until the holder is not granted to an asynchronous acquirer (anymore). Must be called while holding {@link LockHolder#lock}.
+     * @param maxWait The maximal time to wait, or {@code null} to wait indefinitely
+     * @return {@code false} if the holder was still held asynchronously after {@code maxWait}
+     */
+    private static boolean awaitAsyncRelease(final @NonNull LockHolder<?> holder, final @Nullable Duration maxWait) throws InterruptedException {
+        long remaining = maxWait == null ? 0 : maxWait.toNanos();
+        while (holder.asyncHeld) {
+            if (maxWait == null) {
+                holder.asyncReleased.await();
+            } else {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = holder.asyncReleased.awaitNanos(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether nobody holds or waits for the given holder (in synchronized mode).
+     */
+    private static boolean unused(final @NonNull LockHolder<?> holder) {
+        return !holder.lock.isLocked() && !holder.lock.hasQueuedThreads() && !holder.asyncHeld && holder.asyncWaiters.isEmpty();
+    }
+
     public static <T> T withKeyLock(
         Serializable id,
         @NonNull String reason,
@@ -201,6 +424,138 @@ public class ObjectLocker {
         }
     }
 
+    /**
+     * Locks on several keys at once. The keys are acquired in a deterministic order (see {@link #KEY_ORDER}), so that two threads locking on overlapping sets of keys cannot deadlock. There is one bounded wait
+     * for all keys together ({@link ObjectLockerAdminMXBean#getMaxLockAcquireTime()}). If not all keys could be acquired in that time, the ones that were acquired are released, and an {@link IllegalStateException} is thrown (so, in contrast to {@link #withKeyLock(Serializable, String, Callable)} in 'monitor' mode, this never continues without lock).
+     * <p>
+     * Locking on different keys at the same time is intentional here, so it is not considered suspicious (see {@link ObjectLockerAdminMXBean#isStrictlyOne()}). The listeners receive one event for the complete set of keys, with a {@link LockHolder} that has the sorted list of keys as its key.
+     *
+     * @param keys The keys to lock on. {@code null}s and duplicates are ignored.
+     * @throws IllegalArgumentException If the keys can't be ordered deterministically (see {@link #KEY_ORDER})
+     * @since 6.0
+     */
+    public static <T> T withKeysLock(
+        @NonNull Collection<? extends Serializable> keys,
+        @NonNull String reason,
+        @NonNull Callable<T> callable) {
+        return withObjectsLock(keys, reason, callable, ObjectLocker.LOCKED_OBJECTS, CLASS_EQUALS);
+    }
+
+    /**
+     * @see #withKeysLock(Collection, String, Callable)
+     * @since 6.0
+     */
+    @SneakyThrows
+    public static <T, K extends Serializable> T withObjectsLock(
+        @NonNull final Collection<? extends K> keys,
+        @NonNull final String reason,
+        @NonNull final Callable<T> callable,
+        @NonNull final Map<K, LockHolder<K>> locks,
+        @NonNull final BiPredicate<Serializable, K> comparable) {
+        final long nanoStart = System.nanoTime();
+        final List<K> sorted = keys.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted(KEY_ORDER)
+            .collect(Collectors.toList());
+        if (sorted.isEmpty()) {
+            log.warn("Calling without keys: {}", reason);
+            return callable.call();
+        }
+        final BiPredicate<Serializable, K> notOneOfThese = (held, key) -> !sorted.contains(held) && comparable.test(held, key);
+        final Duration maxTime = Optional.ofNullable(threadLocalMonitorTime.get()).orElse(ObjectLocker.maxLockAcquireTime);
+        final long deadline = nanoStart + maxTime.toNanos();
+        final List<LockHolder<K>> acquired = new ArrayList<>(sorted.size());
+        final LockHolder<Serializable> multi = new LockHolder<>(new ArrayList<>(sorted), reason, new ReentrantLock());
+        try {
+            for (K key : sorted) {
+                log.debug("Acquiring lock {} ({}) as part of {}", key, reason, sorted);
+                final LockHolder<K> holder = register(key, reason, locks, notOneOfThese);
+                final boolean locked;
+                try {
+                    locked = holder.lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    abandon(locks, holder);
+                    throw e;
+                }
+                if (!locked) {
+                    abandon(locks, holder);
+                    throw new IllegalStateException(String.format("Couldn't acquire lock for %s (%s) in %s, locked by %s", key, sorted, maxTime, holder.summarize(true)));
+                }
+                acquired.add(holder);
+                if (!awaitAsyncRelease(holder, Duration.ofNanos(Math.max(0, deadline - System.nanoTime())))) {
+                    throw new IllegalStateException(String.format("Couldn't acquire lock for %s (%s) in %s, it is held asynchronously", key, sorted, maxTime));
+                }
+                if (holder.availableAfter != null) {
+                    final Instant now = clock.instant();
+                    if (holder.availableAfter.isAfter(now)) {
+                        sleeper.accept(Duration.between(now, holder.availableAfter));
+                    }
+                    holder.availableAfter = null;
+                }
+            }
+            multi.lock.lock();
+            MULTI_KEY_LOCKED_OBJECTS.putIfAbsent(multi.key, multi);
+            final Duration acquireTime = Duration.ofNanos(System.nanoTime() - nanoStart);
+            LOCKER_LOG.atLevel(acquireTime.compareTo(minWaitTime) > 0 ? Level.INFO : Level.DEBUG).log(
+                "Acquired lock for {} ({}) after {}", multi, reason, acquireTime);
+            for (Listener listener : LISTENERS) {
+                try {
+                    listener.lock(multi, acquireTime);
+                } catch (Exception e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+            final long nanoAcquired = System.nanoTime();
+            try {
+                return callable.call();
+            } finally {
+                MULTI_KEY_LOCKED_OBJECTS.remove(multi.key, multi);
+                reportRelease(nanoAcquired, multi);
+                multi.lock.unlock();
+            }
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                releaseLock(nanoStart, locks, acquired.get(i), false);
+            }
+        }
+    }
+
+    /**
+     * Undoes {@link #register(Serializable, String, Map, BiPredicate)} for a holder that was not locked after all.
+     */
+    @SuppressWarnings({"SynchronizationOnLocalVariableOrMethodParameter", "unchecked"})
+    private static <K extends Serializable> void abandon(
+        @NonNull final Map<K, LockHolder<K>> locks,
+        @NonNull final LockHolder<K> holder) {
+        if (holder.concurrent) {
+            unregister((ConcurrentMap<K, LockHolder<K>>) locks, holder);
+        } else {
+            synchronized (locks) {
+                if (unused(holder)) {
+                    locks.remove(holder.key, holder);
+                }
+            }
+        }
+        HOLDS.get().remove(holder);
+        dispatchAsync(holder);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNaturally(Serializable k1, Serializable k2) {
+        if (k1 instanceof Comparable c1 && k1.getClass().equals(k2.getClass())) {
+            return c1.compareTo(k2);
+        }
+        return 0;
+    }
+
+    private static int requireEqual(Serializable k1, Serializable k2) {
+        if (!k1.equals(k2)) {
+            throw new IllegalArgumentException(String.format("Cannot order the different keys %s and %s deterministically. Make %s Comparable", k1, k2, k1.getClass()));
+        }
+        return 0;
+    }
+
     public static <K extends Serializable> LockHolderCloser<Serializable> acquireLock(
         final Serializable key,
         final @NonNull String reason,
@@ -210,7 +565,6 @@ public class ObjectLocker {
     }
 
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     private static  <K extends Serializable> LockHolderCloser<K> acquireLock(
         final  K key,
         final @NonNull String reason,
@@ -221,36 +575,29 @@ public class ObjectLocker {
         LockHolderCloser<K> closer = null;
         try {
 
-            LockHolder<K> holder;
+            log.debug("Acquiring lock {} ({})", key, reason);
+            final LockHolder<K> holder = register(key, reason, locks, comparable);
             boolean alreadyWaiting = false;
-            while (true) {
-                log.debug("Acquiring lock {} ({})", key, reason);
-                synchronized (locks) {
-                    holder = locks.computeIfAbsent(key, (m) ->
-                        computeLock(m, reason, comparable))
-                    ;
-                    if (holder.disabled) {
-                        // holders can (via JMX) be disabled, in which case we just dispose it now.
-                        log.warn("Found a disabled lock {}. Discarding it now.", holder);
-                        locks.remove(key);
-                        continue;
-                    }
-                    closer = new LockHolderCloser<>(nanoStart, locks, holder, comparable, delayAfterRelease);
-                    if (holder.lock.isLocked() && !holder.lock.isHeldByCurrentThread()) {
-                        log.debug("There are already threads ({}) for {}, waiting", holder.lock.getQueueLength(), key);
-                        alreadyWaiting = true;
-                    }
-                    break;
-                }
+            closer = new LockHolderCloser<>(nanoStart, locks, holder, comparable, delayAfterRelease);
+            if (holder.lock.isLocked() && !holder.lock.isHeldByCurrentThread()) {
+                log.debug("There are already threads ({}) for {}, waiting", holder.lock.getQueueLength(), key);
+                alreadyWaiting = true;
             }
 
-
-            if (Optional.ofNullable(threadLocalMonitorTime.get()).map(c -> true).orElse(monitor)) {
+            final boolean monitored = Optional.ofNullable(threadLocalMonitorTime.get()).map(c -> true).orElse(monitor);
+            if (monitored) {
                 monitoredLock(holder, key);
             } else {
                 log.debug("Locking for {}", holder);
                 holder.lock.lock();
             }
+            if (holder.lock.isHeldByCurrentThread() && holder.asyncHeld) {
+                log.debug("{} is held asynchronously, waiting", holder);
+                final Duration maxTime = Optional.ofNullable(threadLocalMonitorTime.get()).orElse(ObjectLocker.maxLockAcquireTime);
+                if (!awaitAsyncRelease(holder, monitored ? maxTime : null)) {
+                    log.warn("Took over {} to acquire {}, which is held asynchronously, continuing now", maxTime, holder);
+                }
+            }
 
             Duration delaying = null;
             if (holder.availableAfter != null) {
@@ -307,6 +654,7 @@ public class ObjectLocker {
             );
             if (duration.compareTo(maxTime) > 0) {
                 log.warn("Took over {} to acquire {}, continuing without lock now", ObjectLocker.maxLockAcquireTime, holder);
+                dispatchAsync(holder);
                 return;
             }
             if (wait.compareTo(maxWait) < 0) {
@@ -314,6 +662,7 @@ public class ObjectLocker {
             }
             if (holder.isDisabled()) {
                 log.info("Holder got disabled, breaking now");
+                dispatchAsync(holder);
                 break;
             }
             log.info("Now waiting {}", wait);
@@ -321,10 +670,105 @@ public class ObjectLocker {
 
     }
 
+    /**
+     * Finds or creates the lock holder for the given key, and registers it in {@code locks}. An existing holder is joined in the mode it was created with, so changing {@link #concurrentRegistry} only
+     * affects new holders.
+     */
+    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
+    private static <K extends Serializable> LockHolder<K> register(
+        @NonNull final K key,
+        @NonNull final String reason,
+        @NonNull final Map<K, LockHolder<K>> locks,
+        @NonNull final BiPredicate<Serializable, K> comparable) {
+        while (true) {
+            if (locks instanceof ConcurrentMap<K, LockHolder<K>> concurrentLocks) {
+                final LockHolder<K> joined = join(key, reason, concurrentLocks, comparable, concurrentRegistry);
+                if (joined != null) {
+                    return joined;
+                }
+            }
+            synchronized (locks) {
+                final LockHolder<K> holder = locks.computeIfAbsent(key, (m) ->
+                    computeLock(m, reason, comparable, false))
+                ;
+                if (holder.concurrent) {
+                    // created concurrently in the meantime, so it must be joined that way
+                    continue;
+                }
+                if (holder.disabled) {
+                    // holders can (via JMX) be disabled, in which case we just dispose it now.
+                    log.warn("Found a disabled lock {}. Discarding it now.", holder);
+                    locks.remove(key, holder);
+                    continue;
+                }
+                return holder;
+            }
+        }
+    }
+
+    /**
+     * Registers the current thread as a user of the concurrent lock holder for the given key. This happens atomically for this key only, so other keys are not blocked.
+     * @param create Whether to create a new concurrent holder if there is none yet.
+     * @return The joined holder, or {@code null} if there is none and it was not created, or if the existing holder is not {@link LockHolder#isConcurrent() concurrent}.
+     * @since 6.0
+     */
+    @Nullable
+    private static <K extends Serializable> LockHolder<K> join(
+        @NonNull final K key,
+        @NonNull final String reason,
+        @NonNull final ConcurrentMap<K, LockHolder<K>> locks,
+        @NonNull final BiPredicate<Serializable, K> comparable,
+        final boolean create) {
+        final boolean[] joined = {false};
+        final LockHolder<K> holder = locks.compute(key, (k, existing) -> {
+            LockHolder<K> result = existing;
+            if (result != null && result.concurrent && result.disabled) {
+                // holders can (via JMX) be disabled, in which case we just dispose it now.
+                log.warn("Found a disabled lock {}. Discarding it now.", result);
+                result = null;
+            }
+            if (result == null) {
+                if (!create) {
+                    return null;
+                }
+                result = computeLock(k, reason, comparable, true);
+            }
+            if (result.concurrent) {
+                result.users++;
+                joined[0] = true;
+            }
+            return result;
+        });
+        return joined[0] ? holder : null;
+    }
+
+    /**
+     * The reverse of {@link #join(Serializable, String, ConcurrentMap, BiPredicate, boolean)}. If no threads are using the holder anymore, it is removed from the map.
+     * @since 6.0
+     */
+    private static <K extends Serializable> void unregister(
+        @NonNull final ConcurrentMap<K, LockHolder<K>> locks,
+        @NonNull final LockHolder<K> lock) {
+        locks.computeIfPresent(lock.key, (k, existing) -> {
+            if (existing != lock) {
+                // our holder was disabled and replaced already
+                return existing;
+            }
+            if (--existing.users <= 0) {
+                if (existing.availableAfter == null || existing.availableAfter.isBefore(clock.instant())) {
+                    log.trace("Removed {}", k);
+                    return null;
+                }
+            }
+            return existing;
+        });
+    }
+
     private static <K extends Serializable>  LockHolder<K> computeLock(
         @NonNull final K key,
         @NonNull final  String reason,
-        @NonNull final BiPredicate<Serializable, K> comparable) {
+        @NonNull final BiPredicate<Serializable, K> comparable,
+        final boolean concurrent) {
         log.trace("New lock for {}", key);
         List<LockHolder<? extends Serializable>> currentLocks = HOLDS.get();
         if (! currentLocks.isEmpty()) {
@@ -340,49 +784,77 @@ public class ObjectLocker {
                 log.debug("Getting a lock on a different (incompatible) key! {} + {}", currentLocks.get(0).key, key);
             }
         }
-        final var newHolder = new LockHolder<>(key, reason, new ReentrantLock());
+        final var newHolder = new LockHolder<>(key, reason, new ReentrantLock(), concurrent);
         HOLDS.get().add(newHolder);
         return newHolder;
     }
 
 
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
+    /**
+     * @param report Whether to report the release to the {@link Listener}s. This is not done for the separate keys of {@link #withKeysLock(Collection, String, Callable)}
+     */
+    @SuppressWarnings("unchecked")
     private static  <K extends Serializable> void releaseLock(
         final long nanoStart,
         final @NonNull Map<K, LockHolder<K>> locks,
-        final @NonNull LockHolder<K> lock) {
+        final @NonNull LockHolder<K> lock,
+        final boolean report) {
+        if (lock.concurrent) {
+            if (report && lock.lock.getHoldCount() == 1) {
+                reportRelease(nanoStart, lock);
+            }
+            unregister((ConcurrentMap<K, LockHolder<K>>) locks, lock);
+            unlock(lock);
+        } else {
+            releaseLockSynchronized(nanoStart, locks, lock, report);
+        }
+    }
+
+    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
+    private static  <K extends Serializable> void releaseLockSynchronized(
+        final long nanoStart,
+        final @NonNull Map<K, LockHolder<K>> locks,
+        final @NonNull LockHolder<K> lock,
+        final boolean report) {
         synchronized (locks) {
             if (lock.lock.getHoldCount() == 1) {
-                if (!lock.lock.hasQueuedThreads()) {
+                if (!lock.lock.hasQueuedThreads() && !lock.asyncHeld && lock.asyncWaiters.isEmpty()) {
                     log.trace("Removed {}", lock.key);
                     if (lock.availableAfter == null || lock.availableAfter.isBefore(clock.instant())) {
-                        locks.remove(lock.key);
+                        locks.remove(lock.key, lock);
                     }
                 }
-                final Duration duration = Duration.ofNanos(System.nanoTime() - nanoStart);
-                for (Listener listener : LISTENERS) {
-                    listener.unlock(lock, duration);
+                if (report) {
+                    reportRelease(nanoStart, lock);
                 }
-
-                LOCKER_LOG.atLevel(duration.compareTo(lock.warnTime)> 0 ? Level.WARN :  Level.DEBUG).log(
-                    "Released lock for {} ({}) in {}", lock.key, lock.reason, Duration.ofNanos(System.nanoTime() - nanoStart));
             }
-            if (lock.lock.isHeldByCurrentThread()) { // MSE-4946
-                if (lock.availableAfter == null || lock.availableAfter.isBefore(clock.instant())) {
+            unlock(lock);
 
-                }
-                HOLDS.get().remove(lock);
-                lock.lock.unlock();
+            locks.notifyAll();
 
-            } else {
-                // can happen if 'continuing without lock'
-                Thread currentThread = Thread.currentThread();
-                log.warn("Current lock {} not hold by current thread {} ({}) but by {} ({})", lock, currentThread.getName(), currentThread, Optional.ofNullable(lock.thread.get()).map(Thread::getName).orElse(null), lock.thread.get(), new Exception());
-            }
+        }
+    }
 
-            locks.notifyAll();
+    private static void reportRelease(final long nanoStart, final @NonNull LockHolder<?> lock) {
+        final Duration duration = Duration.ofNanos(System.nanoTime() - nanoStart);
+        for (Listener listener : LISTENERS) {
+            listener.unlock(lock, duration);
+        }
 
+        LOCKER_LOG.atLevel(duration.compareTo(lock.warnTime)> 0 ? Level.WARN :  Level.DEBUG).log(
+            "Released lock for {} ({}) in {}", lock.key, lock.reason, Duration.ofNanos(System.nanoTime() - nanoStart));
+    }
+
+    private static void unlock(final @NonNull LockHolder<?> lock) {
+        if (lock.lock.isHeldByCurrentThread()) { // MSE-4946
+            HOLDS.get().remove(lock);
+            lock.lock.unlock();
+            dispatchAsync(lock);
+        } else {
+            // can happen if 'continuing without lock'
+            Thread currentThread = Thread.currentThread();
+            log.warn("Current lock {} not hold by current thread {} ({}) but by {} ({})", lock, currentThread.getName(), currentThread, Optional.ofNullable(lock.thread.get()).map(Thread::getName).orElse(null), lock.thread.get(), new Exception());
         }
     }
 
@@ -420,15 +892,71 @@ public class ObjectLocker {
         @Setter
         private Instant availableAfter;
 
+        /**
+         * Whether this holder is registered per key (see {@link #concurrentRegistry}). This is fixed when the holder is created, and all threads using it register and unregister in this mode.
+         */
+        @Getter
+        final boolean concurrent;
+
+        /**
+         * The number of threads using (or waiting for) this holder. Only maintained if {@link #concurrent}, and then only modified while atomically computing the entry for {@link #key}.
+         */
+        int users = 0;
+
+        /**
+         * The acquirers via {@link #withKeyLockAsync(Serializable, String, Supplier)} waiting for this holder, in order of arrival.
+         */
+        final Queue<CompletableFuture<Void>> asyncWaiters = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether this holder is currently granted to an asynchronous acquirer. Only modified while holding {@link #lock}.
+         */
+        volatile boolean asyncHeld = false;
+
+        /**
+         * Threads that acquired {@link #lock} while {@link #asyncHeld} wait for this.
+         */
+        final Condition asyncReleased;
+
 
         LockHolder(K k, String reason, ReentrantLock lock) {
+            this(k, reason, lock, false);
+        }
+
+        private LockHolder(K k, String reason, ReentrantLock lock, boolean concurrent) {
             this.key = k;
+            this.concurrent = concurrent;
             this.lock = lock;
+            this.asyncReleased = lock.newCondition();
             this.initiator = Thread.currentThread().getStackTrace();
             this.thread = new WeakReference<>(Thread.currentThread());
             this.reason = reason;
         }
 
+        /**
+         * Whether this holder is currently granted to an acquirer via {@link #withKeyLockAsync(Serializable, String, Supplier)}
+         * @since 6.0
+         */
+        public boolean isAsync() {
+            return asyncHeld;
+        }
+
+        /**
+         * The hold count of the current thread. Asynchronous acquirers are not bound to threads, and can't reenter, so while the holder is granted to one of those this is one.
+         * @since 6.0
+         */
+        public int getHoldCount() {
+            return asyncHeld ? 1 : lock.getHoldCount();
+        }
+
+        /**
+         * The (estimated) number of acquirers (threads and asynchronous ones) waiting for this holder
+         * @since 6.0
+         */
+        public int getQueueLength() {
+            return lock.getQueueLength() + asyncWaiters.size();
+        }
+
 
 
         @SuppressWarnings("rawtypes")
@@ -526,9 +1054,9 @@ public class ObjectLocker {
                 lockHolder.setAvailableAfter(clock.instant().plus(delayAfterClose));
             }
 
-            synchronized (locks) {
+            synchronized (lockHolder.concurrent ? this : locks) {
                 if (!closed) {
-                    releaseLock(nanoStart, locks, lockHolder);
+                    releaseLock(nanoStart, locks, lockHolder, true);
                 } else {
                     log.debug("Closed already");
                 }
@@ -67,13 +67,13 @@ public class ObjectLockerAdmin implements ObjectLockerAdminMXBean {
        ObjectLocker.listen((type, holder, duration) -> {
            switch(type) {
                case LOCK:
-                   maxDepth = Math.max(maxDepth, holder.lock.getHoldCount());
+                   maxDepth = Math.max(maxDepth, holder.getHoldCount());
 
-                   if (holder.lock.isLocked() && !holder.lock.isHeldByCurrentThread()) {
-                       log.debug("There are already threads ({}) for {}, waiting", holder.lock.getQueueLength(), holder.key);
-                       maxConcurrency = Math.max(holder.lock.getQueueLength(), maxConcurrency);
+                   if (holder.isAsync() ? holder.getQueueLength() > 0 : holder.lock.isLocked() && !holder.lock.isHeldByCurrentThread()) {
+                       log.debug("There are already threads ({}) for {}, waiting", holder.getQueueLength(), holder.key);
+                       maxConcurrency = Math.max(holder.getQueueLength(), maxConcurrency);
                    }
-                   if (holder.lock.getHoldCount() == 1) {
+                   if (holder.getHoldCount() == 1) {
                        lockCount.computeIfAbsent(holder.reason, s -> new AtomicInteger()).incrementAndGet();
                        currentCount.computeIfAbsent(holder.reason, s -> new AtomicInteger()).incrementAndGet();
                        lockRate.newEvent();
@@ -125,6 +125,13 @@ public class ObjectLockerAdmin implements ObjectLockerAdminMXBean {
             .collect(Collectors.toSet()));
     }
 
+    @Override
+    public Set<String> getMultiKeyLocks() {
+        return Collections.unmodifiableSet(ObjectLocker.MULTI_KEY_LOCKED_OBJECTS.values().stream()
+            .map(ObjectLocker.LockHolder::summarize)
+            .collect(Collectors.toSet()));
+    }
+
     @Override
     public int getLockCount() {
         return lockCount.values().stream().mapToInt(AtomicInteger::intValue).sum();
@@ -181,6 +188,16 @@ public class ObjectLockerAdmin implements ObjectLockerAdminMXBean {
         ObjectLocker.strictlyOne = strictlyOne;
     }
 
+    @Override
+    public boolean isConcurrentRegistry() {
+        return ObjectLocker.concurrentRegistry;
+    }
+
+    @Override
+    public void setConcurrentRegistry(boolean concurrentRegistry) {
+        ObjectLocker.concurrentRegistry = concurrentRegistry;
+    }
+
     @PreDestroy
     public void shutdown() {
         lockRate.close();
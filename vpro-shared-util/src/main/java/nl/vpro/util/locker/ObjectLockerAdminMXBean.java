@@ -14,6 +14,9 @@ public interface ObjectLockerAdminMXBean {
     @Description("The keys currently locked")
     Set<String> getLocks();
 
+    @Description("The sets of keys currently locked together")
+    Set<String> getMultiKeyLocks();
+
     @Description("The total number of acquired locks. So this grows continuously.")
     int getLockCount();
 
@@ -49,4 +52,9 @@ public interface ObjectLockerAdminMXBean {
 
     void setStrictlyOne(boolean strictlyOne);
 
+    @Description("Whether locks are registered per key, without synchronizing on the complete registry of locks")
+    boolean isConcurrentRegistry();
+
+    void setConcurrentRegistry(boolean concurrentRegistry);
+
 }
@@ -0,0 +1,129 @@
+package nl.vpro.jmx;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import nl.vpro.logging.simple.NOPLogger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+public class CountAspectTest {
+
+    public interface Service {
+        int add(int a, int b);
+
+        void fail() throws IOException;
+
+        String join(String... parts);
+    }
+
+    public static class ServiceImpl implements Service {
+        @Override
+        public int add(int a, int b) {
+            CountAspect.Local local = CountAspect.currentThreadLocal.get();
+            if (local != null) {
+                local.requestEnd(URI.create("http://localhost/add"), "Service.add");
+            }
+            return a + b;
+        }
+
+        @Override
+        public void fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        @Override
+        public String join(String... parts) {
+            return String.join(",", parts);
+        }
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private Service proxy(CountAspect.Listener listener) {
+        return CountAspect.proxyCounter(counters, Duration.ofMinutes(1), 10, null, Service.class, new ServiceImpl(), new NOPLogger(), Duration.ofSeconds(10), null, listener);
+    }
+
+    @Test
+    public void count() {
+        Service service = proxy(null);
+        for (int i = 0; i < 10; i++) {
+            assertThat(service.add(i, 1)).isEqualTo(i + 1);
+        }
+        assertThat(service.join("a", "b")).isEqualTo("a,b");
+        assertThat(service.toString()).isNotNull();
+
+        assertThat(counters).containsOnlyKeys("Service.add", "join");
+        assertThat(counters.get("Service.add").getCount()).isEqualTo(10);
+        assertThat(CountAspect.currentThreadLocal.get()).isNull();
+    }
+
+    @Test
+    public void exceptionIsUnwrapped() {
+        Service service = proxy(null);
+        assertThatThrownBy(service::fail)
+            .isInstanceOf(IOException.class)
+            .hasMessage("failed");
+        assertThat(counters.get("fail").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shutdownCounterIsReplaced() {
+        Service service = proxy(null);
+        service.add(1, 2);
+        Counter first = counters.get("Service.add");
+        counters.values().forEach(Counter::shutdown);
+        counters.clear();
+        service.add(1, 2);
+        assertThat(counters.get("Service.add")).isNotSameAs(first);
+        assertThat(counters.get("Service.add").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void timers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Service service = proxy(new CountAspectTimers(registry, "service.calls"));
+        service.add(1, 2);
+        service.add(3, 4);
+        assertThat(registry.get("service.calls").tag("key", "Service.add").timer().count()).isEqualTo(2);
+        assertThat(registry.get("service.calls.request").tag("key", "Service.add").timer().count()).isEqualTo(2);
+    }
+
+    /**
+     * The overhead per call of the proxy, compared to calling the service directly. The first runs include the JIT warming up, so compare the later ones.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        Service direct = new ServiceImpl();
+        Service proxied = proxy(null);
+        final int count = 1_000_000;
+        long sum = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += direct.add(i, 1);
+            }
+            long directNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += proxied.add(i, 1);
+            }
+            long proxiedNanos = System.nanoTime() - start;
+            log.info("Direct: {} ns/call, proxied: {} ns/call", (double) directNanos / count, (double) proxiedNanos / count);
+        }
+        assertThat(sum).isPositive();
+        assertThat(counters.get("Service.add").getCount()).isEqualTo(5L * count);
+    }
+}
@@ -4,11 +4,23 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static nl.vpro.util.Copier.DEFAULT_BATCH_SIZE;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -73,6 +85,177 @@ class CopierTest {
     }
 
 
+    @Test
+    void publishWritten() throws InterruptedException, IOException {
+        final List<String> batches = new ArrayList<>();
+        try (
+            final InputStream in = randomStream();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .batch(213L)
+                .batchConsumer((c) ->
+                    batches.add("" + c.getWritten())
+                )
+                .publishWritten(true)
+                .output(out)
+                .build()) {
+            assertThat(copier.getWritten()).isEqualTo(0);
+            copier.execute();
+            assertThat(copier.waitForWritten(500)).isGreaterThanOrEqualTo(500);
+            assertThat(out.size()).isGreaterThanOrEqualTo(500);
+
+            assertThat(copier.waitForWritten(SIZE + 100)).isEqualTo(SIZE);
+            copier.waitFor();
+            assertThat(out.toByteArray()).hasSize(SIZE);
+            assertCopierHappy(copier);
+            assertThat(batches).containsExactly("213", "426", "639", "852", "1000");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void fileToFile(boolean channels, @TempDir Path dir) throws InterruptedException, IOException {
+        final Path source = dir.resolve("source");
+        final byte[] bytes = new byte[100_000];
+        new Random(0).nextBytes(bytes);
+        Files.write(source, bytes);
+        final Path dest = dir.resolve("dest");
+        final List<Long> batches = new ArrayList<>();
+        try (
+            final InputStream in = new FileInputStream(source.toFile());
+            final OutputStream out = new FileOutputStream(dest.toFile());
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .output(out)
+                .batch(30_000L)
+                .batchConsumer(c -> batches.add(c.getCount()))
+                .channels(channels)
+                .build()) {
+            assertThat(copier.isUsingChannels()).isEqualTo(channels);
+            copier.execute();
+            copier.waitFor();
+            assertThat(copier.getCount()).isEqualTo(bytes.length);
+            assertThat(copier.isReadyIOException()).isTrue();
+        }
+        assertThat(batches).containsExactly(30_000L, 60_000L, 90_000L, 100_000L);
+        assertThat(Files.readAllBytes(dest)).isEqualTo(bytes);
+    }
+
+    /**
+     * A FIFO can't be used with positions, so only the channel of the output file is used.
+     */
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @Timeout(10)
+    void fifoToFile(@TempDir Path dir) throws Exception {
+        final Path fifo = dir.resolve("fifo");
+        assertThat(new ProcessBuilder("mkfifo", fifo.toString()).start().waitFor()).isEqualTo(0);
+        final byte[] bytes = new byte[100_000];
+        new Random(0).nextBytes(bytes);
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try (OutputStream out = new FileOutputStream(fifo.toFile())) {
+                out.write(bytes);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        });
+        final Path dest = dir.resolve("dest");
+        try (
+            final InputStream in = new FileInputStream(fifo.toFile());
+            final OutputStream out = new FileOutputStream(dest.toFile());
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .output(out)
+                .build()) {
+            assertThat(copier.isUsingChannels()).isTrue();
+            copier.execute();
+            copier.waitFor();
+            assertThat(copier.getCount()).isEqualTo(bytes.length);
+            assertThat(copier.isReadyIOException()).isTrue();
+        }
+        writer.get();
+        assertThat(Files.readAllBytes(dest)).isEqualTo(bytes);
+    }
+
+    /**
+     * Files in {@code /proc} report a size of 0, so they are copied via the heap.
+     */
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void procToStream() throws InterruptedException, IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            final InputStream in = new FileInputStream("/proc/self/status");
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .output(out)
+                .build()) {
+            assertThat(copier.isUsingChannels()).isFalse();
+            copier.execute();
+            copier.waitFor();
+        }
+        assertThat(out.toString()).contains("Pid:");
+    }
+
+    @Test
+    void streamToFile(@TempDir Path dir) throws InterruptedException, IOException {
+        final Path dest = dir.resolve("dest");
+        final List<String> batches = new ArrayList<>();
+        try (
+            final InputStream in = randomStream();
+            final OutputStream out = new FileOutputStream(dest.toFile());
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .output(out)
+                .batch(213L)
+                .batchConsumer((c) -> batches.add("" + c.getCount()))
+                .build()) {
+            out.write(new byte[10]); // the position of the channel is respected
+            assertThat(copier.isUsingChannels()).isTrue();
+            copier.waitFor();
+            assertCopierHappy(copier);
+        }
+        assertThat(batches).containsExactly("213", "426", "639", "852", "1000");
+        assertThat(dest).hasSize(SIZE + 10);
+    }
+
+    /**
+     * Compares copying a file via the file channels with copying it via a heap buffer.
+     */
+    @Tag("performance")
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false, true, false})
+    void benchmark(boolean channels, @TempDir Path dir) throws InterruptedException, IOException {
+        final Path source = dir.resolve("source");
+        final byte[] bytes = new byte[1024 * 1024];
+        new Random(0).nextBytes(bytes);
+        try (OutputStream out = Files.newOutputStream(source)) {
+            for (int i = 0; i < 256; i++) {
+                out.write(bytes);
+            }
+        }
+        final Instant start = Instant.now();
+        try (
+            final InputStream in = new FileInputStream(source.toFile());
+            final OutputStream out = new FileOutputStream(dir.resolve("dest").toFile());
+            final Copier copier = Copier
+                .builder()
+                .input(in)
+                .output(out)
+                .channels(channels)
+                .build()) {
+            copier.waitFor();
+            assertThat(copier.getCount()).isEqualTo(256L * bytes.length);
+        }
+        log.info("channels: {}: {}", channels, Duration.between(start, Instant.now()));
+    }
+
     @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     @Test
     void ioExceptional(TestInfo info) throws InterruptedException, IOException {
@@ -9,10 +9,15 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.Isolated;
@@ -317,6 +322,10 @@ public class FileCachingInputStreamTest {
     }
 
     protected static FileCachingInputStream slowReader(boolean downloadFirst) {
+        return slowReader(downloadFirst, false);
+    }
+
+    protected static FileCachingInputStream slowReader(boolean downloadFirst, boolean eventDriven) {
         return FileCachingInputStream.builder()
             .outputBuffer(2)
             .batchSize(3)
@@ -326,7 +335,341 @@ public class FileCachingInputStreamTest {
             .initialBuffer(4)
             .startImmediately(true)
             .downloadFirst(downloadFirst)
+            .eventDriven(eventDriven)
+            .build();
+    }
+
+    @ParameterizedTest(name = "{displayName}  downloadFirst: {arguments}")
+    @ValueSource(booleans = {true, false})
+    public void eventDrivenSlowProduce(boolean downloadFirst) throws IOException {
+        try (FileCachingInputStream inputStream = slowReader(downloadFirst, true)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int r;
+            byte[] buffer = new byte[10];
+            while ((r = inputStream.read(buffer, 1, 9)) != -1) {
+                out.write(buffer, 1, r);
+            }
+            assertThat(out.toByteArray()).containsExactly(MANY_BYTES);
+            assertThat(inputStream.getCount()).isEqualTo(MANY_BYTES.length);
+            assertThat(inputStream.getToFileCopier().getWritten()).isEqualTo(MANY_BYTES.length);
+        }
+    }
+
+    @Test
+    public void eventDrivenSlowProduceBytes() throws IOException {
+        try (FileCachingInputStream inputStream = slowReader(false, true)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int r;
+            while ((r = inputStream.read()) != -1) {
+                out.write(r);
+                if (out.size() % 100 == 0) {
+                    // mix with reading arrays
+                    byte[] buffer = new byte[7];
+                    int read = inputStream.read(buffer);
+                    if (read == EOF) {
+                        break;
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            assertThat(out.toByteArray()).containsExactly(MANY_BYTES);
+        }
+    }
+
+    @Test
+    public void eventDrivenIoException() throws IOException {
+        try (
+            InputStream in = new InputStream() {
+                private int byteCount = 0;
+
+                @Override
+                public int read() throws IOException {
+                    if (byteCount == (SIZE_OF_BIG_STREAM / 2)) {
+                        throw new IOException("breaking!");
+                    }
+                    return byteCount++ < SIZE_OF_BIG_STREAM ? 'a' : -1;
+                }
+            };
+            FileCachingInputStream stream = FileCachingInputStream.builder()
+                .noProgressLogging()
+                .input(in)
+                .initialBuffer(4)
+                .eventDriven(true)
+                .build()) {
+            assertThatThrownBy(() -> IOUtils.copy(stream, OutputStream.nullOutputStream()))
+                .isInstanceOf(IOException.class)
+                .hasMessage("breaking!");
+            assertThat(stream.getFuture()).isCompletedExceptionally();
+        }
+    }
+
+    @Test
+    public void newReaders() throws Exception {
+        final FileCachingInputStream inputStream = slowReader(false, true);
+        final List<ByteArrayOutputStream> results = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        final List<InputStream> readers = List.of(inputStream, inputStream.newReader(), new BufferedInputStream(inputStream.newReader()));
+        for (InputStream reader : readers) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            results.add(out);
+            final Thread thread = new Thread(() -> {
+                try {
+                    IOUtils.copy(reader, out, 5);
+                } catch (IOException e) {
+                    log.error(e.getMessage(), e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (ByteArrayOutputStream out : results) {
+            assertThat(out.toByteArray()).containsExactly(MANY_BYTES);
+        }
+        inputStream.close();
+        assertThat(inputStream.getTempFile()).exists();
+        readers.get(1).close();
+        assertThat(inputStream.getTempFile()).exists();
+        readers.get(2).close();
+        assertThat(inputStream.getTempFile()).doesNotExist();
+        assertThatThrownBy(inputStream::newReader).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void newReaderInMemory() throws IOException {
+        try (FileCachingInputStream inputStream = FileCachingInputStream.builder()
+            .input(new ByteArrayInputStream(HELLO))
+            .initialBuffer(100)
             .build();
+             InputStream reader = inputStream.newReader()) {
+            assertThat(inputStream.getTempFile()).isNull();
+            assertThat(reader.available()).isEqualTo(HELLO.length);
+            assertThat(reader.readAllBytes()).containsExactly(HELLO);
+            assertThat(inputStream.readAllBytes()).containsExactly(HELLO);
+        }
+    }
+
+    @Test
+    public void newReaderNotEventDriven() throws IOException {
+        try (FileCachingInputStream inputStream = slowReader(false, false)) {
+            assertThatThrownBy(inputStream::newReader).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    /**
+     * Compares the throughput of the polling implementation with the event driven one, with a fast (about 13 MB) and with a slow producer. Both must deliver exactly what was produced.
+     */
+    @ParameterizedTest(name = "{displayName} slow producer: {0}")
+    @ValueSource(booleans = {false, true})
+    @Tag("performance")
+    public void throughputBenchmark(boolean slowProducer) throws IOException {
+        final Duration polling = copyThrough(slowProducer, false);
+        final Duration eventDriven = copyThrough(slowProducer, true);
+        log.info("slow producer: {}, polling: {}, event driven: {} ({}x)", slowProducer, polling, eventDriven,
+            (double) polling.toNanos() / Math.max(1, eventDriven.toNanos()));
+    }
+
+    private Duration copyThrough(boolean slowProducer, boolean eventDriven) throws IOException {
+        final int chunk = 64 * 1024;
+        final int chunks = slowProducer ? 50 : 200;
+        final CRC32 produced = new CRC32();
+        final InputStream producer = new InputStream() {
+            private int producedChunks = 0;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte @NonNull [] b, int off, int len) {
+                if (producedChunks == chunks) {
+                    return EOF;
+                }
+                if (slowProducer) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                final int result = Math.min(len, chunk);
+                for (int i = 0; i < result; i++) {
+                    b[off + i] = (byte) (i + producedChunks);
+                }
+                produced.update(b, off, result);
+                producedChunks++;
+                return result;
+            }
+        };
+        try (FileCachingInputStream inputStream = FileCachingInputStream.builder()
+            .input(producer)
+            .noProgressLogging()
+            .eventDriven(eventDriven)
+            .build()) {
+            final CheckedOutputStream consumed = new CheckedOutputStream(OutputStream.nullOutputStream(), new CRC32());
+            final Instant start = Instant.now();
+            final long copied = IOUtils.copyLarge(inputStream, consumed);
+            final Duration duration = Duration.between(start, Instant.now());
+            log.info("slow producer: {}, event driven: {}: {} bytes in {} ({} MB/s)", slowProducer, eventDriven, copied, duration,
+                (copied / 1_000_000d) / (Math.max(1, duration.toMillis()) / 1000d));
+            assertThat(copied).isEqualTo(inputStream.getCount());
+            assertThat(consumed.getChecksum().getValue()).isEqualTo(produced.getValue());
+            return duration;
+        }
+    }
+
+    /**
+     * A reader that caught up with the copier waits in {@link Copier#waitForWritten(long)}. It must be interruptible.
+     */
+    @Test
+    @Timeout(10)
+    public void interruptReaderWaitingForWritten() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final InputStream producer = new InputStream() {
+            private int remaining = 100;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte @NonNull [] b, int off, int len) {
+                if (remaining == 0) {
+                    // the rest never comes
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return EOF;
+                }
+                final int result = Math.min(len, remaining);
+                Arrays.fill(b, off, off + result, (byte) 'a');
+                remaining -= result;
+                return result;
+            }
+        };
+        try (FileCachingInputStream inputStream = FileCachingInputStream.builder()
+            .input(producer)
+            .initialBuffer(4)
+            .noProgressLogging()
+            .eventDriven(true)
+            .build()) {
+            final List<Object> result = new CopyOnWriteArrayList<>();
+            final Thread reader = new Thread(() -> {
+                final byte[] buffer = new byte[1000];
+                long read = 0;
+                try {
+                    int r;
+                    while ((r = inputStream.read(buffer)) != EOF) {
+                        read += r;
+                    }
+                    result.add(read);
+                } catch (IOException e) {
+                    result.add(read);
+                    result.add(e);
+                    result.add(Thread.currentThread().isInterrupted());
+                }
+            });
+            reader.start();
+            while (inputStream.getCount() < 100
+                || Arrays.stream(reader.getStackTrace()).noneMatch(e -> e.getMethodName().equals("waitForWritten"))
+                || reader.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            reader.interrupt();
+            reader.join();
+            assertThat(result).hasSize(3);
+            assertThat(result.get(0)).isEqualTo(100L);
+            assertThat(result.get(1)).isInstanceOf(InterruptedIOException.class);
+            assertThat(result.get(2)).isEqualTo(true);
+            assertThat(inputStream.getFuture()).isCompletedExceptionally();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Interrupting the main stream only stops that stream. Other readers keep on reading the download.
+     */
+    @Test
+    @Timeout(10)
+    public void interruptWhileOtherReaderReading() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final InputStream producer = new InputStream() {
+            private int remaining = 200;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte @NonNull [] b, int off, int len) {
+                if (remaining == 0) {
+                    return EOF;
+                }
+                if (remaining == 100) {
+                    // the rest only comes after the main stream got interrupted
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return EOF;
+                    }
+                }
+                final int result = Math.min(len, remaining > 100 ? remaining - 100 : remaining);
+                Arrays.fill(b, off, off + result, (byte) 'a');
+                remaining -= result;
+                return result;
+            }
+        };
+        try (FileCachingInputStream inputStream = FileCachingInputStream.builder()
+            .input(producer)
+            .initialBuffer(4)
+            .noProgressLogging()
+            .eventDriven(true)
+            .build();
+             InputStream second = inputStream.newReader()) {
+            final List<Object> result = new CopyOnWriteArrayList<>();
+            final Thread reader = new Thread(() -> {
+                try {
+                    IOUtils.copy(inputStream, OutputStream.nullOutputStream(), 1000);
+                } catch (IOException e) {
+                    result.add(e);
+                }
+            });
+            final ByteArrayOutputStream secondResult = new ByteArrayOutputStream();
+            final CompletableFuture<Long> secondReader = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return IOUtils.copy(second, secondResult, 10);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            reader.start();
+            while (inputStream.getCount() < 100
+                || Arrays.stream(reader.getStackTrace()).noneMatch(e -> e.getMethodName().equals("waitForWritten"))
+                || reader.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            reader.interrupt();
+            reader.join();
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0)).isInstanceOf(InterruptedIOException.class);
+            assertThat(inputStream.getFuture()).isNotDone();
+
+            release.countDown();
+            assertThat(secondReader.get()).isEqualTo(200L);
+            assertThat(secondResult.size()).isEqualTo(200);
+            assertThat(inputStream.getFuture()).succeedsWithin(Duration.ofSeconds(5));
+        } finally {
+            release.countDown();
+        }
     }
 
     @RepeatedTest(value = 100, name = "{displayName} {currentRepetition}")
@@ -1,10 +1,15 @@
 package nl.vpro.util;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.*;
 import java.util.Random;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import static nl.vpro.util.ISO6937CharsetProvider.ISO6937;
@@ -16,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * @author Michiel Meeuwissen
  */
 @SuppressWarnings("InjectedReferences")
+@Slf4j
 public class ISO6937Test {
 
     @Test
@@ -115,16 +121,16 @@ public class ISO6937Test {
             "£\n" +
             "¤\n" +
             "¥\n" +
-            //"¦\n" + // commented out ones somewhy don't work
+            "¦\n" +
             "§\n" +
             "¨\n" +
-            //"©\n" +
+            "©\n" +
             "ª\n" +
             "«\n" +
-            //"¬\n" +
+            "¬\n" +
             "\u00AD\n" +
-            //"®\n" +
-            //"¯\n" +
+            "®\n" +
+            //"¯\n" + // not supported
             "°\n" +
             "±\n" +
             "²\n" +
@@ -134,7 +140,7 @@ public class ISO6937Test {
             "¶\n" +
             "·\n" +
             "¸\n" +
-            //"¹\n" +
+            "¹\n" +
             "º\n" +
             "»\n" +
             "¼\n" +
@@ -147,4 +153,115 @@ public class ISO6937Test {
 
 
     }
+
+    @Test
+    public void decodeSingleBytesAfterDiacritics() {
+        assertThat(new String(new byte[] {(byte) 0xd3, ' ', (byte) 0xd4, (byte) 0xc2, 'e'}, ISO6937)).isEqualTo("\u00a9 \u00ae\u00e9");
+    }
+
+    /**
+     * A diacritical mark at the end is decoded as itself (which is the same byte value as character), and a mark that cannot be combined is dropped
+     */
+    @Test
+    public void decodeDanglingDiacritics() {
+        assertThat(new String(new byte[] {'a', (byte) 0xc8}, ISO6937)).isEqualTo("a\u00c8");
+        assertThat(new String(new byte[] {(byte) 0xc8, 'x'}, ISO6937)).isEqualTo("x");
+        assertThat("\u0080\u20ac".getBytes(ISO6937)).isEqualTo(new byte[] {'?', '?'});
+    }
+
+    /**
+     * Every string consisting of characters that can be encoded, is decoded to the same string again
+     */
+    @Test
+    public void roundTrip() {
+        final StringBuilder encodable = new StringBuilder();
+        for (char c = 0; c < Character.MIN_SURROGATE; c++) {
+            if (c == '?' || String.valueOf(c).getBytes(ISO6937)[0] != '?') {
+                encodable.append(c);
+            }
+        }
+        assertThat(encodable.length()).isEqualTo(128 + 233);
+
+        final Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            final StringBuilder string = new StringBuilder();
+            for (int j = random.nextInt(200); j > 0; j--) {
+                string.append(encodable.charAt(random.nextInt(encodable.length())));
+            }
+            assertThat(new String(string.toString().getBytes(ISO6937), ISO6937)).isEqualTo(string.toString());
+        }
+    }
+
+    /**
+     * Encoding and decoding in small pieces, with buffers that are not backed by arrays, or backed by arrays at an offset, gives the same result as doing it at once
+     */
+    @Test
+    public void incremental() throws CharacterCodingException {
+        final String string = "Atat\u00fcrk \u00a9 \u0160ko\u0111a \u2019\u266a\u2019 ";
+        final String repeated = string.repeat(10);
+        final byte[] expected = repeated.getBytes(ISO6937);
+
+        for (boolean direct : new boolean[] {false, true}) {
+            for (int size = 2; size < 5; size++) {
+                final CharBuffer chars = direct ?
+                    ByteBuffer.allocateDirect(repeated.length() * 2).asCharBuffer().put(repeated).flip() :
+                    CharBuffer.wrap(("xx" + repeated + "yy").toCharArray(), 2, repeated.length()).slice();
+                final ByteBuffer bytes = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size + 1).position(1).slice();
+                final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                final CharsetEncoder encoder = ISO6937.newEncoder();
+                CoderResult result;
+                do {
+                    result = encoder.encode(chars, bytes, true);
+                    bytes.flip();
+                    while (bytes.hasRemaining()) {
+                        encoded.write(bytes.get());
+                    }
+                    bytes.clear();
+                } while (result.isOverflow());
+                assertThat(encoded.toByteArray()).isEqualTo(expected);
+
+                final ByteBuffer in = direct ? ByteBuffer.allocateDirect(expected.length) : ByteBuffer.allocate(expected.length);
+                in.put(expected).flip();
+                final CharBuffer out = direct ? ByteBuffer.allocateDirect(size * 2).asCharBuffer() : CharBuffer.allocate(size);
+                final StringBuilder decoded = new StringBuilder();
+                final CharsetDecoder decoder = ISO6937.newDecoder();
+                for (int limit = 1; limit <= expected.length; limit++) {
+                    // feed one byte at a time, so diacritical marks will be at the end of the input too
+                    in.limit(limit);
+                    do {
+                        result = decoder.decode(in, out, limit == expected.length);
+                        decoded.append(out.flip());
+                        out.clear();
+                    } while (result.isOverflow());
+                }
+                decoder.flush(out);
+                decoded.append(out.flip());
+                assertThat(decoded.toString()).isEqualTo(repeated);
+            }
+        }
+        assertThat(ISO6937.newDecoder().decode(ByteBuffer.wrap(expected)).toString()).isEqualTo(repeated);
+    }
+
+    /**
+     * Logs the throughput of encoding and decoding about a megabyte of mostly ASCII text with some diacritics, i.e. mainly the single byte fast path.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        final String text = "Zondagmiddag tijd voor het Zapp Weekjournaal. Vandaag met deze onderwerpen: de \u00e9\u00e9n na de ander, na\u00efef, \u00fcber.\n".repeat(10_000);
+        final byte[] bytes = text.getBytes(ISO6937);
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                assertThat(text.getBytes(ISO6937)).hasSize(bytes.length);
+            }
+            final long encode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                assertThat(new String(bytes, ISO6937)).hasSize(text.length());
+            }
+            final long decode = System.nanoTime() - start;
+            log.info("Encoding {} MB/s, decoding {} MB/s", 10_000L * text.length() / encode, 10_000L * bytes.length / decode);
+        }
+    }
 }
@@ -1,8 +1,14 @@
 package nl.vpro.util;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.util.*;
+import java.util.stream.*;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import com.google.common.collect.Lists;
 
@@ -12,6 +18,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * @author Michiel Meeuwissen
  * @since 0.32
  */
+@Slf4j
 public class MergedSortedIteratorTest {
 
     @Test
@@ -55,4 +62,99 @@ public class MergedSortedIteratorTest {
 
     }
 
+    @Test
+    public void inSameThreadRandom() {
+        final Random random = new Random(1);
+        final List<List<Integer>> lists = lists(random, 20, 100);
+        final List<Integer> expected = lists.stream().flatMap(List::stream).sorted().toList();
+
+        CountedIterator<Integer> merged = MergedSortedIterator.mergeInSameThread(Comparator.naturalOrder(), iterators(lists));
+        assertThat(Lists.newArrayList(merged)).isEqualTo(expected);
+        assertThat(merged.getCount()).isEqualTo((long) expected.size());
+    }
+
+    @Test
+    public void inSameThreadEqualElements() {
+        // on equal elements, the one of the last iterator is returned first
+        List<String> l1 = Arrays.asList("a", "B");
+        List<String> l2 = Arrays.asList("A", "b");
+
+        CountedIterator<String> merged = MergedSortedIterator.mergeInSameThread(String.CASE_INSENSITIVE_ORDER, CountedIterator.of(l1), CountedIterator.of(l2));
+
+        assertThat(Lists.newArrayList(merged)).isEqualTo(Arrays.asList("A", "a", "b", "B"));
+    }
+
+    @Test
+    public void inSameThreadLazy() {
+        List<String> l1 = Arrays.asList("a", "d");
+        List<String> l2 = Arrays.asList("b", "c", "e");
+        CountedIterator<String> i1 = CountedIterator.of(l1);
+        CountedIterator<String> i2 = CountedIterator.of(l2);
+
+        CountedIterator<String> merged = MergedSortedIterator.mergeInSameThread(Comparator.naturalOrder(), i1, i2);
+        assertThat(merged.next()).isEqualTo("a");
+        assertThat(i1.getCount()).isEqualTo(1L);
+        assertThat(merged.next()).isEqualTo("b");
+        assertThat(i1.getCount()).isEqualTo(2L);
+        assertThat(i2.getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void spliterator() {
+        final Random random = new Random(2);
+        final List<List<Integer>> lists = lists(random, 16, 1000);
+        final List<Integer> expected = lists.stream().flatMap(List::stream).sorted().toList();
+
+        assertThat(StreamSupport.stream(MergedSortedIterator.spliterator(Comparator.<Integer>naturalOrder(), iterators(lists)), false).toList())
+            .isEqualTo(expected);
+
+        Spliterator<Integer> spliterator = MergedSortedIterator.spliterator(Comparator.naturalOrder(), iterators(lists));
+        assertThat(spliterator.estimateSize()).isEqualTo(expected.size());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertThat(prefix).isNotNull();
+        assertThat(prefix.estimateSize() + spliterator.estimateSize()).isEqualTo(expected.size());
+
+        assertThat(StreamSupport.stream(MergedSortedIterator.spliterator(Comparator.<Integer>naturalOrder(), iterators(lists)), true)
+            .sorted().toList())
+            .isEqualTo(expected);
+    }
+
+    /**
+     * Compares {@link MergedSortedIterator#mergeInSameThread(Comparator, Iterable)} with {@link MergedSortedIterator#merge(Comparator, Iterable)} (guava)
+     */
+    @Tag("performance")
+    @ParameterizedTest
+    @ValueSource(ints = {2, 16, 128})
+    public void benchmark(int k) {
+        final Random random = new Random(k);
+        final List<List<Integer>> lists = lists(random, k, 1_000_000 / k);
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            Iterator<Integer> merged = MergedSortedIterator.mergeInSameThread(Comparator.naturalOrder(), iterators(lists));
+            while (merged.hasNext()) {
+                sum += merged.next();
+            }
+            long sameThread = System.nanoTime() - start;
+            start = System.nanoTime();
+            long guavaSum = 0;
+            merged = MergedSortedIterator.merge(Comparator.naturalOrder(), iterators(lists));
+            while (merged.hasNext()) {
+                guavaSum += merged.next();
+            }
+            long guava = System.nanoTime() - start;
+            assertThat(sum).isEqualTo(guavaSum);
+            log.info("k = {}: same thread: {} ms, guava: {} ms", k, sameThread / 1_000_000, guava / 1_000_000);
+        }
+    }
+
+    private static List<List<Integer>> lists(Random random, int k, int size) {
+        return IntStream.range(0, k)
+            .mapToObj(i -> random.ints(size, 0, 1_000_000).sorted().boxed().toList())
+            .toList();
+    }
+
+    private static List<CountedIterator<Integer>> iterators(List<List<Integer>> lists) {
+        return lists.stream().map(CountedIterator::of).collect(Collectors.toList());
+    }
 }
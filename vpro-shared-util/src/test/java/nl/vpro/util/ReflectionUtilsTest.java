@@ -2,16 +2,22 @@ package nl.vpro.util;
 
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.*;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Michiel Meeuwissen
  */
+@Slf4j
 public class ReflectionUtilsTest {
 
     public enum AnEnum {
@@ -83,6 +89,46 @@ public class ReflectionUtilsTest {
         }
     }
 
+    public static class AWithFailingSetter {
+        public String a;
+
+        public void setA(String a) {
+            throw new IllegalStateException("failing setter");
+        }
+    }
+
+    @Getter @Setter
+    public static class Primitives {
+        private boolean enabled;
+        private int count;
+        private long size;
+        private double ratio;
+        private Duration timeout;
+        private List<Integer> numbers;
+
+        public static void setStatic(String s) {
+            staticValue = s;
+        }
+    }
+    static String staticValue;
+
+    /**
+     * Has setters with parameter types that can't simply be cast to a class.
+     */
+    @Getter
+    public static class WithWildcards<E extends Number> {
+        @Setter
+        private String a;
+        private Collection<? extends E> all;
+
+        public void setAll(Collection<? extends E> all) {
+            this.all = all;
+        }
+
+        public void setNested(List<? extends Comparable<String>> nested) {
+        }
+    }
+
     public static final Map<String, String> properties = new HashMap<>();
     static {
         properties.put("a", "B");
@@ -166,4 +212,74 @@ public class ReflectionUtilsTest {
         assertThat(a.getList()).containsExactly("foo", "bar");
     }
 
+    @Test
+    public void testFailingSetterFallsBackToField() {
+        AWithFailingSetter a = ReflectionUtils.configured(new AWithFailingSetter(), properties);
+        assertThat(a.a).isEqualTo("B");
+    }
+
+    @Test
+    public void testPrimitivesAndStatic() {
+        Primitives p = ReflectionUtils.configured(new Primitives(), Map.of(
+            "enabled", "true",
+            "count", "3",
+            "size", "4",
+            "ratio", "0.5",
+            "timeout", "PT5M",
+            "numbers", "1, 2,3",
+            "static", "x"
+        ));
+        assertThat(p.isEnabled()).isTrue();
+        assertThat(p.getCount()).isEqualTo(3);
+        assertThat(p.getSize()).isEqualTo(4L);
+        assertThat(p.getRatio()).isEqualTo(0.5);
+        assertThat(p.getTimeout()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(p.getNumbers()).containsExactly(1, 2, 3);
+        assertThat(staticValue).isEqualTo("x");
+
+        ReflectionUtils.configureIfNull(p, Map.of("timeout", "PT1M"));
+        assertThat(p.getTimeout()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void testConverter() {
+        assertThat(ReflectionUtils.converter(AnEnumWithXmlValue.class).apply("q")).isEqualTo(AnEnumWithXmlValue.X);
+        assertThat(ReflectionUtils.converter(Object.class).apply("true")).isEqualTo(Boolean.TRUE);
+        assertThatThrownBy(() -> ReflectionUtils.converter(Character.class).apply("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ReflectionUtils.converter(Integer.class).apply("a")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    public void testWildcards() throws NoSuchMethodException {
+        WithWildcards<Integer> w = ReflectionUtils.configured(new WithWildcards<>(), Map.of(
+            "a", "x",
+            "all", "1,2"
+        ));
+        assertThat(w.getA()).isEqualTo("x");
+        assertThat(w.getAll()).containsExactly(1, 2);
+
+        final Type nested = WithWildcards.class.getMethod("setNested", List.class).getGenericParameterTypes()[0];
+        assertThatThrownBy(() -> ReflectionUtils.converter(nested).apply("a,b")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    /**
+     * How long configuring an instance takes, the first time (resolving the binding plan for the class) and after that, when the plan is reused.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        long start = System.nanoTime();
+        ReflectionUtils.configured(new A(), properties);
+        log.info("First configuration: {} μs", (System.nanoTime() - start) / 1000);
+        final int count = 100_000;
+        for (int run = 0; run < 5; run++) {
+            start = System.nanoTime();
+            A a = null;
+            for (int i = 0; i < count; i++) {
+                a = ReflectionUtils.configured(new A(), properties);
+            }
+            log.info("Configuring {} properties: {} ns", properties.size(), (double) (System.nanoTime() - start) / count);
+            assertThat(a.getB()).isEqualTo(3);
+        }
+    }
 }
@@ -4,8 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.*;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -89,6 +94,120 @@ public class TimeUtilsTest {
 
     }
 
+    /**
+     * Recognizing the shape first must give the same results (or exceptions) as trying all parsers
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2000-07-11T14:00:33.556+02:00",
+        "2000-07-11T14:00:33.556Z",
+        "2000-07-11T14:00:33Z",
+        "2000-07-11T14:00Z",
+        "2000-07-11T14:00:33+02",
+        "2000-07-11T14:00:33.123456789-05:30",
+        "2000-07-11T14:00:33+02:00[Europe/Amsterdam]",
+        "2000-07-11T14:00:33Z[UTC]",
+        "2000-07-11T14:00:33",
+        "2000-07-11T14:00:33.5",
+        "2018-02-13T09:00",
+        "2018-02-13t09:00",
+        "2000-01-01",
+        "2000-13-01",
+        "2000-02-30T10:00",
+        "2000-07-11T25:00",
+        "2000-07-11T14:00+25:00",
+        "+12000-01-01T00:00:00Z",
+        "2000",
+        "+2000",
+        "-2000",
+        "1474643244279",
+        "99999999999999999999",
+        "2000-07-11 14:00",
+        "foobar"
+    })
+    public void parseSameAsTryAll(String value) {
+        Optional<Instant> expected;
+        try {
+            expected = TimeUtils.tryAll(value);
+        } catch (DateTimeParseException dtp) {
+            assertThatThrownBy(() -> TimeUtils.parse(value))
+                .isExactlyInstanceOf(DateTimeParseException.class)
+                .hasMessage(dtp.getMessage());
+            return;
+        }
+        assertThat(TimeUtils.parse(value)).isEqualTo(expected);
+    }
+
+    @Test
+    public void shape() {
+        assertThat(TimeUtils.Shape.of("2000")).isEqualTo(TimeUtils.Shape.NUMBER);
+        assertThat(TimeUtils.Shape.of("-1")).isEqualTo(TimeUtils.Shape.NUMBER);
+        assertThat(TimeUtils.Shape.of("-")).isEqualTo(TimeUtils.Shape.OTHER);
+        assertThat(TimeUtils.Shape.of("2000-01-01")).isEqualTo(TimeUtils.Shape.DATE);
+        assertThat(TimeUtils.Shape.of("2000-01-01T10:00")).isEqualTo(TimeUtils.Shape.LOCAL_DATE_TIME);
+        assertThat(TimeUtils.Shape.of("2000-01-01T10:00:00.123")).isEqualTo(TimeUtils.Shape.LOCAL_DATE_TIME);
+        assertThat(TimeUtils.Shape.of("2000-01-01T10:00:00.123Z")).isEqualTo(TimeUtils.Shape.OFFSET_DATE_TIME);
+        assertThat(TimeUtils.Shape.of("2000-01-01T10:00+01:00")).isEqualTo(TimeUtils.Shape.OFFSET_DATE_TIME);
+        assertThat(TimeUtils.Shape.of("2000-01-01T10:00+01:00[Europe/Amsterdam]")).isEqualTo(TimeUtils.Shape.OTHER);
+    }
+
+    @Test
+    public void parseZonedWithRegion() {
+        assertThat(TimeUtils.parseZoned("2000-07-11T14:00:33+02:00[Europe/Amsterdam]").get())
+            .isEqualTo(ZonedDateTime.of(LocalDate.of(2000, 7, 11), LocalTime.of(14, 0, 33), TimeUtils.ZONE_ID));
+        assertThat(TimeUtils.parseZoned("2000-07-11T14:00:33+02:00").get().toInstant())
+            .isEqualTo(ZonedDateTime.of(LocalDate.of(2000, 7, 11), LocalTime.of(14, 0, 33), TimeUtils.ZONE_ID).toInstant());
+    }
+
+    @Test
+    public void parseDurationErrors() {
+        assertThatThrownBy(() -> TimeUtils.parseTemporalAmount("can'tbeparsed"))
+            .isExactlyInstanceOf(DateTimeParseException.class)
+            .hasMessage("can'tbeparsed:Text cannot be parsed to a Period");
+        assertThatThrownBy(() -> TimeUtils.parseDuration("P1DT"))
+            .isExactlyInstanceOf(DateTimeParseException.class)
+            .hasMessage("Text cannot be parsed to a Duration");
+        assertThatThrownBy(() -> TimeUtils.parseDuration("PT-9999999999999999999H"))
+            .isExactlyInstanceOf(DateTimeParseException.class)
+            .hasMessage("PT-9999999999999999999H:Text cannot be parsed to a Duration: hours");
+    }
+
+    @Test
+    public void parseDurationWhiteSpace() {
+        assertThat(TimeUtils.parseDuration(" P T 5 M\n").get()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(TimeUtils.parseDuration("1 2 3").get()).isEqualTo(Duration.ofMillis(123));
+    }
+
+    /**
+     * Parses each of the supported formats a lot of times, and logs the time per parse for every format separately.
+     */
+    @Tag("performance")
+    @Test
+    public void benchmark() {
+        final List<String> instants = List.of(
+            "2000-07-11T14:00:33.556+02:00", "2000-07-11T14:00:33Z", "2000-01-01", "2018-02-13T09:00",
+            "2000-07-11T14:00:33+02:00[Europe/Amsterdam]", "2000", "1474643244279");
+        final List<String> durations = List.of(
+            "PT5M", "T5M", "5M", "6s", "6 s", "5000", "-300s", "P10D", "P4W", "P2Y2M10DT0H0M0.000S");
+        final int count = 20_000;
+        for (int run = 0; run < 5; run++) {
+            for (String instant : instants) {
+                final long start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    assertThat(TimeUtils.parse(instant)).isPresent();
+                }
+                log.info("parse {}: {} ns", instant, (System.nanoTime() - start) / count);
+            }
+            for (String duration : durations) {
+                final long start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    assertThat(TimeUtils.parseDuration(duration)).isPresent();
+                }
+                log.info("parseDuration {}: {} ns", duration, (System.nanoTime() - start) / count);
+            }
+        }
+    }
+
     @Test
     public void parseWeek() {
         assertThat(TimeUtils.parseDuration("P4W").get()).isEqualTo(Duration.ofDays(7 * 4));
@@ -10,10 +10,14 @@ import java.time.Duration;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import nl.vpro.logging.simple.*;
 import nl.vpro.util.ThreadPools;
@@ -37,6 +41,7 @@ public class ObjectLockerTest {
         ObjectLockerAdmin.JMX_INSTANCE.setStrictlyOne(false);
         ObjectLocker.minWaitTime = Duration.ofSeconds(5);
         ObjectLocker.monitor = false;
+        ObjectLocker.concurrentRegistry = false;
     }
 
 
@@ -44,6 +49,7 @@ public class ObjectLockerTest {
     public void checkEmpty() {
         assertThat(ObjectLocker.HOLDS.get()).isEmpty();
         assertThat(ObjectLocker.LOCKED_OBJECTS).isEmpty();
+        assertThat(ObjectLocker.MULTI_KEY_LOCKED_OBJECTS).isEmpty();
         assertThat(ObjectLockerAdmin.JMX_INSTANCE.getLocks()).isEmpty();
     }
 
@@ -120,6 +126,34 @@ public class ObjectLockerTest {
         }
     }
 
+    /**
+     * Different keys, which are not comparable, and have the same hash code and toString.
+     */
+    static class IndistinguishableKey implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String v;
+
+        IndistinguishableKey(String value) {
+            v = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IndistinguishableKey k && k.v.equals(v);
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "key";
+        }
+    }
+
     /**
      * Tests MSE-4946, this used to throw {{@link IllegalMonitorStateException}}
      */
@@ -302,6 +336,374 @@ public class ObjectLockerTest {
     }
 
 
+    @Test
+    public void withLockConcurrentRegistry() throws InterruptedException, ExecutionException {
+        ObjectLocker.concurrentRegistry = true;
+        withLock();
+        twoSameLocks();
+        delayedClose2();
+    }
+
+    @Test
+    public void withKeyLockAsync() {
+        ObjectLockerAdmin.JMX_INSTANCE.reset();
+        final List<String> listenedEvents = new CopyOnWriteArrayList<>();
+        ObjectLocker.Listener listener = (type, holder, duration) -> listenedEvents.add(type + ":" + holder.key);
+        ObjectLocker.listen(listener);
+        try {
+            final List<String> events = new CopyOnWriteArrayList<>();
+            final CompletableFuture<String> first = new CompletableFuture<>();
+            final List<CompletableFuture<String>> results = new ArrayList<>();
+            results.add(ObjectLocker.withKeyLockAsync("key", "async", () -> {
+                events.add("a1");
+                return first;
+            }));
+            for (String s : List.of("b", "c", "d")) {
+                results.add(ObjectLocker.withKeyLockAsync("key", "async", () -> {
+                    events.add(s + "1");
+                    return CompletableFuture.completedFuture(s);
+                }));
+            }
+            sleep(50);
+            // nothing blocked, but the others are queued until first completes
+            assertThat(events).containsExactly("a1");
+            assertThat(ObjectLockerAdmin.JMX_INSTANCE.getLocks()).hasSize(1);
+            assertThat(ObjectLockerAdmin.JMX_INSTANCE.getCurrentCount()).isEqualTo(1);
+
+            first.complete("a");
+            assertThat(results.stream().map(CompletableFuture::join)).containsExactly("a", "b", "c", "d");
+            assertThat(events).containsExactly("a1", "b1", "c1", "d1");
+            assertThat(listenedEvents).containsExactly(
+                "LOCK:key", "UNLOCK:key",
+                "LOCK:key", "UNLOCK:key",
+                "LOCK:key", "UNLOCK:key",
+                "LOCK:key", "UNLOCK:key"
+            );
+            assertThat(ObjectLockerAdmin.JMX_INSTANCE.getLockCounts()).containsOnly(new SimpleEntry<>("async", 4));
+            assertThat(ObjectLockerAdmin.JMX_INSTANCE.getCurrentCount()).isEqualTo(0);
+        } finally {
+            ObjectLocker.unListen(listener);
+        }
+    }
+
+    @Test
+    public void withKeyLockAsyncExceptionally() {
+        CompletableFuture<String> failed = ObjectLocker.withKeyLockAsync("key", "async", () -> {
+            throw new IllegalArgumentException("foo");
+        });
+        CompletableFuture<String> next = ObjectLocker.withKeyLockAsync("key", "async", () -> CompletableFuture.completedFuture("next"));
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(next.join()).isEqualTo("next");
+    }
+
+    /**
+     * Asynchronous and thread bound locks on the same key exclude each other, in both directions.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void withKeyLockAsyncExcludesSync(boolean concurrent) throws Exception {
+        ObjectLocker.concurrentRegistry = concurrent;
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> async = ObjectLocker.withKeyLockAsync("key", "async", () -> {
+            events.add("async start");
+            return first;
+        });
+        while (events.isEmpty()) {
+            sleep(1);
+        }
+        ForkJoinTask<?> sync = submit(() -> withKeyLock("key", "sync", () -> {
+            events.add("sync");
+        }));
+        sleep(50);
+        assertThat(events).containsExactly("async start");
+        events.add("async end");
+        first.complete("a");
+        sync.get();
+        assertThat(async.join()).isEqualTo("a");
+        assertThat(events).containsExactly("async start", "async end", "sync");
+
+        events.clear();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ForkJoinTask<?> holding = submit(() -> withKeyLock("key", "holding", () -> {
+            locked.countDown();
+            await(release);
+            events.add("sync end");
+        }));
+        locked.await();
+        final CompletableFuture<String> queued = ObjectLocker.withKeyLockAsync("key", "async", () -> {
+            events.add("async");
+            return CompletableFuture.completedFuture("b");
+        });
+        sleep(50);
+        assertThat(events).isEmpty();
+        release.countDown();
+        assertThat(queued.join()).isEqualTo("b");
+        holding.get();
+        assertThat(events).containsExactly("sync end", "async");
+    }
+
+    /**
+     * A steady stream of asynchronous acquirers on a key doesn't starve threads locking the same key.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @Timeout(30)
+    public void syncAndAsyncContending(boolean concurrent) throws Exception {
+        ObjectLocker.concurrentRegistry = concurrent;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger asyncCount = new AtomicInteger();
+        final Runnable[] next = new Runnable[1];
+        next[0] = () -> {
+            if (running.get()) {
+                inFlight.incrementAndGet();
+                ObjectLocker.withKeyLockAsync("key", "async", () -> {
+                    asyncCount.incrementAndGet();
+                    return CompletableFuture.supplyAsync(() -> "a", CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS));
+                }).whenComplete((r, e) -> {
+                    inFlight.decrementAndGet();
+                    next[0].run();
+                });
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            next[0].run();
+        }
+        while (asyncCount.get() < 10) {
+            sleep(1);
+        }
+        final AtomicInteger syncCount = new AtomicInteger();
+        final List<ForkJoinTask<?>> syncs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            syncs.add(submit(() -> withKeyLock("key", "sync", () -> {
+                syncCount.incrementAndGet();
+            })));
+        }
+        try {
+            for (ForkJoinTask<?> sync : syncs) {
+                sync.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            while (inFlight.get() > 0) {
+                sleep(1);
+            }
+        }
+        assertThat(syncCount.get()).isEqualTo(4);
+        log.info("Async acquired {} times", asyncCount.get());
+    }
+
+    @Test
+    public void withKeysLock() {
+        ObjectLockerAdmin.JMX_INSTANCE.setStrictlyOne(true);
+        final List<String> listenedEvents = new CopyOnWriteArrayList<>();
+        ObjectLocker.Listener listener = (type, holder, duration) -> listenedEvents.add(type + ":" + holder.key);
+        ObjectLocker.listen(listener);
+        try {
+            String result = ObjectLocker.withKeysLock(List.of(new Key("b"), new Key("a"), new Key("b")), "multi", () -> {
+                assertThat(ObjectLockerAdmin.JMX_INSTANCE.getMultiKeyLocks()).hasSize(1);
+                assertThat(ObjectLockerAdmin.JMX_INSTANCE.getMultiKeyLocks().iterator().next()).startsWith("[a, b]:");
+                assertThat(LOCKED_OBJECTS).containsOnlyKeys(new Key("a"), new Key("b"));
+                return "ready";
+            });
+            assertThat(result).isEqualTo("ready");
+            assertThat(listenedEvents).containsExactly("LOCK:[a, b]", "UNLOCK:[a, b]");
+        } finally {
+            ObjectLocker.unListen(listener);
+        }
+    }
+
+    /**
+     * Two threads locking on the same keys, but offering them in different order, would deadlock with nested locks.
+     */
+    @Test
+    public void withKeysLockNoDeadlock() throws ExecutionException, InterruptedException {
+        final int[] counter = {0};
+        ForkJoinTask<?> a = submit(() -> {
+            for (int i = 0; i < 1000; i++) {
+                ObjectLocker.withKeysLock(List.of("crid", "mid"), "a", () -> counter[0]++);
+            }
+        });
+        ForkJoinTask<?> b = submit(() -> {
+            for (int i = 0; i < 1000; i++) {
+                ObjectLocker.withKeysLock(List.of("mid", "crid"), "b", () -> counter[0]++);
+            }
+        });
+        a.get();
+        b.get();
+        assertThat(counter[0]).isEqualTo(2000);
+    }
+
+    @Test
+    public void withKeysLockTimeout() throws Exception {
+        ObjectLockerAdmin.JMX_INSTANCE.setMaxLockAcquireTime(Duration.ofMillis(50).toString());
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ForkJoinTask<?> a = submit(() -> {
+            withKeyLock("mid", "holding", () -> {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        });
+        locked.await();
+        assertThatThrownBy(() ->
+            ObjectLocker.withKeysLock(List.of("crid", "mid"), "multi", () -> "not reached")
+        ).isInstanceOf(IllegalStateException.class);
+        // crid was released again
+        assertThat(LOCKED_OBJECTS).containsOnlyKeys("mid");
+        release.countDown();
+        a.get();
+    }
+
+    /**
+     * A thread interrupted while waiting for one of its keys must leave nothing behind in the registry.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void withKeysLockInterrupted(boolean concurrent) throws Exception {
+        ObjectLocker.concurrentRegistry = concurrent;
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ForkJoinTask<?> a = submit(() -> withKeyLock("mid", "holding", () -> {
+            locked.countDown();
+            await(release);
+        }));
+        locked.await();
+        final List<Object> result = new CopyOnWriteArrayList<>();
+        final Thread b = new Thread(() -> {
+            try {
+                ObjectLocker.withKeysLock(List.of("crid", "mid"), "multi", () -> "not reached");
+            } catch (Throwable e) {
+                result.add(e);
+                result.add(ObjectLocker.HOLDS.get().isEmpty());
+            }
+        });
+        b.start();
+        final ObjectLocker.LockHolder<Serializable> mid = LOCKED_OBJECTS.get("mid");
+        while (!mid.lock.hasQueuedThread(b)) {
+            sleep(1);
+        }
+        b.interrupt();
+        b.join();
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).isInstanceOf(InterruptedException.class);
+        assertThat(result.get(1)).isEqualTo(true);
+        assertThat(LOCKED_OBJECTS).containsOnlyKeys("mid");
+        if (concurrent) {
+            assertThat(mid.users).isEqualTo(1);
+        }
+        release.countDown();
+        a.get();
+    }
+
+    @Test
+    public void withKeysLockIndistinguishableKeys() {
+        assertThatThrownBy(() ->
+            ObjectLocker.withKeysLock(List.of(new IndistinguishableKey("a"), new IndistinguishableKey("b")), "multi", () -> "not reached")
+        ).isInstanceOf(IllegalArgumentException.class);
+        assertThat(ObjectLocker.withKeysLock(List.of(new IndistinguishableKey("a"), new IndistinguishableKey("a")), "multi", () -> "ready")).isEqualTo("ready");
+    }
+
+    /**
+     * Switching the registry mode while a key is locked must not make the waiting threads register differently from the holder, or else the holder is removed too early, and a second one would be created for the same key.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void switchRegistryWhileLocked(boolean concurrent) throws Exception {
+        ObjectLocker.concurrentRegistry = concurrent;
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicInteger maxInside = new AtomicInteger();
+        final Runnable critical = () -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            sleep(10);
+            inside.decrementAndGet();
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> withKeyLock("key", "first", () -> {
+                locked.countDown();
+                await(release);
+                critical.run();
+            })));
+            locked.await();
+            final ObjectLocker.LockHolder<Serializable> holder = LOCKED_OBJECTS.get("key");
+            assertThat(holder.isConcurrent()).isEqualTo(concurrent);
+
+            ObjectLocker.concurrentRegistry = !concurrent;
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> withKeyLock("key", "next", critical)));
+            }
+            sleep(50);
+            assertThat(LOCKED_OBJECTS.get("key")).isSameAs(holder);
+            release.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    /**
+     * Compares the throughput of the synchronized registry with the concurrent one. With 'contended' all threads compete for only a few keys, otherwise every thread has its own key.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @Tag("performance")
+    public void throughput(boolean contended) throws InterruptedException, ExecutionException {
+        final int threads = 64;
+        final int iterations = 2000;
+        for (boolean concurrent : new boolean[] {false, true}) {
+            ObjectLocker.concurrentRegistry = concurrent;
+            final Map<String, int[]> counters = new ConcurrentHashMap<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String key = "key" + (contended ? t % 4 : t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final int[] counter = counters.computeIfAbsent(key, k -> new int[1]);
+                    for (int i = 0; i < iterations; i++) {
+                        withKeyLock(key, "throughput", () -> {
+                            counter[0]++;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            final long nanoStart = System.nanoTime();
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            final Duration duration = Duration.ofNanos(System.nanoTime() - nanoStart);
+            executor.shutdown();
+            log.info("{} {}: {} locks in {} ({} locks/s)",
+                concurrent ? "concurrent" : "synchronized",
+                contended ? "contended" : "uncontended",
+                threads * iterations, duration, (long) (threads * iterations / (duration.toNanos() / 1e9)));
+            assertThat(counters.values().stream().mapToInt(c -> c[0]).sum()).isEqualTo(threads * iterations);
+            assertThat(LOCKED_OBJECTS).isEmpty();
+        }
+    }
+
+
+    @SneakyThrows
+    private static void await(CountDownLatch latch) {
+        latch.await();
+    }
 
     @SneakyThrows
     private static void sleep(long duration) {
@@ -5,7 +5,6 @@
 package nl.vpro.web.filter.jsontemplate;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,9 +57,7 @@ public class JsonTemplateFilter implements Filter {
                 chain.doFilter(requestWrapper, responseWrapper);
                 responseWrapper.flush();
             } catch(Exception e) {
-                final PrintWriter writer = response.getWriter();
-                writer.write("{ \"error\" : \"" + e.getMessage() + "\"}");
-                writer.close();
+                responseWrapper.error(e);
             }
 
         } else {
@@ -5,111 +5,191 @@
 package nl.vpro.web.filter.jsontemplate;
 
 import java.io.*;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
 
-import jakarta.servlet.ServletOutputStream;
-import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpServletResponseWrapper;
 
-import nl.vpro.web.support.WrappedServletOutputStream;
+import nl.vpro.web.support.StreamingResponseWrapper;
 
 
 /**
- * TODO needs to buffer the entire response. Twice.
+ * Wraps the response in a JSON object with one string property. The response is decoded, escaped, and encoded again while it is written, so it is not buffered.
  */
-class ResponseWrapper extends HttpServletResponseWrapper {
+class ResponseWrapper extends StreamingResponseWrapper {
 
-    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-    private final String encoding;
+    private final Charset charset;
 
     private final byte[] prefix;
 
     private final byte[] suffix;
 
+    private OutputStream out;
+
+    private EscapingOutputStream escaping;
+
     public ResponseWrapper(HttpServletResponse response, String property) throws UnsupportedEncodingException {
-        super(response);
+        super(response, "application/json");
 
-        encoding = getResponse().getCharacterEncoding();
+        final String encoding = getResponse().getCharacterEncoding();
+        charset = Charset.forName(encoding);
         prefix = ("{ \"" + property + "\" : \"").getBytes(encoding);
         suffix = "\"}".getBytes(encoding);
-
     }
 
     @Override
-    public PrintWriter getWriter() {
-        return new PrintWriter(getOutputStream(), true);
+    protected OutputStream start(OutputStream out) throws IOException {
+        out.write(prefix);
+        this.out = out;
+        this.escaping = new EscapingOutputStream(out, charset);
+        return escaping;
     }
 
     @Override
-    public ServletOutputStream getOutputStream() {
-        return new WrappedServletOutputStream(buffer);
+    protected void end(OutputStream body) throws IOException {
+        escaping.finish();
+        out.write(suffix);
     }
 
-    public void flush() throws IOException {
-        final ByteArrayOutputStream tmp = new ByteArrayOutputStream();
+    /**
+     * Reports an exception. If possible, the response is replaced by a JSON object with only the error message (as it was before, when the response was buffered), otherwise the error message is added as an extra property to the JSON object.
+     */
+    void error(Exception e) throws IOException {
+        final HttpServletResponse response = (HttpServletResponse) getResponse();
+        if (!isStarted()) {
+            final PrintWriter writer = response.getWriter();
+            writer.write("{ \"error\" : \"" + e.getMessage() + "\"}");
+            writer.close();
+        } else if (!response.isCommitted()) {
+            response.resetBuffer();
+            out.write(("{ \"error\" : \"" + e.getMessage() + "\"}").getBytes(charset));
+            out.close();
+        } else {
+            escaping.finish();
+            out.write(("\", \"error\" : \"" + e.getMessage() + "\"}").getBytes(charset));
+            out.close();
+        }
+    }
+
+    /**
+     * Decodes the bytes written to it, and writes them {@link #escape(char, char[], int) escaped} to the wrapped stream.
+     */
+    private static class EscapingOutputStream extends OutputStream {
+        private final CharsetDecoder decoder;
+        private final Writer writer;
+        private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+        private final CharBuffer chars = CharBuffer.allocate(8192);
+        private final char[] escaped = new char[chars.capacity() * 6];
+
+        EscapingOutputStream(OutputStream out, Charset charset) {
+            this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.writer = new OutputStreamWriter(out, charset);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!bytes.hasRemaining()) {
+                decode(false);
+            }
+            bytes.put((byte) b);
+        }
 
-        final Charset charset = Charset.forName(encoding);
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!bytes.hasRemaining()) {
+                    decode(false);
+                }
+                final int n = Math.min(len, bytes.remaining());
+                bytes.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
 
-        final String content = new String(buffer.toByteArray(), charset);
-        for(int i = 0; i < content.length(); i++) {
-            char ch = content.charAt(i);
-            String escaped = escape(ch);
-            tmp.write(escaped.getBytes(charset));
+        @Override
+        public void flush() throws IOException {
+            decode(false);
+            writer.flush();
         }
 
-        final int length = tmp.size() + prefix.length + suffix.length;
-        final ServletResponse response = getResponse();
-        response.setContentType("application/json");
-        response.setContentLength(length);
+        /**
+         * Writes everything that was written to this stream, also incomplete characters. Does not close the wrapped stream.
+         */
+        void finish() throws IOException {
+            decode(true);
+            decoder.flush(chars);
+            escapeChars();
+            writer.flush();
+        }
 
-        OutputStream out = response.getOutputStream();
-        out.write(prefix);
-        tmp.writeTo(out);
-        out.write(suffix);
-        out.close();
+        private void decode(boolean endOfInput) throws IOException {
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                escapeChars();
+            } while (result.isOverflow());
+            bytes.compact();
+        }
+
+        private void escapeChars() throws IOException {
+            chars.flip();
+            int length = 0;
+            while (chars.hasRemaining()) {
+                length = escape(chars.get(), escaped, length);
+            }
+            writer.write(escaped, 0, length);
+            chars.clear();
+        }
     }
 
-    private static String escape(char ch) {
-        StringBuilder sb = new StringBuilder(8);
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
+    /**
+     * Puts the escaped character in the buffer (at most 6 characters)
+     * @return the new position in the buffer
+     */
+    private static int escape(char ch, char[] buf, int pos) {
         // http://json.org/
         switch(ch) {
             case '"':
-                sb.append("\\\"");
-                break;
+                return put(buf, pos, '"');
             case '\\':
-                sb.append("\\\\");
-                break;
+                return put(buf, pos, '\\');
             case '/':
-                sb.append("\\/");
-                break;
+                return put(buf, pos, '/');
             case '\b':
-                sb.append("\\b");
-                break;
+                return put(buf, pos, 'b');
             case '\f':
-                sb.append("\\f");
-                break;
+                return put(buf, pos, 'f');
             case '\n':
-                sb.append("\\n");
-                break;
+                return put(buf, pos, 'n');
             case '\r':
-                sb.append("\\r");
-                break;
+                return put(buf, pos, 'r');
             case '\t':
-                sb.append("\\t");
-                break;
+                return put(buf, pos, 't');
             default:
                 if((ch >= '\u0000' && ch <= '\u001F') || (ch >= '\u007F' && ch <= '\u009F') || (ch >= '\u2000' && ch <= '\u20FF')) {
-                    String hex = Integer.toHexString(ch);
-                    sb.append("\\u");
-                    sb.append("0".repeat(4 - hex.length()));
-                    sb.append(hex.toUpperCase());
+                    buf[pos++] = '\\';
+                    buf[pos++] = 'u';
+                    for (int shift = 12; shift >= 0; shift -= 4) {
+                        buf[pos++] = HEX[(ch >> shift) & 0xF];
+                    }
+                    return pos;
                 } else {
-                    sb.append(ch);
+                    buf[pos++] = ch;
+                    return pos;
                 }
         }
-        return sb.toString();
+    }
+
+    private static int put(char[] buf, int pos, char escaped) {
+        buf[pos++] = '\\';
+        buf[pos++] = escaped;
+        return pos;
     }
 }
@@ -0,0 +1,161 @@
+package nl.vpro.web.support;
+
+import java.io.*;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Wraps a response in something else (like a JSONP callback) without buffering it. The start is written on the first write to the response, and the rest is streamed straight through to the actual response. After the request is handled, {@link #flush()} must be called, which writes the end.
+ * <p>
+ * Since the length of the response is changed, and not known beforehand, content lengths set downstream are ignored, and the response is sent chunked.
+ *
+ * @author Michiel Meeuwissen
+ * @since 6.0
+ */
+public abstract class StreamingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    private final String contentType;
+
+    private final ServletOutputStream outputStream = new WrappedServletOutputStream(new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(byte @NonNull [] b, int off, int len) throws IOException {
+            if (len > 0) {
+                body().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null) {
+                body.flush();
+            }
+        }
+    });
+
+    private PrintWriter writer;
+
+    private OutputStream body;
+
+    protected StreamingResponseWrapper(HttpServletResponse response, String contentType) {
+        super(response);
+        this.contentType = contentType;
+    }
+
+    /**
+     * Writes the start to the actual output stream of the response
+     * @return The stream the body must be written to.
+     */
+    protected abstract OutputStream start(OutputStream out) throws IOException;
+
+    /**
+     * Writes the end. The actual output stream of the response is closed afterward.
+     * @param body The stream that was returned by {@link #start(OutputStream)}
+     */
+    protected abstract void end(OutputStream body) throws IOException;
+
+    /**
+     * Whether the start was written already.
+     */
+    protected boolean isStarted() {
+        return body != null;
+    }
+
+    private OutputStream body() throws IOException {
+        if (body == null) {
+            getResponse().setContentType(contentType);
+            body = start(getResponse().getOutputStream());
+        }
+        return body;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(getOutputStream(), true);
+        }
+        return writer;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        body().flush();
+        super.flushBuffer();
+    }
+
+    /**
+     * Writes the end of the response (and the start, if nothing was written yet), and closes the response.
+     */
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        end(body());
+        getResponse().getOutputStream().close();
+    }
+
+    /**
+     * The content type is always the one of this wrapper. Setting it downstream may still change the character encoding though.
+     */
+    @Override
+    public void setContentType(String type) {
+        super.setContentType(type);
+        super.setContentType(contentType);
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        // ignored, the length changes
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // ignored, the length changes
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addIntHeader(name, value);
+        }
+    }
+}
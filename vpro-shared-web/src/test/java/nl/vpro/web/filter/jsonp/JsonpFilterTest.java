@@ -0,0 +1,95 @@
+package nl.vpro.web.filter.jsonp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import nl.vpro.web.support.WrappedServletOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+class JsonpFilterTest {
+
+    private final JsonpFilter filter = new JsonpFilter();
+    private final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    private final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+    @BeforeEach
+    public void setup() {
+        filter.init(Mockito.mock(FilterConfig.class));
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getParameterMap()).thenReturn(Map.of("callback", new String[] {"cb"}));
+        when(request.getParameter("callback")).thenReturn("cb");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+    }
+
+    @Test
+    public void streaming() throws IOException, ServletException {
+        final ByteArrayOutputStream out = outputTo(new ByteArrayOutputStream());
+        filter.doFilter(request, response, (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.setContentLength(7);
+            resp.getOutputStream().write("{\"a\":1".getBytes(StandardCharsets.UTF_8));
+            // the start is written already
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("cb({\"a\":1");
+            resp.getOutputStream().write('}');
+        });
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("cb({\"a\":1});");
+        verify(response, atLeastOnce()).setContentType("application/javascript");
+        verify(response, never()).setContentLength(anyInt());
+    }
+
+    @Test
+    public void writer() throws IOException, ServletException {
+        final ByteArrayOutputStream out = outputTo(new ByteArrayOutputStream());
+        filter.doFilter(request, response, (req, resp) -> resp.getWriter().print("[1,2]"));
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("cb([1,2]);");
+    }
+
+    @Test
+    public void empty() throws IOException, ServletException {
+        final ByteArrayOutputStream out = outputTo(new ByteArrayOutputStream());
+        filter.doFilter(request, response, (req, resp) -> {});
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("cb();");
+    }
+
+    /**
+     * The wrapper used to buffer the complete response. Now the memory needed is independent of the size of the response.
+     */
+    @Test
+    public void memory() throws IOException, ServletException {
+        outputTo(OutputStream.nullOutputStream());
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final byte[] chunk = new byte[8192];
+        final long size = 32L * 1024 * 1024;
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        filter.doFilter(request, response, (req, resp) -> {
+            final OutputStream body = resp.getOutputStream();
+            for (long written = 0; written < size; written += chunk.length) {
+                body.write(chunk);
+            }
+        });
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        log.info("Allocated {} bytes for a response of {} bytes", allocated, size);
+        assertThat(allocated).isLessThan(size / 8);
+    }
+
+    private <T extends OutputStream> T outputTo(T out) throws IOException {
+        when(response.getOutputStream()).thenReturn(new WrappedServletOutputStream(out));
+        return out;
+    }
+}
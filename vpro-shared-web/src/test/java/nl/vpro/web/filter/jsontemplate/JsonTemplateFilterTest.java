@@ -0,0 +1,99 @@
+package nl.vpro.web.filter.jsontemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import nl.vpro.web.support.WrappedServletOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class JsonTemplateFilterTest {
+
+    private final JsonTemplateFilter filter = new JsonTemplateFilter();
+    private final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    private final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+    @BeforeEach
+    public void setup() {
+        filter.init(Mockito.mock(FilterConfig.class));
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getParameterMap()).thenReturn(Map.of("jstemplate", new String[] {"data"}));
+        when(request.getParameter("jstemplate")).thenReturn("data");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+    }
+
+    @Test
+    public void escaping() throws IOException, ServletException {
+        final ByteArrayOutputStream out = outputTo(new ByteArrayOutputStream());
+        filter.doFilter(request, response, (req, resp) -> {
+            final OutputStream body = resp.getOutputStream();
+            // byte by byte, so multibyte characters are split over writes
+            for (byte b : "<a href=\"/x\">\n\té €</a>".getBytes(StandardCharsets.UTF_8)) {
+                body.write(b);
+            }
+        });
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{ \"data\" : \"<a href=\\\"\\/x\\\">\\n\\té \\u20AC<\\/a>\"}");
+    }
+
+    @Test
+    public void errorBeforeWriting() throws IOException, ServletException {
+        final StringWriter writer = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(writer));
+        filter.doFilter(request, response, (req, resp) -> {
+            throw new ServletException("boom");
+        });
+        assertThat(writer.toString()).isEqualTo("{ \"error\" : \"boom\"}");
+    }
+
+    @Test
+    public void errorAfterCommit() throws IOException, ServletException {
+        final ByteArrayOutputStream out = outputTo(new ByteArrayOutputStream());
+        when(response.isCommitted()).thenReturn(true);
+        filter.doFilter(request, response, (req, resp) -> {
+            resp.getWriter().print("abc");
+            resp.flushBuffer();
+            throw new ServletException("boom");
+        });
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{ \"data\" : \"abc\", \"error\" : \"boom\"}");
+    }
+
+    /**
+     * The wrapper used to buffer the complete response twice. Now the memory needed is independent of the size of the response.
+     */
+    @Test
+    public void memory() throws IOException, ServletException {
+        outputTo(OutputStream.nullOutputStream());
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final byte[] chunk = "{\"title\":\"Één \\\"ding\\\"\"}\n".repeat(256).getBytes(StandardCharsets.UTF_8);
+        final long size = 16L * 1024 * 1024;
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        filter.doFilter(request, response, (req, resp) -> {
+            final OutputStream body = resp.getOutputStream();
+            for (long written = 0; written < size; written += chunk.length) {
+                body.write(chunk);
+            }
+        });
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        log.info("Allocated {} bytes for a response of {} bytes", allocated, size);
+        assertThat(allocated).isLessThan(size / 4);
+    }
+
+    private <T extends OutputStream> T outputTo(T out) throws IOException {
+        when(response.getOutputStream()).thenReturn(new WrappedServletOutputStream(out));
+        return out;
+    }
+}